@@ -12,6 +12,7 @@ import java.util.*;
  * 4. 非叶子根结点允许最少2个索引(孩子)
  * 5. 支持正向和逆向数据迭代
  * 6. 支持自定义数据比较器
+ * 7. 支持从有序数据自底向上批量构建，支持范围数据惰性迭代
  *
  * @author frankcl
  * @date 2023-10-25 11:37:21
@@ -194,23 +195,73 @@ public class BTree<K, V> implements Iterable<Entry<K, V>> {
      * @return 返回在起始key（包含）和结束key（包含）范围内数据
      */
     public List<V> search(K startKey, K endKey) {
+        List<V> values = new ArrayList<>();
+        Iterator<Entry<K, V>> iterator = rangeIterator(startKey, endKey);
+        while (iterator.hasNext()) values.add(iterator.next().getValue());
+        return values;
+    }
+
+    /**
+     * 获取范围数据迭代器
+     * 沿叶子节点链表惰性迭代，不复制数据
+     * 如果startKey大于endKey抛出异常IllegalArgumentException
+     *
+     * @param startKey 起始key，如果key为null抛出异常NullPointerException
+     * @param endKey 结束key，如果key为null抛出异常NullPointerException
+     * @return 在起始key（包含）和结束key（包含）范围内数据迭代器
+     */
+    public Iterator<Entry<K, V>> rangeIterator(K startKey, K endKey) {
         if (startKey == null || endKey == null) {
             throw new NullPointerException();
         }
         if (compare(startKey, endKey, comparator) > 0) {
             throw new IllegalArgumentException("Start key is greater than end key");
         }
-        List<V> values = new ArrayList<>();
-        if (root == null) return values;
-        Leaf leaf = findLeaf(startKey);
-        if (leaf == null) return values;
-        while (leaf != null) {
-            List<V> searchResults = leaf.search(startKey, endKey);
-            if (searchResults.isEmpty()) break;
-            values.addAll(searchResults);
-            leaf = leaf.next;
+        return new RangeEntryIterator(startKey, endKey);
+    }
+
+    /**
+     * 基于有序数据批量构建BTree
+     * 1. 数据按key严格递增排列，否则抛出异常IllegalArgumentException
+     * 2. 叶子节点和非叶子节点按阶数m填满，自底向上逐层构建，时间复杂度O(n)
+     * 3. 末尾节点数量不足(m-1)/2+1时，与前一兄弟节点均分数据(索引)
+     * 4. 构建成功后替换原有数据，构建失败原有数据保持不变
+     *
+     * @param sortedEntries 有序数据迭代器，数据key或数据值为null抛出异常NullPointerException
+     */
+    public void bulkLoad(Iterator<Entry<K, V>> sortedEntries) {
+        if (sortedEntries == null) throw new NullPointerException();
+        int count = 0;
+        K prevKey = null;
+        List<Node> nodes = new ArrayList<>();
+        List<Entry<K, V>> entries = new ArrayList<>(m);
+        while (sortedEntries.hasNext()) {
+            Entry<K, V> entry = sortedEntries.next();
+            if (entry == null || entry.getKey() == null || entry.getValue() == null) {
+                throw new NullPointerException();
+            }
+            if (prevKey != null && compare(prevKey, entry.getKey(), comparator) >= 0) {
+                throw new IllegalArgumentException("Entries are not in strictly ascending order");
+            }
+            prevKey = entry.getKey();
+            entries.add(new Entry<>(entry.getKey(), entry.getValue()));
+            count++;
+            if (entries.size() < m) continue;
+            nodes.add(new Leaf(entries, comparator));
+            entries = new ArrayList<>(m);
         }
-        return values;
+        if (!entries.isEmpty()) nodes.add(new Leaf(entries, comparator));
+        if (nodes.size() > 1) {
+            balanceTail(((Leaf) nodes.get(nodes.size() - 2)).entries, ((Leaf) nodes.get(nodes.size() - 1)).entries);
+        }
+        for (int i = 1; i < nodes.size(); i++) {
+            Leaf prevLeaf = (Leaf) nodes.get(i - 1), leaf = (Leaf) nodes.get(i);
+            prevLeaf.next = leaf;
+            leaf.prev = prevLeaf;
+        }
+        while (nodes.size() > 1) nodes = buildParents(nodes);
+        root = nodes.isEmpty() ? null : nodes.get(0);
+        size = count;
     }
 
     /**
@@ -253,6 +304,50 @@ public class BTree<K, V> implements Iterable<Entry<K, V>> {
         return new ReversedEntryIterator();
     }
 
+    /**
+     * 批量构建上层非叶子节点
+     *
+     * @param nodes 下层节点列表
+     * @return 上层节点列表
+     */
+    private List<Node> buildParents(List<Node> nodes) {
+        List<List<Entry<K, Node>>> childrenList = new ArrayList<>();
+        List<Entry<K, Node>> children = new ArrayList<>(m);
+        for (Node node : nodes) {
+            children.add(new Entry<>(node.getMaxKey(), node));
+            if (children.size() < m) continue;
+            childrenList.add(children);
+            children = new ArrayList<>(m);
+        }
+        if (!children.isEmpty()) childrenList.add(children);
+        if (childrenList.size() > 1) {
+            balanceTail(childrenList.get(childrenList.size() - 2), childrenList.get(childrenList.size() - 1));
+        }
+        List<Node> parents = new ArrayList<>(childrenList.size());
+        for (List<Entry<K, Node>> nodeChildren : childrenList) {
+            Node parent = new Node(nodeChildren, comparator);
+            for (Entry<K, Node> child : nodeChildren) child.getValue().parent = parent;
+            parents.add(parent);
+        }
+        return parents;
+    }
+
+    /**
+     * 均衡末尾两个兄弟节点数据(索引)
+     * 末尾节点数量不足(m-1)/2+1时，从前一节点尾部移动数据，使两者数量相当
+     *
+     * @param prevItems 前一节点数据(索引)
+     * @param lastItems 末尾节点数据(索引)
+     * @param <E> 数据类型
+     */
+    private <E> void balanceTail(List<E> prevItems, List<E> lastItems) {
+        if (lastItems.size() >= n) return;
+        int moveCount = (prevItems.size() + lastItems.size()) / 2 - lastItems.size();
+        List<E> movedItems = prevItems.subList(prevItems.size() - moveCount, prevItems.size());
+        lastItems.addAll(0, movedItems);
+        movedItems.clear();
+    }
+
     /**
      * 添加数据后处理
      * 1. 如果添加数据影响节点最大值，调整父节点索引数据
@@ -512,6 +607,70 @@ public class BTree<K, V> implements Iterable<Entry<K, V>> {
         return -1;
     }
 
+    /**
+     * 二分查找首个不小于key的数据位置
+     *
+     * @param entries 查找列表
+     * @param key 查找key
+     * @param comparator 比较器
+     * @return 首个不小于key的数据下标，不存在返回列表大小
+     * @param <K> 数据key
+     * @param <V> 数据值
+     */
+    private static <K, V> int lowerBound(List<Entry<K, V>> entries, K key,
+                                         Comparator<? super K> comparator) {
+        int start = 0, end = entries.size();
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (compare(entries.get(mid).getKey(), key, comparator) < 0) start = mid + 1;
+            else end = mid;
+        }
+        return start;
+    }
+
+    /**
+     * 范围数据迭代器
+     * 从起始key所在叶子节点开始，沿叶子节点链表迭代至结束key
+     */
+    final class RangeEntryIterator implements Iterator<Entry<K, V>> {
+
+        private int cursor;
+        private Leaf leafCursor;
+        private final K endKey;
+
+        public RangeEntryIterator(K startKey, K endKey) {
+            this.endKey = endKey;
+            leafCursor = findLeaf(startKey);
+            cursor = leafCursor == null ? 0 : lowerBound(leafCursor.entries, startKey, comparator);
+            locate();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leafCursor != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (leafCursor == null) throw new NoSuchElementException();
+            Entry<K, V> entry = leafCursor.entries.get(cursor++);
+            locate();
+            return entry;
+        }
+
+        /**
+         * 定位下一数据，超出结束key或叶子链表结束时置空叶子游标
+         */
+        private void locate() {
+            while (leafCursor != null && cursor >= leafCursor.entries.size()) {
+                leafCursor = leafCursor.next;
+                cursor = 0;
+            }
+            if (leafCursor == null) return;
+            if (compare(leafCursor.entries.get(cursor).getKey(), endKey, comparator) > 0) leafCursor = null;
+        }
+    }
+
     /**
      * 数据迭代器
      */
@@ -0,0 +1,527 @@
+package xin.manong.weapon.base.collection;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+
+/**
+ * 并发跳表实现：接口与SkipList保持一致
+ * 1. 节点后向引用基于CAS更新，读操作无锁，写操作无锁
+ * 2. 删除节点时自顶向下标记各层后向引用，查找过程负责摘除已标记节点
+ * 3. 节点层数由ThreadLocalRandom按1/2概率生成，最大层数不超过31
+ * 4. 正向和逆向迭代器为弱一致性迭代器，不抛出ConcurrentModificationException
+ * 5. 获取数据返回Entry快照，修改快照不影响跳表数据
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:36:53
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class ConcurrentSkipList<K, V> implements Iterable<Entry<K, V>> {
+
+    private static final int DEFAULT_MAX_LEVEL = 31;
+    private static final int MAX_MAX_LEVEL = 31;
+
+    /* 已使用最高层数，只增不减，用于缩短查找路径 */
+    private final AtomicInteger level;
+    /* 数据数量 */
+    private final AtomicInteger size;
+    /* 最大层数 */
+    private final int maxLevel;
+    /* 头节点 */
+    private final Node<K, V> headNode;
+    /* 尾节点 */
+    private final Node<K, V> tailNode;
+    /* 数据比较器 */
+    private final Comparator<? super K> comparator;
+
+    public ConcurrentSkipList() {
+        this(DEFAULT_MAX_LEVEL, null);
+    }
+
+    public ConcurrentSkipList(int maxLevel) {
+        this(maxLevel, null);
+    }
+
+    public ConcurrentSkipList(Comparator<? super K> comparator) {
+        this(DEFAULT_MAX_LEVEL, comparator);
+    }
+
+    public ConcurrentSkipList(int maxLevel, Comparator<? super K> comparator) {
+        if (maxLevel <= 0) throw new IllegalArgumentException(String.format("Illegal max level:%d", maxLevel));
+        this.level = new AtomicInteger(1);
+        this.size = new AtomicInteger(0);
+        this.maxLevel = Math.min(maxLevel, MAX_MAX_LEVEL);
+        this.comparator = comparator;
+        tailNode = new Node<>(null, null, this.maxLevel, null);
+        headNode = new Node<>(null, null, this.maxLevel, tailNode);
+    }
+
+    /**
+     * 添加数据
+     * 1. 数据key存在更新数据值，不存在添加数据
+     * 2. 先CAS链接最底层确定插入成功，再自底向上链接上层
+     *
+     * @param key 数据key，如果key为null抛出异常NullPointerException
+     * @param value 数据值，如果value为null抛出异常NullPointerException
+     * @return 如果key存在，使用value覆盖原值并返回false，否则返回true
+     */
+    public boolean add(K key, V value) {
+        if (key == null) throw new NullPointerException();
+        if (value == null) throw new NullPointerException();
+        int nodeLevel = randomLevel();
+        Node<K, V>[] predNodes = new Node[maxLevel];
+        Node<K, V>[] succNodes = new Node[maxLevel];
+        while (true) {
+            if (find(key, predNodes, succNodes)) {
+                Node<K, V> node = succNodes[0];
+                if (node.nextNodes[0].isMarked()) continue;
+                node.value = value;
+                return false;
+            }
+            Node<K, V> newNode = new Node<>(key, value, nodeLevel, null);
+            for (int i = 0; i < nodeLevel; i++) newNode.nextNodes[i].set(succNodes[i], false);
+            if (!predNodes[0].nextNodes[0].compareAndSet(succNodes[0], newNode, false, false)) continue;
+            size.incrementAndGet();
+            linkUpperLevels(newNode, predNodes, succNodes);
+            return true;
+        }
+    }
+
+    /**
+     * 根据key删除数据
+     * 自顶向下标记节点各层后向引用，最底层标记成功者完成删除
+     *
+     * @param key 数据key，如果key为null抛出异常NullPointerException
+     * @return 成功返回数据值，否则返回null
+     */
+    public V remove(K key) {
+        if (key == null) throw new NullPointerException();
+        Node<K, V>[] predNodes = new Node[maxLevel];
+        Node<K, V>[] succNodes = new Node[maxLevel];
+        if (!find(key, predNodes, succNodes)) return null;
+        Node<K, V> node = succNodes[0];
+        return removeNode(node, predNodes, succNodes) ? node.value : null;
+    }
+
+    /**
+     * 根据key获取值
+     * 查找过程不修改跳表，跳过已标记删除节点
+     *
+     * @param key 数据key，如果key为null抛出异常NullPointerException
+     * @return 如果存在返回数据值，否则返回null
+     */
+    public V get(K key) {
+        if (key == null) throw new NullPointerException();
+        Node<K, V> node = findLessThan(key).nextNode(0);
+        while (node != tailNode && node.nextNodes[0].isMarked()) node = node.nextNode(0);
+        return compare(key, node) == 0 ? node.value : null;
+    }
+
+    /**
+     * 移除首元素
+     *
+     * @return 如果表为空返回null，否则返回首元素
+     */
+    public Entry<K, V> removeFirst() {
+        while (true) {
+            Node<K, V> node = firstNode();
+            if (node == null) return null;
+            Entry<K, V> entry = removeNode(node);
+            if (entry != null) return entry;
+        }
+    }
+
+    /**
+     * 移除尾元素
+     *
+     * @return 如果表为空返回null，否则返回尾元素
+     */
+    public Entry<K, V> removeLast() {
+        while (true) {
+            Node<K, V> node = lastNode();
+            if (node == null) return null;
+            Entry<K, V> entry = removeNode(node);
+            if (entry != null) return entry;
+        }
+    }
+
+    /**
+     * 获取首元素，如果跳表为空返回null
+     *
+     * @return 成功返回元素值，否则返回null
+     */
+    public Entry<K, V> getFirst() {
+        Node<K, V> node = firstNode();
+        return node == null ? null : node.snapshot();
+    }
+
+    /**
+     * 获取尾元素值，如果跳表为空返回null
+     *
+     * @return 成功返回元素值，否则返回null
+     */
+    public Entry<K, V> getLast() {
+        Node<K, V> node = lastNode();
+        return node == null ? null : node.snapshot();
+    }
+
+    /**
+     * 列表是否为空
+     *
+     * @return 列表为空返回true，否则返回false
+     */
+    public boolean isEmpty() {
+        return firstNode() == null;
+    }
+
+    /**
+     * 获取数据数量
+     * 并发修改时为近似值
+     *
+     * @return 数据数量
+     */
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Entry<K, V> entry : this) {
+            if (!builder.isEmpty()) builder.append(",");
+            builder.append(entry);
+        }
+        builder.insert(0, "[").append("]");
+        return builder.toString();
+    }
+
+    /**
+     * 获取数据迭代器
+     *
+     * @return 数据迭代器
+     */
+    @NotNull
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new EntryIterator();
+    }
+
+    /**
+     * 获取逆向数据迭代器
+     *
+     * @return 逆向数据迭代器
+     */
+    public Iterator<Entry<K, V>> reversedIterator() {
+        return new ReversedEntryIterator();
+    }
+
+    /**
+     * 查找key各层前驱节点和后继节点，查找过程中摘除已标记删除节点
+     *
+     * @param key 数据key
+     * @param predNodes 各层前驱节点
+     * @param succNodes 各层后继节点
+     * @return 最底层后继节点key与查找key相等返回true，否则返回false
+     */
+    private boolean find(K key, Node<K, V>[] predNodes, Node<K, V>[] succNodes) {
+        boolean[] marked = new boolean[1];
+        retry:
+        while (true) {
+            Node<K, V> predNode = headNode;
+            for (int i = maxLevel - 1; i >= 0; i--) {
+                Node<K, V> currentNode = predNode.nextNode(i);
+                while (currentNode != tailNode) {
+                    Node<K, V> succNode = currentNode.nextNodes[i].get(marked);
+                    while (marked[0]) {
+                        if (!predNode.nextNodes[i].compareAndSet(currentNode, succNode, false, false)) continue retry;
+                        currentNode = succNode;
+                        if (currentNode == tailNode) break;
+                        succNode = currentNode.nextNodes[i].get(marked);
+                    }
+                    if (compare(key, currentNode) <= 0) break;
+                    predNode = currentNode;
+                    currentNode = succNode;
+                }
+                predNodes[i] = predNode;
+                succNodes[i] = currentNode;
+            }
+            return compare(key, succNodes[0]) == 0;
+        }
+    }
+
+    /**
+     * 自底向上链接新节点上层引用
+     * 新节点在链接过程中被标记删除时停止链接
+     *
+     * @param newNode 新节点
+     * @param predNodes 各层前驱节点
+     * @param succNodes 各层后继节点
+     */
+    private void linkUpperLevels(Node<K, V> newNode, Node<K, V>[] predNodes, Node<K, V>[] succNodes) {
+        for (int i = 1; i < newNode.level; i++) {
+            while (true) {
+                Node<K, V> succNode = succNodes[i];
+                Node<K, V> nextNode = newNode.nextNode(i);
+                if (newNode.nextNodes[i].isMarked()) return;
+                if (nextNode != succNode && !newNode.nextNodes[i].compareAndSet(
+                        nextNode, succNode, false, false)) return;
+                if (predNodes[i].nextNodes[i].compareAndSet(succNode, newNode, false, false)) break;
+                find(newNode.key, predNodes, succNodes);
+            }
+        }
+        int currentLevel = level.get();
+        while (newNode.level > currentLevel && !level.compareAndSet(currentLevel, newNode.level)) {
+            currentLevel = level.get();
+        }
+    }
+
+    /**
+     * 删除节点，删除成功返回节点数据快照
+     *
+     * @param node 节点
+     * @return 删除成功返回数据快照，节点已被其他线程删除返回null
+     */
+    private Entry<K, V> removeNode(Node<K, V> node) {
+        Node<K, V>[] predNodes = new Node[maxLevel];
+        Node<K, V>[] succNodes = new Node[maxLevel];
+        V value = node.value;
+        return removeNode(node, predNodes, succNodes) ? new Entry<>(node.key, value) : null;
+    }
+
+    /**
+     * 删除节点
+     * 1. 自顶向下标记上层后向引用
+     * 2. 标记最底层后向引用，标记成功者完成删除并摘除节点
+     *
+     * @param node 节点
+     * @param predNodes 各层前驱节点
+     * @param succNodes 各层后继节点
+     * @return 删除成功返回true，节点已被其他线程删除返回false
+     */
+    private boolean removeNode(Node<K, V> node, Node<K, V>[] predNodes, Node<K, V>[] succNodes) {
+        boolean[] marked = new boolean[1];
+        for (int i = node.level - 1; i > 0; i--) {
+            Node<K, V> succNode = node.nextNodes[i].get(marked);
+            while (!marked[0]) {
+                node.nextNodes[i].attemptMark(succNode, true);
+                succNode = node.nextNodes[i].get(marked);
+            }
+        }
+        Node<K, V> succNode = node.nextNodes[0].get(marked);
+        while (true) {
+            if (marked[0]) return false;
+            if (node.nextNodes[0].compareAndSet(succNode, succNode, false, true)) {
+                size.decrementAndGet();
+                find(node.key, predNodes, succNodes);
+                return true;
+            }
+            succNode = node.nextNodes[0].get(marked);
+        }
+    }
+
+    /**
+     * 查找小于key的最大未删除节点
+     *
+     * @param key 数据key
+     * @return 节点，不存在返回头节点
+     */
+    private Node<K, V> findLessThan(K key) {
+        Node<K, V> predNode = headNode;
+        for (int i = level.get() - 1; i >= 0; i--) {
+            Node<K, V> currentNode = predNode.nextNode(i);
+            while (currentNode != tailNode) {
+                Node<K, V> succNode = currentNode.nextNode(i);
+                if (currentNode.nextNodes[i].isMarked()) {
+                    currentNode = succNode;
+                    continue;
+                }
+                if (compare(key, currentNode) <= 0) break;
+                predNode = currentNode;
+                currentNode = succNode;
+            }
+        }
+        return predNode;
+    }
+
+    /**
+     * 获取首个未删除节点
+     *
+     * @return 节点，跳表为空返回null
+     */
+    private Node<K, V> firstNode() {
+        Node<K, V> node = headNode.nextNode(0);
+        while (node != tailNode && node.nextNodes[0].isMarked()) node = node.nextNode(0);
+        return node == tailNode ? null : node;
+    }
+
+    /**
+     * 获取最后未删除节点
+     *
+     * @return 节点，跳表为空返回null
+     */
+    private Node<K, V> lastNode() {
+        Node<K, V> predNode = headNode;
+        for (int i = level.get() - 1; i >= 0; i--) {
+            Node<K, V> currentNode = predNode.nextNode(i);
+            while (currentNode != tailNode) {
+                if (!currentNode.nextNodes[i].isMarked()) predNode = currentNode;
+                currentNode = currentNode.nextNode(i);
+            }
+        }
+        return predNode == headNode ? null : predNode;
+    }
+
+    /**
+     * 比较key和node
+     *
+     * @param key 数据key
+     * @param node 节点
+     * @return 比较结果
+     */
+    private int compare(K key, Node<K, V> node) {
+        if (node == headNode) return 1;
+        if (node == tailNode) return -1;
+        return comparator == null ? ((Comparable<? super K>) key).compareTo(node.key) :
+                comparator.compare(key, node.key);
+    }
+
+    /**
+     * 随机level生成：每层以1/2概率晋升
+     *
+     * @return level
+     */
+    private int randomLevel() {
+        int bits = ThreadLocalRandom.current().nextInt();
+        int nodeLevel = 1;
+        while ((bits & 1) != 0 && nodeLevel < maxLevel) {
+            nodeLevel++;
+            bits >>>= 1;
+        }
+        return nodeLevel;
+    }
+
+    /**
+     * 跳表数据迭代器，弱一致性
+     */
+    final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private Node<K, V> nextNode;
+        private Node<K, V> lastNode;
+
+        public EntryIterator() {
+            nextNode = firstNode();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (nextNode == null) throw new NoSuchElementException();
+            lastNode = nextNode;
+            Node<K, V> node = nextNode.nextNode(0);
+            while (node != tailNode && node.nextNodes[0].isMarked()) node = node.nextNode(0);
+            nextNode = node == tailNode ? null : node;
+            return lastNode.snapshot();
+        }
+
+        @Override
+        public void remove() {
+            if (lastNode == null) throw new IllegalStateException();
+            removeNode(lastNode);
+            lastNode = null;
+        }
+    }
+
+    /**
+     * 跳表反向数据迭代器，弱一致性
+     * 每次迭代查找小于当前key的最大节点
+     */
+    final class ReversedEntryIterator implements Iterator<Entry<K, V>> {
+
+        private Node<K, V> nextNode;
+        private Node<K, V> lastNode;
+
+        public ReversedEntryIterator() {
+            nextNode = lastNode();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (nextNode == null) throw new NoSuchElementException();
+            lastNode = nextNode;
+            Node<K, V> node = findLessThan(lastNode.key);
+            nextNode = node == headNode ? null : node;
+            return lastNode.snapshot();
+        }
+
+        @Override
+        public void remove() {
+            if (lastNode == null) throw new IllegalStateException();
+            removeNode(lastNode);
+            lastNode = null;
+        }
+    }
+
+    /**
+     * 跳表节点
+     *
+     * @param <K> 数据key
+     * @param <V> 数据值
+     */
+    static final class Node<K, V> {
+        /* 层数 */
+        private final int level;
+        /* 数据key */
+        private final K key;
+        /* 数据值 */
+        private volatile V value;
+        /* 后向节点引用，标记位表示节点已删除 */
+        private final AtomicMarkableReference<Node<K, V>>[] nextNodes;
+
+        public Node(K key, V value, int level, Node<K, V> nextNode) {
+            assert level > 0;
+            this.key = key;
+            this.value = value;
+            this.level = level;
+            this.nextNodes = new AtomicMarkableReference[level];
+            for (int i = 0; i < level; i++) nextNodes[i] = new AtomicMarkableReference<>(nextNode, false);
+        }
+
+        /**
+         * 获取指定层后向节点
+         *
+         * @param i 层
+         * @return 后向节点
+         */
+        private Node<K, V> nextNode(int i) {
+            return nextNodes[i].getReference();
+        }
+
+        /**
+         * 生成数据快照
+         *
+         * @return 数据快照
+         */
+        private Entry<K, V> snapshot() {
+            return new Entry<>(key, value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package xin.manong.weapon.base.collection;
+
+import com.github.luben.zstd.Zstd;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * dump文件数据块压缩解压
+ * 压缩库按需加载，未使用的压缩方式不要求依赖存在
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:33:02
+ */
+class DumpCodec {
+
+    private static final int ZSTD_COMPRESSION_LEVEL = 3;
+
+    /**
+     * 压缩数据块
+     *
+     * @param compression 压缩方式
+     * @param bytes 原始数据
+     * @param length 原始数据长度
+     * @return 压缩数据，长度以数组长度为准
+     * @throws IOException 压缩失败抛出异常
+     */
+    static byte[] compress(DumpCompression compression, byte[] bytes, int length) throws IOException {
+        switch (compression) {
+            case LZ4: {
+                LZ4Compressor compressor = LZ4Holder.FACTORY.fastCompressor();
+                byte[] compressedBytes = new byte[compressor.maxCompressedLength(length)];
+                int compressedLength = compressor.compress(bytes, 0, length,
+                        compressedBytes, 0, compressedBytes.length);
+                return Arrays.copyOf(compressedBytes, compressedLength);
+            }
+            case ZSTD: {
+                byte[] compressedBytes = new byte[(int) Zstd.compressBound(length)];
+                long compressedLength = Zstd.compressByteArray(compressedBytes, 0, compressedBytes.length,
+                        bytes, 0, length, ZSTD_COMPRESSION_LEVEL);
+                if (Zstd.isError(compressedLength)) {
+                    throw new IOException(String.format("Zstd compress failed:%s", Zstd.getErrorName(compressedLength)));
+                }
+                return Arrays.copyOf(compressedBytes, (int) compressedLength);
+            }
+            default:
+                return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    /**
+     * 解压数据块
+     *
+     * @param compression 压缩方式
+     * @param bytes 压缩数据
+     * @param rawLength 原始数据长度
+     * @return 原始数据
+     * @throws IOException 解压失败抛出异常
+     */
+    static byte[] decompress(DumpCompression compression, byte[] bytes, int rawLength) throws IOException {
+        switch (compression) {
+            case LZ4: {
+                LZ4FastDecompressor decompressor = LZ4Holder.FACTORY.fastDecompressor();
+                byte[] rawBytes = new byte[rawLength];
+                int readLength = decompressor.decompress(bytes, 0, rawBytes, 0, rawLength);
+                if (readLength != bytes.length) throw new IOException("LZ4 decompress failed: corrupted block");
+                return rawBytes;
+            }
+            case ZSTD: {
+                byte[] rawBytes = new byte[rawLength];
+                long decompressedLength = Zstd.decompressByteArray(rawBytes, 0, rawLength,
+                        bytes, 0, bytes.length);
+                if (Zstd.isError(decompressedLength)) {
+                    throw new IOException(String.format("Zstd decompress failed:%s",
+                            Zstd.getErrorName(decompressedLength)));
+                }
+                if (decompressedLength != rawLength) throw new IOException("Zstd decompress failed: corrupted block");
+                return rawBytes;
+            }
+            default:
+                return bytes;
+        }
+    }
+
+    /**
+     * LZ4延迟加载
+     */
+    private static class LZ4Holder {
+        private static final LZ4Factory FACTORY = LZ4Factory.fastestInstance();
+    }
+}
@@ -0,0 +1,12 @@
+package xin.manong.weapon.base.collection;
+
+/**
+ * dump文件数据块压缩方式
+ * LZ4依赖lz4-java，ZSTD依赖zstd-jni
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:32:35
+ */
+public enum DumpCompression {
+    NONE, LZ4, ZSTD
+}
@@ -2,15 +2,18 @@ package xin.manong.weapon.base.collection;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
-import com.esotericsoftware.kryo.io.KryoBufferUnderflowException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.io.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * dump文件数据读取器
+ * 1. 按数据块读取DumpWriter生成的dump文件，数据块读取完成后根据文件尾校验数据总数
+ * 2. 设置预读执行器时，消费当前数据块的同时异步读取并解压下一数据块
  *
  * @author frankcl
  * @date 2023-04-27 14:43:48
@@ -19,53 +22,170 @@ class DumpReader<T> implements RecordReader<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(DumpReader.class);
 
+    private int blockRemainRecordNum;
+    private long recordNum;
     private final String dumpFile;
     private final Class<T> recordClass;
     private final Kryo kryo;
-    private Input input;
+    private final Executor readAheadExecutor;
+    private final Input input;
+    private DumpCompression compression;
+    private DataInputStream inputStream;
+    private CompletableFuture<Block> nextBlock;
+    private boolean endOfBlocks;
     private T record;
 
     public DumpReader(String dumpFile, Class<T> recordClass, Kryo kryo) {
+        this(dumpFile, recordClass, kryo, null);
+    }
+
+    public DumpReader(String dumpFile, Class<T> recordClass, Kryo kryo, Executor readAheadExecutor) {
         this.dumpFile = dumpFile;
         this.recordClass = recordClass;
         this.kryo = kryo;
+        this.readAheadExecutor = readAheadExecutor;
+        this.input = new Input();
     }
 
     @Override
     public boolean open() {
-        if (input != null) {
+        if (inputStream != null) {
             logger.warn("Dump reader has been opened for file:{}", dumpFile);
             return false;
         }
         try {
-            input = new Input(new FileInputStream(dumpFile));
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(dumpFile)));
+            if (inputStream.readInt() != DumpWriter.MAGIC) throw new IOException("Unknown dump file format");
+            byte version = inputStream.readByte();
+            if (version != DumpWriter.VERSION) {
+                throw new IOException(String.format("Unsupported dump file version:%d", version));
+            }
+            int ordinal = inputStream.readByte();
+            DumpCompression[] compressions = DumpCompression.values();
+            if (ordinal < 0 || ordinal >= compressions.length) {
+                throw new IOException(String.format("Unknown dump file compression:%d", ordinal));
+            }
+            compression = compressions[ordinal];
+            blockRemainRecordNum = 0;
+            recordNum = 0L;
+            endOfBlocks = false;
+            readAhead();
             logger.info("Open dump reader success for file:{}", dumpFile);
             return true;
         } catch (IOException e) {
             logger.error("Open dump reader failed for file:{}", dumpFile);
             logger.error(e.getMessage(), e);
+            close();
             return false;
         }
     }
 
     @Override
     public void close() {
-        if (input == null) return;
-        input.close();
+        if (inputStream == null) return;
+        if (nextBlock != null) {
+            try {
+                nextBlock.join();
+            } catch (Exception ignored) {
+            }
+            nextBlock = null;
+        }
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            logger.warn("Close dump file:{} failed", dumpFile);
+        }
+        inputStream = null;
         logger.info("Close dump reader success for file:{}", dumpFile);
     }
 
     @Override
     public T read() {
-        try {
-            return record = kryo.readObject(input, recordClass);
-        } catch (KryoBufferUnderflowException e) {
-            return record = null;
-        }
+        if (blockRemainRecordNum == 0 && !endOfBlocks) nextBlock();
+        if (blockRemainRecordNum == 0) return record = null;
+        blockRemainRecordNum--;
+        return record = kryo.readObject(input, recordClass);
     }
 
     @Override
     public T peak() {
         return record;
     }
+
+    /**
+     * 切换到下一数据块，并预读后续数据块
+     */
+    private void nextBlock() {
+        Block block;
+        try {
+            block = nextBlock == null ? loadBlock() : nextBlock.join();
+        } catch (CompletionException | UncheckedIOException e) {
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            logger.error("Read dump file:{} failed", dumpFile);
+            logger.error(cause.getMessage(), cause);
+            throw cause instanceof UncheckedIOException ? (UncheckedIOException) cause :
+                    new UncheckedIOException(new IOException(cause));
+        } finally {
+            nextBlock = null;
+        }
+        if (block == null) {
+            endOfBlocks = true;
+            return;
+        }
+        input.setBuffer(block.bytes, 0, block.bytes.length);
+        blockRemainRecordNum = block.recordNum;
+        readAhead();
+    }
+
+    /**
+     * 使用预读执行器异步读取下一数据块，未设置预读执行器时不进行预读
+     */
+    private void readAhead() {
+        if (readAheadExecutor == null) return;
+        nextBlock = CompletableFuture.supplyAsync(this::loadBlock, readAheadExecutor);
+    }
+
+    /**
+     * 读取并解压数据块
+     *
+     * @return 数据块，读取到文件尾返回null
+     */
+    private Block loadBlock() {
+        try {
+            int blockRecordNum = inputStream.readInt();
+            if (blockRecordNum == DumpWriter.END_OF_BLOCKS) {
+                long totalRecordNum = inputStream.readLong();
+                if (totalRecordNum != recordNum) {
+                    throw new IOException(String.format("Record num mismatched, expected:%d, actual:%d",
+                            totalRecordNum, recordNum));
+                }
+                return null;
+            }
+            int rawLength = inputStream.readInt();
+            int storedLength = inputStream.readInt();
+            if (blockRecordNum <= 0 || rawLength < 0 || storedLength < 0) throw new IOException("Corrupted block");
+            byte[] bytes = new byte[storedLength];
+            inputStream.readFully(bytes);
+            recordNum += blockRecordNum;
+            return new Block(blockRecordNum, DumpCodec.decompress(compression, bytes, rawLength));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 数据块
+     */
+    private static class Block {
+
+        /* 数据数量 */
+        private final int recordNum;
+        /* 原始数据 */
+        private final byte[] bytes;
+
+        public Block(int recordNum, byte[] bytes) {
+            this.recordNum = recordNum;
+            this.bytes = bytes;
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package xin.manong.weapon.base.collection;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * dump文件数据写入器
+ * dump文件格式（版本1）
+ * 1. 文件头：魔数(int) + 版本(byte) + 压缩方式(byte)
+ * 2. 数据块：数据数量(int) + 原始长度(int) + 存储长度(int) + 存储数据，数据块按压缩方式独立压缩
+ * 3. 文件尾：结束标记(int，值为-1) + 数据总数(long)
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:33:28
+ */
+class DumpWriter<T> {
+
+    static final int MAGIC = 0x4C534D54;
+    static final byte VERSION = 1;
+    static final int END_OF_BLOCKS = -1;
+    static final int DEFAULT_BLOCK_SIZE = 65536;
+
+    private int blockRecordNum;
+    private long recordNum;
+    private long writtenBytes;
+    private final int blockSize;
+    private final String dumpFile;
+    private final DumpCompression compression;
+    private final Kryo kryo;
+    private final Output output;
+    private DataOutputStream outputStream;
+
+    public DumpWriter(String dumpFile, Kryo kryo, DumpCompression compression, int blockSize) {
+        this.dumpFile = dumpFile;
+        this.kryo = kryo;
+        this.compression = compression == null ? DumpCompression.NONE : compression;
+        this.blockSize = blockSize > 0 ? blockSize : DEFAULT_BLOCK_SIZE;
+        this.output = new Output(this.blockSize, -1);
+    }
+
+    /**
+     * 打开写入器，写入文件头
+     *
+     * @throws IOException I/O异常
+     */
+    public void open() throws IOException {
+        if (outputStream != null) throw new IOException(String.format("Dump writer has been opened for file:%s", dumpFile));
+        outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dumpFile)));
+        outputStream.writeInt(MAGIC);
+        outputStream.writeByte(VERSION);
+        outputStream.writeByte(compression.ordinal());
+        blockRecordNum = 0;
+        recordNum = 0L;
+        writtenBytes = Integer.BYTES + 2;
+    }
+
+    /**
+     * 写入数据，数据块达到阈值后写入文件
+     *
+     * @param record 数据
+     * @throws IOException I/O异常
+     */
+    public void write(T record) throws IOException {
+        kryo.writeObject(output, record);
+        blockRecordNum++;
+        recordNum++;
+        if (output.position() >= blockSize) flushBlock();
+    }
+
+    /**
+     * 写入剩余数据块及文件尾，关闭写入器
+     *
+     * @throws IOException I/O异常
+     */
+    public void close() throws IOException {
+        if (outputStream == null) return;
+        try {
+            flushBlock();
+            outputStream.writeInt(END_OF_BLOCKS);
+            outputStream.writeLong(recordNum);
+            writtenBytes += Integer.BYTES + Long.BYTES;
+        } finally {
+            outputStream.close();
+            outputStream = null;
+        }
+    }
+
+    /**
+     * 获取写入文件字节数，关闭写入器后为文件总字节数
+     *
+     * @return 写入文件字节数
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * 写入数据块
+     *
+     * @throws IOException I/O异常
+     */
+    private void flushBlock() throws IOException {
+        if (blockRecordNum == 0) return;
+        int rawLength = output.position();
+        byte[] bytes = DumpCodec.compress(compression, output.getBuffer(), rawLength);
+        outputStream.writeInt(blockRecordNum);
+        outputStream.writeInt(rawLength);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+        writtenBytes += Integer.BYTES * 3 + bytes.length;
+        output.setPosition(0);
+        blockRecordNum = 0;
+    }
+}
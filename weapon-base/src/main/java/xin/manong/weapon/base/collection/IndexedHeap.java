@@ -0,0 +1,370 @@
+package xin.manong.weapon.base.collection;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 可寻址堆实现
+ * 1. 添加元素返回句柄Handle，句柄记录元素在堆数组中的位置，元素移动时同步更新
+ * 2. 通过句柄删除元素、更新元素优先级，时间复杂度O(log n)，无需线性查找元素位置
+ * 3. 通过comparator决定大顶堆或小顶堆，decreaseKey语义为元素向堆顶方向调整
+ * 4. 支持数据迭代，迭代器保证数据排序
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:42:54
+ */
+@SuppressWarnings("unchecked")
+public class IndexedHeap<E> implements Iterable<E> {
+
+    private static final int DEFAULT_INIT_CAPACITY = 13;
+
+    /* 堆元素数量 */
+    private int size;
+    /* 句柄数组 */
+    private Handle<E>[] handles;
+    /* 比较器 */
+    private final Comparator<? super E> comparator;
+
+    /**
+     * 堆元素句柄
+     *
+     * @param <E> 数据类型
+     */
+    public static final class Handle<E> {
+
+        /* 元素 */
+        private E element;
+        /* 元素在堆数组中的位置，不在堆中为-1 */
+        private int index;
+
+        private Handle(E element, int index) {
+            this.element = element;
+            this.index = index;
+        }
+
+        /**
+         * 获取元素
+         *
+         * @return 元素
+         */
+        public E getElement() {
+            return element;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(element);
+        }
+    }
+
+    public IndexedHeap() {
+        this(DEFAULT_INIT_CAPACITY, null);
+    }
+
+    public IndexedHeap(Comparator<? super E> comparator) {
+        this(DEFAULT_INIT_CAPACITY, comparator);
+    }
+
+    public IndexedHeap(int initCapacity, Comparator<? super E> comparator) {
+        if (initCapacity < 1) throw new IllegalArgumentException("Init capacity is invalid");
+        this.handles = new Handle[initCapacity];
+        this.comparator = comparator;
+        this.size = 0;
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param e 元素，元素为空抛出异常NullPointerException
+     * @return 元素句柄
+     */
+    public Handle<E> add(E e) {
+        if (e == null) throw new NullPointerException();
+        expandCapacity(size + 1);
+        Handle<E> handle = new Handle<>(e, size++);
+        moveUp(handle, handle.index);
+        return handle;
+    }
+
+    /**
+     * 获取堆顶元素
+     * 完成操作后不影响堆元素
+     *
+     * @return 堆顶元素，如果堆为空返回null
+     */
+    public E peek() {
+        return size == 0 ? null : handles[0].element;
+    }
+
+    /**
+     * 获取堆顶元素句柄
+     *
+     * @return 堆顶元素句柄，如果堆为空返回null
+     */
+    public Handle<E> peekHandle() {
+        return size == 0 ? null : handles[0];
+    }
+
+    /**
+     * 弹出堆顶元素
+     * 完成操作后移除堆顶元素
+     *
+     * @return 堆顶元素，如果堆为空返回null
+     */
+    public E poll() {
+        if (size == 0) return null;
+        return removeAt(0).element;
+    }
+
+    /**
+     * 判断句柄是否属于当前堆
+     *
+     * @param handle 元素句柄
+     * @return 属于当前堆返回true，否则返回false
+     */
+    public boolean contains(Handle<E> handle) {
+        return handle != null && handle.index >= 0 && handle.index < size && handles[handle.index] == handle;
+    }
+
+    /**
+     * 通过句柄移除元素
+     *
+     * @param handle 元素句柄
+     * @return 移除成功返回true，句柄不属于当前堆返回false
+     */
+    public boolean remove(Handle<E> handle) {
+        if (!contains(handle)) return false;
+        removeAt(handle.index);
+        return true;
+    }
+
+    /**
+     * 元素优先级变化后调整元素位置
+     * 适用于元素内部排序字段被直接修改的场景
+     *
+     * @param handle 元素句柄，句柄不属于当前堆抛出异常IllegalArgumentException
+     */
+    public void update(Handle<E> handle) {
+        checkHandle(handle);
+        int index = handle.index;
+        moveDown(handle, index);
+        if (handle.index == index) moveUp(handle, index);
+    }
+
+    /**
+     * 替换句柄元素并调整元素位置
+     *
+     * @param handle 元素句柄，句柄不属于当前堆抛出异常IllegalArgumentException
+     * @param e 新元素，元素为空抛出异常NullPointerException
+     */
+    public void update(Handle<E> handle, E e) {
+        if (e == null) throw new NullPointerException();
+        checkHandle(handle);
+        handle.element = e;
+        update(handle);
+    }
+
+    /**
+     * 替换句柄元素，新元素向堆顶方向调整
+     * 新元素不能比原元素更远离堆顶(小顶堆不能更大，大顶堆不能更小)
+     *
+     * @param handle 元素句柄，句柄不属于当前堆抛出异常IllegalArgumentException
+     * @param e 新元素，元素为空抛出异常NullPointerException，远离堆顶抛出异常IllegalArgumentException
+     */
+    public void decreaseKey(Handle<E> handle, E e) {
+        if (e == null) throw new NullPointerException();
+        checkHandle(handle);
+        if (compare(e, handle.element, comparator) > 0) {
+            throw new IllegalArgumentException("New element is farther from heap top than current element");
+        }
+        handle.element = e;
+        moveUp(handle, handle.index);
+    }
+
+    /**
+     * 元素数量
+     *
+     * @return 当前堆元素数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 堆是否为空
+     *
+     * @return 为空返回true，否则返回false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空堆，所有句柄失效
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            handles[i].index = -1;
+            handles[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * 数据迭代器
+     *
+     * @return 数据迭代器
+     */
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (!builder.isEmpty()) builder.append(",");
+            builder.append(handles[i].element.toString());
+        }
+        builder.insert(0, "[").append("]");
+        return builder.toString();
+    }
+
+    /**
+     * 检测句柄是否属于当前堆
+     *
+     * @param handle 元素句柄
+     */
+    private void checkHandle(Handle<E> handle) {
+        if (!contains(handle)) throw new IllegalArgumentException("Handle is not in heap");
+    }
+
+    /**
+     * 移除指定下标元素
+     *
+     * @param i 元素下标
+     * @return 移除元素句柄
+     */
+    private Handle<E> removeAt(int i) {
+        Handle<E> removedHandle = handles[i];
+        Handle<E> handle = handles[--size];
+        handles[size] = null;
+        removedHandle.index = -1;
+        if (i == size) return removedHandle;
+        moveDown(handle, i);
+        if (handles[i] == handle) moveUp(handle, i);
+        return removedHandle;
+    }
+
+    /**
+     * 扩容
+     *
+     * @param capacity 扩容后容量
+     */
+    private void expandCapacity(int capacity) {
+        int currentCapacity = handles.length;
+        if (capacity < 0) throw new OutOfMemoryError();
+        if (capacity <= currentCapacity) return;
+        int newCapacity = currentCapacity + (currentCapacity < 64 ? 2 : currentCapacity >>> 1);
+        if (newCapacity < 0) newCapacity = Integer.MAX_VALUE;
+        handles = Arrays.copyOf(handles, newCapacity);
+    }
+
+    /**
+     * 上移元素，同步更新句柄位置
+     *
+     * @param handle 上移元素句柄
+     * @param current 上移元素位置
+     */
+    private void moveUp(Handle<E> handle, int current) {
+        while (current > 0) {
+            int parent = (current - 1) >>> 1;
+            Handle<E> parentHandle = handles[parent];
+            if (compare(parentHandle.element, handle.element, comparator) <= 0) break;
+            handles[current] = parentHandle;
+            parentHandle.index = current;
+            current = parent;
+        }
+        handles[current] = handle;
+        handle.index = current;
+    }
+
+    /**
+     * 下移元素，同步更新句柄位置
+     *
+     * @param handle 下移元素句柄
+     * @param current 下移元素位置
+     */
+    private void moveDown(Handle<E> handle, int current) {
+        int half = size >>> 1;
+        while (current < half) {
+            int child = (current << 1) + 1;
+            if (child + 1 < size && compare(handles[child].element,
+                    handles[child + 1].element, comparator) > 0) child++;
+            Handle<E> childHandle = handles[child];
+            if (compare(handle.element, childHandle.element, comparator) <= 0) break;
+            handles[current] = childHandle;
+            childHandle.index = current;
+            current = child;
+        }
+        handles[current] = handle;
+        handle.index = current;
+    }
+
+    /**
+     * 比较元素
+     * 1. 如果comparator为空，要求类型E实现Comparable接口，使用Comparable方法compareTo进行比较
+     * 2. 如果comparator不为空，使用comparator进行比较
+     *
+     * @param e1 比较元素
+     * @param e2 比较元素
+     * @param comparator 比较器
+     * @return e1小于e2返回负数，e1大于e2返回正数，相等返回0
+     * @param <E> 数据类型
+     */
+    private static <E> int compare(E e1, E e2, Comparator<? super E> comparator) {
+        return comparator == null ? ((Comparable<? super E>) e1).compareTo(e2) :
+                comparator.compare(e1, e2);
+    }
+
+    /**
+     * 堆数据迭代器
+     * 迭代结果保证顺序，迭代基于堆快照，通过remove删除当前堆元素
+     */
+    final class Itr implements Iterator<E> {
+
+        private Handle<E> lastHandle;
+        private final Heap<Handle<E>> queue;
+
+        public Itr() {
+            lastHandle = null;
+            queue = new Heap<>(Arrays.asList(Arrays.copyOf(handles, size)),
+                    (h1, h2) -> compare(h1.element, h2.element, comparator));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if (queue.isEmpty()) throw new NoSuchElementException();
+            lastHandle = queue.poll();
+            return lastHandle.element;
+        }
+
+        @Override
+        public void remove() {
+            if (lastHandle == null) throw new IllegalStateException();
+            IndexedHeap.this.remove(lastHandle);
+            lastHandle = null;
+        }
+    }
+}
@@ -5,21 +5,40 @@ import com.esotericsoftware.kryo.SerializerFactory;
 import com.esotericsoftware.kryo.io.Output;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * LSM Tree实现：基于本地磁盘外部排序
+ * 1. 内存cache数据达到阈值后排序并dump到临时文件
+ * 2. 设置spillThreadNum大于0时，由后台spill线程池完成排序和dump，不阻塞数据添加
+ * 3. dump文件按数据块组织，支持数据块压缩，归并读取时异步预读下一数据块
+ * 4. 设置maxCacheBytes大于0时，按内存cache数据估算字节数触发spill，替代数据数量阈值
+ * 5. 基于败者树进行多路归并，dump文件数量超过maxOpenFileNum时分组进行中间归并，各分组可并发归并
+ * 6. 支持迭代器和Stream方式获取有序数据
+ * 7. 设置combiner时，比较相等的数据在spill、中间归并和最终归并时合并为一条数据
  *
  * @author frankcl
  * @date 2023-04-25 16:53:37
  */
-public class LSMTree<T> {
+public class LSMTree<T> implements Iterable<T> {
 
     /**
      * LSM Tree状态
@@ -32,6 +51,10 @@ public class LSMTree<T> {
 
     private static final int DEFAULT_MAX_OPEN_FILE_NUM = 100;
     private static final int DEFAULT_MAX_CACHE_RECORD_NUM = 10000;
+    private static final int DEFAULT_SPILL_THREAD_NUM = 0;
+    private static final int DEFAULT_READ_AHEAD_THREAD_NUM = 2;
+    private static final int DEFAULT_MERGE_THREAD_NUM = 1;
+    private static final int DEFAULT_SIZE_BUFFER_SIZE = 4096;
     private static final String DEFAULT_TEMP_DIRECTORY = "./temp/";
     private static final String DUMP_FILE_PREFIX = "TEMP_SORT_FILE_";
     private static final String DUMP_FILE_SUFFIX = ".dump";
@@ -43,6 +66,32 @@ public class LSMTree<T> {
     /* 内存cache数据数量 */
     @Setter
     private int maxCacheRecordNum;
+    /* 内存cache数据字节预算，小于等于0表示按数据数量spill */
+    @Setter
+    private long maxCacheBytes;
+    /* 数据大小估算，为空时使用kryo序列化字节数估算 */
+    @Setter
+    private RecordSizer<? super T> recordSizer;
+    /* 内存cache数据估算字节数 */
+    private long memoryCachedBytes;
+    /* 后台spill线程数量，小于等于0表示在调用线程同步spill */
+    @Setter
+    private int spillThreadNum;
+    /* 中间归并线程数量，小于等于1表示在调用线程依次归并 */
+    @Setter
+    private int mergeThreadNum;
+    /* dump文件预读线程数量，小于等于0表示不进行预读 */
+    @Setter
+    private int readAheadThreadNum;
+    /* dump文件数据块大小 */
+    @Setter
+    private int dumpBlockSize;
+    /* dump文件数据块压缩方式 */
+    @Setter
+    private DumpCompression dumpCompression;
+    /* 相等数据合并器，合并结果须与原数据比较相等，后台线程并发调用时要求线程安全 */
+    @Setter
+    private BinaryOperator<T> combiner;
     /* LSM Tree当前状态 */
     private State state;
     /* 临时文件目录 */
@@ -56,9 +105,25 @@ public class LSMTree<T> {
     /* 内存cache数据 */
     private List<T> memoryCachedRecords;
     /* dump文件列表 */
-    private LinkedList<String> dumpFiles;
-    /* 数据读取器堆 用于归并文件数据 */
-    private PriorityQueue<RecordReader<T>> heap;
+    private List<String> dumpFiles;
+    /* 败者树 用于归并文件数据 */
+    private LoserTree<T> loserTree;
+    /* 待spill数据队列，容量为spill线程数量 */
+    private BlockingQueue<List<T>> spillQueue;
+    /* 后台spill线程 */
+    private List<Spiller> spillers;
+    /* spill线程停止信号 */
+    private final List<T> spillStopSignal = new ArrayList<>(0);
+    /* dump文件预读执行器 */
+    private ExecutorService readAheadExecutor;
+    /* 数据大小估算序列化缓冲 */
+    private Output sizeOutput;
+    /* spill次数 */
+    private final AtomicLong spillCount = new AtomicLong();
+    /* spill文件字节数 */
+    private final AtomicLong spilledBytes = new AtomicLong();
+    /* 中间归并次数 */
+    private final AtomicLong mergePassCount = new AtomicLong();
     /* kryo序列化 */
     private final Kryo kryo;
 
@@ -69,10 +134,12 @@ public class LSMTree<T> {
     public LSMTree(Class<T> recordClass, Comparator<? super T> comparator, String tempDirectory) {
         maxOpenFileNum = DEFAULT_MAX_OPEN_FILE_NUM;
         maxCacheRecordNum = DEFAULT_MAX_CACHE_RECORD_NUM;
-        this.kryo = new Kryo();
-        this.kryo.setReferences(true);
-        this.kryo.setRegistrationRequired(false);
-        this.kryo.setDefaultSerializer(new SerializerFactory.CompatibleFieldSerializerFactory());
+        spillThreadNum = DEFAULT_SPILL_THREAD_NUM;
+        readAheadThreadNum = DEFAULT_READ_AHEAD_THREAD_NUM;
+        mergeThreadNum = DEFAULT_MERGE_THREAD_NUM;
+        dumpBlockSize = DumpWriter.DEFAULT_BLOCK_SIZE;
+        dumpCompression = DumpCompression.NONE;
+        this.kryo = buildKryo();
         this.recordClass = recordClass;
         this.comparator = comparator;
         this.readerComparator = new RecordReaderComparator<>(this.comparator);
@@ -97,11 +164,47 @@ public class LSMTree<T> {
             logger.error("Unsupported operation[ADD] for state:{}", state.name());
             throw new IllegalStateException(String.format("Inappropriate state:%s for adding", state.name()));
         }
+        checkSpillers();
         memoryCachedRecords.add(record);
-        if (memoryCachedRecords.size() < maxCacheRecordNum) return;
-        memoryCachedRecords.sort(comparator);
-        dumpRecords(memoryCachedRecords);
+        if (maxCacheBytes > 0) memoryCachedBytes += sizeOf(record);
+        if (!isCacheFull()) return;
+        if (spillThreadNum > 0) {
+            spillRecords(memoryCachedRecords);
+        } else {
+            memoryCachedRecords.sort(comparator);
+            String dumpFile = buildDumpFile(String.valueOf(dumpFileIndex++));
+            dumpRecords(memoryCachedRecords, kryo, dumpFile);
+            dumpFiles.add(dumpFile);
+        }
         memoryCachedRecords = new ArrayList<>();
+        memoryCachedBytes = 0L;
+    }
+
+    /**
+     * 获取spill次数
+     *
+     * @return spill次数
+     */
+    public long getSpillCount() {
+        return spillCount.get();
+    }
+
+    /**
+     * 获取spill文件字节数
+     *
+     * @return spill文件字节数
+     */
+    public long getSpilledBytes() {
+        return spilledBytes.get();
+    }
+
+    /**
+     * 获取中间归并次数，每次归并生成一个dump文件
+     *
+     * @return 中间归并次数
+     */
+    public long getMergePassCount() {
+        return mergePassCount.get();
     }
 
     /**
@@ -112,40 +215,64 @@ public class LSMTree<T> {
      */
     public T getRecord() throws IOException {
         if (state == State.PREPARE) {
+            finishSpillers();
+            startReadAhead();
             mergeDumpFiles();
-            heap = new PriorityQueue<>(dumpFiles.size() + 1, readerComparator);
+            List<RecordReader<T>> readers = new ArrayList<>();
             if (!memoryCachedRecords.isEmpty()) {
                 MemoryReader<T> memoryReader = new MemoryReader<>(memoryCachedRecords, comparator);
                 if (!memoryReader.open()) throw new RuntimeException("Open memory reader failed");
-                if (memoryReader.read() != null) heap.add(memoryReader);
+                if (memoryReader.read() != null) readers.add(memoryReader);
                 else memoryReader.close();
             }
-            buildHeap(dumpFiles, heap);
+            openReaders(dumpFiles, kryo, readers);
+            loserTree = new LoserTree<>(readers, readerComparator);
             state = State.SORT;
         }
         if (state != State.SORT) {
             logger.error("Unsupported operation[GET] for state:{}", state.name());
             throw new IllegalStateException(String.format("Inappropriate state:%s for getting", state.name()));
         }
-        if (!heap.isEmpty()) {
-            RecordReader<T> recordReader = heap.poll();
-            T record = recordReader.peak();
-            if (recordReader.read() != null) heap.add(recordReader);
-            else recordReader.close();
-            return record;
-        }
-        return null;
+        return pollRecord(loserTree);
+    }
+
+    /**
+     * 有序数据迭代器
+     * 迭代过程通过getRecord获取数据，I/O异常包装为UncheckedIOException抛出
+     *
+     * @return 有序数据迭代器
+     */
+    @NotNull
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * 有序数据Stream
+     *
+     * @return 有序数据Stream
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
     /**
      * 重置排序
      */
     public void reset() {
+        stopSpillers();
+        closeReaders();
+        stopReadAhead();
         sweepDumpFiles();
         dumpFileIndex = 0;
-        dumpFiles = new LinkedList<>();
+        dumpFiles = new ArrayList<>();
         memoryCachedRecords = new ArrayList<>();
-        heap = new PriorityQueue<>();
+        memoryCachedBytes = 0L;
+        spillCount.set(0L);
+        spilledBytes.set(0L);
+        mergePassCount.set(0L);
         state = State.PREPARE;
     }
 
@@ -154,11 +281,13 @@ public class LSMTree<T> {
      */
     @SuppressWarnings("ResultOfMethodCallIgnored")
     public void close() {
+        stopSpillers();
+        closeReaders();
+        stopReadAhead();
         sweepDumpFiles();
         new File(tempDirectory).delete();
         dumpFileIndex = 0;
         dumpFiles.clear();
-        heap.clear();
         state = State.CLOSED;
         logger.info("Close external sorter");
     }
@@ -166,58 +295,321 @@ public class LSMTree<T> {
     /**
      * 生成数据文件
      *
+     * @param records 有序数据列表
+     * @param kryo 序列化kryo，调用线程独占
+     * @param dumpFile dump文件路径
+     * @throws IOException I/O异常
+     */
+    private void dumpRecords(List<T> records, Kryo kryo, String dumpFile) throws IOException {
+        DumpWriter<T> writer = new DumpWriter<>(dumpFile, kryo, dumpCompression, dumpBlockSize);
+        writer.open();
+        try {
+            T pending = null;
+            for (T record : records) {
+                if (pending != null && combiner != null && compare(pending, record) == 0) {
+                    pending = combiner.apply(pending, record);
+                    continue;
+                }
+                if (pending != null) writer.write(pending);
+                pending = record;
+            }
+            if (pending != null) writer.write(pending);
+        } finally {
+            writer.close();
+        }
+        spillCount.incrementAndGet();
+        spilledBytes.addAndGet(writer.getWrittenBytes());
+    }
+
+    /**
+     * 判断内存cache是否已满
+     *
+     * @return 已满返回true，否则返回false
+     */
+    private boolean isCacheFull() {
+        return maxCacheBytes > 0 ? memoryCachedBytes >= maxCacheBytes :
+                memoryCachedRecords.size() >= maxCacheRecordNum;
+    }
+
+    /**
+     * 估算数据字节数
+     *
+     * @param record 数据
+     * @return 字节数
+     */
+    private long sizeOf(T record) {
+        if (recordSizer != null) return recordSizer.sizeOf(record);
+        if (sizeOutput == null) sizeOutput = new Output(DEFAULT_SIZE_BUFFER_SIZE, -1);
+        sizeOutput.setPosition(0);
+        kryo.writeObject(sizeOutput, record);
+        return sizeOutput.position();
+    }
+
+    /**
+     * 构建dump文件路径
+     *
+     * @param fileIndex 文件编号
+     * @return dump文件路径
+     */
+    private String buildDumpFile(String fileIndex) {
+        return String.format("%s%s%s%s", tempDirectory, DUMP_FILE_PREFIX, fileIndex, DUMP_FILE_SUFFIX);
+    }
+
+    /**
+     * 提交数据到后台spill线程
+     * spill队列已满时阻塞等待，避免内存cache数据无限堆积
+     *
      * @param records 数据列表
      * @throws IOException I/O异常
      */
-    private void dumpRecords(List<T> records) throws IOException {
-        String dumpFile = String.format("%s%s%d%s", tempDirectory, DUMP_FILE_PREFIX, dumpFileIndex, DUMP_FILE_SUFFIX);
-        Output output = new Output(new FileOutputStream(dumpFile));
-        for (T record : records) kryo.writeObject(output, record);
-        output.close();
-        dumpFiles.add(dumpFile);
-        dumpFileIndex++;
+    private void spillRecords(List<T> records) throws IOException {
+        if (spillers == null) startSpillers();
+        try {
+            spillQueue.put(records);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for spilling records");
+        }
+    }
+
+    /**
+     * 启动后台spill线程
+     */
+    private void startSpillers() {
+        spillQueue = new ArrayBlockingQueue<>(spillThreadNum);
+        spillers = new ArrayList<>();
+        for (int i = 0; i < spillThreadNum; i++) {
+            Spiller spiller = new Spiller(i);
+            spiller.start();
+            spillers.add(spiller);
+        }
+        logger.info("Start {} spill threads", spillThreadNum);
+    }
+
+    /**
+     * 等待后台spill线程完成所有数据spill，收集dump文件
+     *
+     * @throws IOException spill失败抛出异常
+     */
+    private void finishSpillers() throws IOException {
+        if (spillers == null) return;
+        try {
+            for (int i = 0; i < spillers.size(); i++) spillQueue.put(spillStopSignal);
+            for (Spiller spiller : spillers) spiller.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for spill threads");
+        }
+        List<Spiller> finishedSpillers = spillers;
+        spillers = null;
+        spillQueue = null;
+        for (Spiller spiller : finishedSpillers) {
+            if (spiller.exception != null) throw new IOException("Spill records failed", spiller.exception);
+            dumpFiles.addAll(spiller.spilledFiles);
+        }
+    }
+
+    /**
+     * 检测后台spill线程是否发生异常
+     *
+     * @throws IOException spill失败抛出异常
+     */
+    private void checkSpillers() throws IOException {
+        if (spillers == null) return;
+        for (Spiller spiller : spillers) {
+            if (spiller.exception != null) throw new IOException("Spill records failed", spiller.exception);
+        }
+    }
+
+    /**
+     * 中断并停止后台spill线程，丢弃未完成spill数据
+     */
+    private void stopSpillers() {
+        if (spillers == null) return;
+        for (Spiller spiller : spillers) spiller.interrupt();
+        for (Spiller spiller : spillers) {
+            try {
+                spiller.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        spillers = null;
+        spillQueue = null;
+    }
+
+    /**
+     * 关闭归并中的数据读取器
+     */
+    private void closeReaders() {
+        if (loserTree == null) return;
+        loserTree.close();
+        loserTree = null;
+    }
+
+    /**
+     * 启动dump文件预读执行器
+     */
+    private void startReadAhead() {
+        if (readAheadThreadNum <= 0 || readAheadExecutor != null) return;
+        readAheadExecutor = Executors.newFixedThreadPool(readAheadThreadNum, runnable -> {
+            Thread thread = new Thread(runnable, "LSMTreeReadAhead");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 停止dump文件预读执行器
+     */
+    private void stopReadAhead() {
+        if (readAheadExecutor == null) return;
+        readAheadExecutor.shutdownNow();
+        readAheadExecutor = null;
+    }
+
+    /**
+     * 构建kryo序列化
+     * kryo非线程安全，每个线程需要使用独立实例
+     *
+     * @return kryo序列化
+     */
+    private static Kryo buildKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setReferences(true);
+        kryo.setRegistrationRequired(false);
+        kryo.setDefaultSerializer(new SerializerFactory.CompatibleFieldSerializerFactory());
+        return kryo;
     }
 
     /**
      * 合并dump文件
+     * 1. dump文件数量超过maxOpenFileNum时，按maxOpenFileNum分组归并，直到文件数量不超过maxOpenFileNum
+     * 2. 同一轮各分组文件互不相关，mergeThreadNum大于1时并发归并
      *
      * @throws IOException I/O异常
      */
-    @SuppressWarnings("ResultOfMethodCallIgnored")
     private void mergeDumpFiles() throws IOException {
-        while (dumpFiles.size() > maxOpenFileNum) {
-            List<String> batchDumpFiles = new ArrayList<>();
-            for (int i = 0; i < maxOpenFileNum; i++) batchDumpFiles.add(dumpFiles.removeFirst());
-            PriorityQueue<RecordReader<T>> priorityQueue = new PriorityQueue<>(maxOpenFileNum, readerComparator);
-            buildHeap(batchDumpFiles, priorityQueue);
-            String dumpFile = String.format("%s%s%d%s", tempDirectory, DUMP_FILE_PREFIX, dumpFileIndex, DUMP_FILE_SUFFIX);
-            Output output = new Output(new FileOutputStream(dumpFile));
-            while (!priorityQueue.isEmpty()) {
-                RecordReader<T> recordReader = priorityQueue.poll();
-                T record = recordReader.peak();
-                kryo.writeObject(output, record);
-                record = recordReader.read();
-                if (record != null) priorityQueue.add(recordReader);
-                else recordReader.close();
+        if (dumpFiles.size() <= maxOpenFileNum) return;
+        ExecutorService mergeExecutor = mergeThreadNum > 1 ? Executors.newFixedThreadPool(mergeThreadNum, runnable -> {
+            Thread thread = new Thread(runnable, "LSMTreeMerger");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        try {
+            while (dumpFiles.size() > maxOpenFileNum) {
+                List<String> mergedFiles = new ArrayList<>();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < dumpFiles.size(); i += maxOpenFileNum) {
+                    List<String> batchDumpFiles = dumpFiles.subList(i, Math.min(i + maxOpenFileNum, dumpFiles.size()));
+                    if (batchDumpFiles.size() == 1) {
+                        mergedFiles.add(batchDumpFiles.get(0));
+                        continue;
+                    }
+                    String dumpFile = buildDumpFile(String.valueOf(dumpFileIndex++));
+                    mergedFiles.add(dumpFile);
+                    if (mergeExecutor == null) mergeFiles(batchDumpFiles, dumpFile, kryo);
+                    else futures.add(mergeExecutor.submit(() -> {
+                        mergeFiles(batchDumpFiles, dumpFile, buildKryo());
+                        return null;
+                    }));
+                }
+                waitMerges(futures);
+                dumpFiles = mergedFiles;
             }
-            output.close();
-            for (String batchDumpFile : batchDumpFiles) new File(batchDumpFile).delete();
-            dumpFiles.add(dumpFile);
-            dumpFileIndex++;
+        } finally {
+            if (mergeExecutor != null) mergeExecutor.shutdownNow();
         }
     }
 
     /**
-     * 构建排序堆
+     * 等待并发归并完成
+     *
+     * @param futures 归并任务
+     * @throws IOException 归并失败抛出异常
+     */
+    private void waitMerges(List<Future<?>> futures) throws IOException {
+        try {
+            for (Future<?> future : futures) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for merging dump files");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Merge dump files failed", cause);
+        }
+    }
+
+    /**
+     * 归并一组dump文件，归并完成后删除原文件
+     *
+     * @param batchDumpFiles 待归并dump文件
+     * @param dumpFile 归并结果dump文件
+     * @param kryo 序列化kryo，调用线程独占
+     * @throws IOException I/O异常
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void mergeFiles(List<String> batchDumpFiles, String dumpFile, Kryo kryo) throws IOException {
+        List<RecordReader<T>> readers = new ArrayList<>();
+        openReaders(batchDumpFiles, kryo, readers);
+        LoserTree<T> tree = new LoserTree<>(readers, readerComparator);
+        DumpWriter<T> writer = new DumpWriter<>(dumpFile, kryo, dumpCompression, dumpBlockSize);
+        try {
+            writer.open();
+            T record;
+            while ((record = pollRecord(tree)) != null) writer.write(record);
+        } finally {
+            tree.close();
+            writer.close();
+        }
+        for (String batchDumpFile : batchDumpFiles) new File(batchDumpFile).delete();
+        mergePassCount.incrementAndGet();
+    }
+
+    /**
+     * 从败者树弹出数据，设置combiner时合并后续比较相等的数据
+     *
+     * @param tree 败者树
+     * @return 有序数据，归并结束返回null
+     */
+    private T pollRecord(LoserTree<T> tree) {
+        T record = tree.poll();
+        if (record == null || combiner == null) return record;
+        T next;
+        while ((next = tree.peek()) != null && compare(record, next) == 0) {
+            record = combiner.apply(record, tree.poll());
+        }
+        return record;
+    }
+
+    /**
+     * 比较数据
+     * comparator为空时要求数据实现Comparable接口
+     *
+     * @param record1 数据
+     * @param record2 数据
+     * @return record1小于record2返回负数，record1大于record2返回正数，相等返回0
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(T record1, T record2) {
+        return comparator == null ? ((Comparable<? super T>) record1).compareTo(record2) :
+                comparator.compare(record1, record2);
+    }
+
+    /**
+     * 打开dump文件数据读取器，并读取首条数据
      *
      * @param dumpFiles dump文件
-     * @param priorityQueue 队列
+     * @param kryo 序列化kryo，调用线程独占
+     * @param readers 数据读取器列表
      */
-    private void buildHeap(List<String> dumpFiles, PriorityQueue<RecordReader<T>> priorityQueue) {
+    private void openReaders(List<String> dumpFiles, Kryo kryo, List<RecordReader<T>> readers) {
         for (String dumpFile : dumpFiles) {
-            DumpReader<T> dumpReader = new DumpReader<>(dumpFile, recordClass, kryo);
+            DumpReader<T> dumpReader = new DumpReader<>(dumpFile, recordClass, kryo, readAheadExecutor);
             if (!dumpReader.open()) throw new RuntimeException(String.format("Open dump file:%s failed", dumpFile));
-            if (dumpReader.read() != null) priorityQueue.add(dumpReader);
+            if (dumpReader.read() != null) readers.add(dumpReader);
             else dumpReader.close();
         }
     }
@@ -250,4 +642,79 @@ public class LSMTree<T> {
         File directory = new File(tempDirectory);
         if (!directory.exists() || !directory.isDirectory()) directory.mkdirs();
     }
+
+    /**
+     * 后台spill线程
+     * 1. 从spill队列获取数据，排序后dump到临时文件
+     * 2. 每个线程持有独立kryo实例和dump文件编号，dump文件名包含线程编号避免冲突
+     * 3. 发生异常或错误(如内存溢出)后记录并继续消费队列，避免数据添加线程阻塞，由数据添加或获取时抛出
+     */
+    private class Spiller extends Thread {
+
+        private final int spillerIndex;
+        private int dumpFileIndex;
+        private final Kryo spillKryo;
+        private final List<String> spilledFiles;
+        private volatile Throwable exception;
+
+        public Spiller(int spillerIndex) {
+            super(String.format("LSMTreeSpiller-%d", spillerIndex));
+            setDaemon(true);
+            this.spillerIndex = spillerIndex;
+            this.dumpFileIndex = 0;
+            this.spillKryo = buildKryo();
+            this.spilledFiles = new ArrayList<>();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                List<T> records;
+                try {
+                    records = spillQueue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (records == spillStopSignal) return;
+                if (exception != null) continue;
+                try {
+                    records.sort(comparator);
+                    String dumpFile = buildDumpFile(String.format("%d_%d", spillerIndex, dumpFileIndex++));
+                    dumpRecords(records, spillKryo, dumpFile);
+                    spilledFiles.add(dumpFile);
+                } catch (Throwable e) {
+                    logger.error("Spill records failed for thread:{}", getName());
+                    logger.error(e.getMessage(), e);
+                    exception = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 有序数据迭代器
+     */
+    private final class Itr implements Iterator<T> {
+
+        private T nextRecord;
+
+        @Override
+        public boolean hasNext() {
+            if (nextRecord != null) return true;
+            try {
+                nextRecord = getRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return nextRecord != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            T record = nextRecord;
+            nextRecord = null;
+            return record;
+        }
+    }
 }
@@ -0,0 +1,624 @@
+package xin.manong.weapon.base.collection;
+
+import java.util.NoSuchElementException;
+
+/**
+ * long key B+树：阶数m平衡树实现(3<=m<=255，缺省m=64)
+ * 1. 数据key为long原生类型，节点以long[]数组存储key，不进行装箱，不使用比较器
+ * 2. 所有数据保存在叶子节点，叶子节点以数组存储key和数据值，并以双向链表相连
+ * 3. 非叶子节点索引存储下层节点最大key及指向下层节点的引用
+ * 4. 叶子节点数据数量及非叶子节点孩子数量不小于(m-1)/2+1，不大于m，根节点除外
+ * 5. 通过LongCursor进行正向、逆向和范围迭代
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:40:57
+ */
+@SuppressWarnings("unchecked")
+public class LongBTree<V> {
+
+    private static final int MAX_M = 255;
+    private static final int DEFAULT_M = 64;
+
+    /* 当前数据数量 */
+    private int size;
+    /* 阶数 */
+    private final int m;
+    /* 最小孩子数量或数据数量：(m-1)/2+1 */
+    private final int n;
+    /* 根节点 */
+    private Node root;
+
+    public LongBTree() {
+        this(DEFAULT_M);
+    }
+
+    public LongBTree(int m) {
+        if (m < 3) throw new IllegalArgumentException("Input m must be greater than 2");
+        this.size = 0;
+        this.m = Math.min(m, MAX_M);
+        this.n = (this.m - 1) / 2 + 1;
+        this.root = null;
+    }
+
+    /**
+     * 数据数量
+     *
+     * @return 数据数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 是否为空
+     *
+     * @return 没有数据返回true，否则返回false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 添加数据
+     * 1. 如果数据key已经存在，则使用value覆盖原值，返回false
+     * 2. 节点数据量(孩子数量)大于m时分裂节点，根节点分裂后树高度加1
+     *
+     * @param key 数据key
+     * @param value 数据值，如果value为null抛出异常NullPointerException
+     * @return 如果key不存在返回true，否则返回false
+     */
+    public boolean add(long key, V value) {
+        if (value == null) throw new NullPointerException();
+        if (root == null) root = new Leaf(m);
+        int prevSize = size;
+        Node splitNode = add(root, key, value);
+        if (splitNode != null) {
+            Inner newRoot = new Inner(m);
+            newRoot.append(root);
+            newRoot.append(splitNode);
+            root = newRoot;
+        }
+        return size > prevSize;
+    }
+
+    /**
+     * 移除数据
+     * 节点数据量(孩子数量)小于(m-1)/2+1时，向兄弟节点借取或与兄弟节点合并
+     *
+     * @param key 数据key
+     * @return 成功返回数据值，否则返回null
+     */
+    public V remove(long key) {
+        if (root == null) return null;
+        V value = remove(root, key);
+        if (value == null) return null;
+        if (root instanceof Inner inner && inner.count == 1) root = inner.children[0];
+        if (root.count == 0) root = null;
+        return value;
+    }
+
+    /**
+     * 搜索数据
+     *
+     * @param key 数据key
+     * @return 如果key存在返回数据，否则返回null
+     */
+    public V search(long key) {
+        Leaf leaf = findLeaf(key);
+        if (leaf == null) return null;
+        int pos = leaf.indexOf(key);
+        return pos < 0 ? null : (V) leaf.values[pos];
+    }
+
+    /**
+     * 判断key是否存在
+     *
+     * @param key 数据key
+     * @return 存在返回true，否则返回false
+     */
+    public boolean containsKey(long key) {
+        Leaf leaf = findLeaf(key);
+        return leaf != null && leaf.indexOf(key) >= 0;
+    }
+
+    /**
+     * 获取最小key
+     *
+     * @return 最小key，如果为空抛出异常NoSuchElementException
+     */
+    public long firstKey() {
+        Leaf leaf = getFirstLeaf();
+        if (leaf == null) throw new NoSuchElementException();
+        return leaf.keys[0];
+    }
+
+    /**
+     * 获取最大key
+     *
+     * @return 最大key，如果为空抛出异常NoSuchElementException
+     */
+    public long lastKey() {
+        if (root == null) throw new NoSuchElementException();
+        return root.maxKey();
+    }
+
+    /**
+     * 获取数据游标
+     *
+     * @return 数据游标
+     */
+    public LongCursor<V> cursor() {
+        return new LeafCursor(getFirstLeaf(), -1, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * 获取逆向数据游标
+     *
+     * @return 逆向数据游标
+     */
+    public LongCursor<V> reversedCursor() {
+        Leaf leaf = getLastLeaf();
+        return new LeafCursor(leaf, leaf == null ? 0 : leaf.count, Long.MIN_VALUE, true);
+    }
+
+    /**
+     * 获取范围数据游标
+     * 如果startKey大于endKey抛出异常IllegalArgumentException
+     *
+     * @param startKey 起始key（包含）
+     * @param endKey 结束key（包含）
+     * @return 范围数据游标
+     */
+    public LongCursor<V> rangeCursor(long startKey, long endKey) {
+        if (startKey > endKey) throw new IllegalArgumentException("Start key is greater than end key");
+        Leaf leaf = findLeaf(startKey);
+        if (leaf == null) return new LeafCursor(null, 0, endKey, false);
+        return new LeafCursor(leaf, leaf.lowerBound(startKey) - 1, endKey, false);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        LongCursor<V> cursor = cursor();
+        while (cursor.next()) {
+            if (!builder.isEmpty()) builder.append(",");
+            builder.append(cursor.key()).append("=").append(cursor.value());
+        }
+        builder.insert(0, "[").append("]");
+        return builder.toString();
+    }
+
+    /**
+     * 递归添加数据
+     *
+     * @param node 当前节点
+     * @param key 数据key
+     * @param value 数据值
+     * @return 节点分裂返回分裂出的右侧节点，否则返回null
+     */
+    private Node add(Node node, long key, V value) {
+        if (node instanceof Leaf leaf) {
+            int pos = leaf.lowerBound(key);
+            if (pos < leaf.count && leaf.keys[pos] == key) {
+                leaf.values[pos] = value;
+                return null;
+            }
+            leaf.insert(pos, key, value);
+            size++;
+            return leaf.count > m ? leaf.split() : null;
+        }
+        Inner inner = (Inner) node;
+        int pos = inner.childIndex(key);
+        Node child = inner.children[pos];
+        Node splitNode = add(child, key, value);
+        inner.keys[pos] = child.maxKey();
+        if (splitNode == null) return null;
+        inner.insert(pos + 1, splitNode);
+        return inner.count > m ? inner.split() : null;
+    }
+
+    /**
+     * 递归删除数据
+     *
+     * @param node 当前节点
+     * @param key 数据key
+     * @return 成功返回数据值，否则返回null
+     */
+    private V remove(Node node, long key) {
+        if (node instanceof Leaf leaf) {
+            int pos = leaf.indexOf(key);
+            if (pos < 0) return null;
+            V value = (V) leaf.values[pos];
+            leaf.delete(pos);
+            size--;
+            return value;
+        }
+        Inner inner = (Inner) node;
+        int pos = inner.childIndex(key);
+        if (key > inner.keys[pos]) return null;
+        Node child = inner.children[pos];
+        V value = remove(child, key);
+        if (value == null) return null;
+        if (child.count >= n) inner.keys[pos] = child.maxKey();
+        else rebalance(inner, pos);
+        return value;
+    }
+
+    /**
+     * 调整数据量不足的孩子节点
+     * 1. 兄弟节点数据量大于(m-1)/2+1时借取一个数据(孩子)
+     * 2. 否则与兄弟节点合并
+     *
+     * @param parent 父节点
+     * @param pos 孩子节点位置
+     */
+    private void rebalance(Inner parent, int pos) {
+        int left = pos > 0 ? pos - 1 : pos;
+        int right = left + 1;
+        if (right >= parent.count) {
+            parent.keys[pos] = parent.children[pos].maxKey();
+            return;
+        }
+        Node leftNode = parent.children[left], rightNode = parent.children[right];
+        if (left == pos && rightNode.count > n) leftNode.borrowFirst(rightNode);
+        else if (right == pos && leftNode.count > n) rightNode.borrowLast(leftNode);
+        else {
+            leftNode.mergeRight(rightNode);
+            parent.delete(right);
+        }
+        parent.keys[left] = leftNode.maxKey();
+        if (right < parent.count && parent.children[right] == rightNode) parent.keys[right] = rightNode.maxKey();
+    }
+
+    /**
+     * 获取合适容纳key的叶子结点
+     *
+     * @param key 数据key
+     * @return 存在返回叶子结点，否则返回null
+     */
+    private Leaf findLeaf(long key) {
+        Node node = root;
+        if (node == null) return null;
+        while (node instanceof Inner inner) node = inner.children[inner.childIndex(key)];
+        return (Leaf) node;
+    }
+
+    /**
+     * 获取第一个叶子节点
+     *
+     * @return 第一个叶子节点
+     */
+    private Leaf getFirstLeaf() {
+        Node node = root;
+        if (node == null) return null;
+        while (node instanceof Inner inner) node = inner.children[0];
+        return (Leaf) node;
+    }
+
+    /**
+     * 获取最后一个叶子节点
+     *
+     * @return 最后一个叶子节点
+     */
+    private Leaf getLastLeaf() {
+        Node node = root;
+        if (node == null) return null;
+        while (node instanceof Inner inner) node = inner.children[inner.count - 1];
+        return (Leaf) node;
+    }
+
+    /**
+     * 二分查找首个不小于key的位置
+     *
+     * @param keys key数组
+     * @param count 有效key数量
+     * @param key 查找key
+     * @return 首个不小于key的位置，不存在返回count
+     */
+    private static int lowerBound(long[] keys, int count, long key) {
+        int start = 0, end = count;
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (keys[mid] < key) start = mid + 1;
+            else end = mid;
+        }
+        return start;
+    }
+
+    /**
+     * 叶子节点数据游标
+     */
+    final class LeafCursor implements LongCursor<V> {
+
+        private final boolean reversed;
+        private final long boundKey;
+        private Leaf leaf;
+        private int cursor;
+        private boolean valid;
+
+        public LeafCursor(Leaf leaf, int cursor, long boundKey, boolean reversed) {
+            this.leaf = leaf;
+            this.cursor = cursor;
+            this.boundKey = boundKey;
+            this.reversed = reversed;
+            this.valid = false;
+        }
+
+        @Override
+        public boolean next() {
+            if (leaf == null) return valid = false;
+            cursor += reversed ? -1 : 1;
+            while (leaf != null && (cursor < 0 || cursor >= leaf.count)) {
+                leaf = reversed ? leaf.prev : leaf.next;
+                if (leaf != null) cursor = reversed ? leaf.count - 1 : 0;
+            }
+            if (leaf != null && (reversed ? leaf.keys[cursor] < boundKey : leaf.keys[cursor] > boundKey)) leaf = null;
+            return valid = leaf != null;
+        }
+
+        @Override
+        public long key() {
+            if (!valid) throw new NoSuchElementException();
+            return leaf.keys[cursor];
+        }
+
+        @Override
+        public V value() {
+            if (!valid) throw new NoSuchElementException();
+            return (V) leaf.values[cursor];
+        }
+    }
+
+    /**
+     * 节点
+     */
+    abstract static class Node {
+
+        /* 数据(孩子)数量 */
+        protected int count;
+        /* key数组，叶子节点为数据key，非叶子节点为孩子最大key，预留一个位置用于分裂前溢出 */
+        protected final long[] keys;
+
+        Node(int m) {
+            this.keys = new long[m + 1];
+        }
+
+        /**
+         * 获取最大key
+         *
+         * @return 最大key
+         */
+        long maxKey() {
+            return keys[count - 1];
+        }
+
+        /**
+         * 分裂节点，当前节点保留前半部分
+         *
+         * @return 分裂出的后半部分节点
+         */
+        abstract Node split();
+
+        /**
+         * 从右侧兄弟节点借取首个数据(孩子)
+         *
+         * @param rightNode 右侧兄弟节点
+         */
+        abstract void borrowFirst(Node rightNode);
+
+        /**
+         * 从左侧兄弟节点借取末尾数据(孩子)
+         *
+         * @param leftNode 左侧兄弟节点
+         */
+        abstract void borrowLast(Node leftNode);
+
+        /**
+         * 合并右侧兄弟节点
+         *
+         * @param rightNode 右侧兄弟节点
+         */
+        abstract void mergeRight(Node rightNode);
+    }
+
+    /**
+     * 非叶子节点
+     */
+    static final class Inner extends Node {
+
+        /* 孩子节点 */
+        private final Node[] children;
+
+        Inner(int m) {
+            super(m);
+            this.children = new Node[m + 1];
+        }
+
+        /**
+         * 寻找合适容纳key的孩子节点位置
+         * key大于所有孩子最大key时返回最后一个孩子
+         *
+         * @param key 数据key
+         * @return 孩子节点位置
+         */
+        int childIndex(long key) {
+            int pos = lowerBound(keys, count, key);
+            return pos == count ? count - 1 : pos;
+        }
+
+        /**
+         * 追加孩子节点
+         *
+         * @param child 孩子节点
+         */
+        void append(Node child) {
+            insert(count, child);
+        }
+
+        /**
+         * 在指定位置插入孩子节点
+         *
+         * @param pos 插入位置
+         * @param child 孩子节点
+         */
+        void insert(int pos, Node child) {
+            System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+            System.arraycopy(children, pos, children, pos + 1, count - pos);
+            keys[pos] = child.maxKey();
+            children[pos] = child;
+            count++;
+        }
+
+        /**
+         * 删除指定位置孩子节点
+         *
+         * @param pos 删除位置
+         */
+        void delete(int pos) {
+            System.arraycopy(keys, pos + 1, keys, pos, count - pos - 1);
+            System.arraycopy(children, pos + 1, children, pos, count - pos - 1);
+            children[--count] = null;
+        }
+
+        @Override
+        Node split() {
+            int pos = (count + 1) / 2;
+            Inner second = new Inner(keys.length - 1);
+            second.count = count - pos;
+            System.arraycopy(keys, pos, second.keys, 0, second.count);
+            System.arraycopy(children, pos, second.children, 0, second.count);
+            for (int i = pos; i < count; i++) children[i] = null;
+            count = pos;
+            return second;
+        }
+
+        @Override
+        void borrowFirst(Node rightNode) {
+            Inner right = (Inner) rightNode;
+            Node child = right.children[0];
+            right.delete(0);
+            append(child);
+        }
+
+        @Override
+        void borrowLast(Node leftNode) {
+            Inner left = (Inner) leftNode;
+            Node child = left.children[left.count - 1];
+            left.delete(left.count - 1);
+            insert(0, child);
+        }
+
+        @Override
+        void mergeRight(Node rightNode) {
+            Inner right = (Inner) rightNode;
+            System.arraycopy(right.keys, 0, keys, count, right.count);
+            System.arraycopy(right.children, 0, children, count, right.count);
+            count += right.count;
+        }
+    }
+
+    /**
+     * 叶子节点
+     */
+    static final class Leaf extends Node {
+
+        /* 数据值 */
+        private final Object[] values;
+        /* 后序节点 */
+        private Leaf next;
+        /* 前序节点 */
+        private Leaf prev;
+
+        Leaf(int m) {
+            super(m);
+            this.values = new Object[m + 1];
+        }
+
+        /**
+         * 二分查找首个不小于key的位置
+         *
+         * @param key 数据key
+         * @return 首个不小于key的位置，不存在返回数据数量
+         */
+        int lowerBound(long key) {
+            return LongBTree.lowerBound(keys, count, key);
+        }
+
+        /**
+         * 查找key位置
+         *
+         * @param key 数据key
+         * @return 存在返回位置，否则返回-1
+         */
+        int indexOf(long key) {
+            int pos = lowerBound(key);
+            return pos < count && keys[pos] == key ? pos : -1;
+        }
+
+        /**
+         * 在指定位置插入数据
+         *
+         * @param pos 插入位置
+         * @param key 数据key
+         * @param value 数据值
+         */
+        void insert(int pos, long key, Object value) {
+            System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+            System.arraycopy(values, pos, values, pos + 1, count - pos);
+            keys[pos] = key;
+            values[pos] = value;
+            count++;
+        }
+
+        /**
+         * 删除指定位置数据
+         *
+         * @param pos 删除位置
+         */
+        void delete(int pos) {
+            System.arraycopy(keys, pos + 1, keys, pos, count - pos - 1);
+            System.arraycopy(values, pos + 1, values, pos, count - pos - 1);
+            values[--count] = null;
+        }
+
+        @Override
+        Node split() {
+            int pos = (count + 1) / 2;
+            Leaf second = new Leaf(keys.length - 1);
+            second.count = count - pos;
+            System.arraycopy(keys, pos, second.keys, 0, second.count);
+            System.arraycopy(values, pos, second.values, 0, second.count);
+            for (int i = pos; i < count; i++) values[i] = null;
+            count = pos;
+            second.next = next;
+            second.prev = this;
+            if (next != null) next.prev = second;
+            next = second;
+            return second;
+        }
+
+        @Override
+        void borrowFirst(Node rightNode) {
+            Leaf right = (Leaf) rightNode;
+            insert(count, right.keys[0], right.values[0]);
+            right.delete(0);
+        }
+
+        @Override
+        void borrowLast(Node leftNode) {
+            Leaf left = (Leaf) leftNode;
+            insert(0, left.keys[left.count - 1], left.values[left.count - 1]);
+            left.delete(left.count - 1);
+        }
+
+        @Override
+        void mergeRight(Node rightNode) {
+            Leaf right = (Leaf) rightNode;
+            System.arraycopy(right.keys, 0, keys, count, right.count);
+            System.arraycopy(right.values, 0, values, count, right.count);
+            count += right.count;
+            next = right.next;
+            if (next != null) next.prev = this;
+        }
+    }
+}
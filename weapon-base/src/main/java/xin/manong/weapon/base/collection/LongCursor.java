@@ -0,0 +1,33 @@
+package xin.manong.weapon.base.collection;
+
+/**
+ * long key数据游标
+ * 用于long key有序集合迭代，避免key装箱及Entry对象创建
+ * 使用方式：while (cursor.next()) { cursor.key(); cursor.value(); }
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:39:51
+ */
+public interface LongCursor<V> {
+
+    /**
+     * 移动游标到下一数据
+     *
+     * @return 存在下一数据返回true，否则返回false
+     */
+    boolean next();
+
+    /**
+     * 获取当前数据key，调用next()返回true后有效
+     *
+     * @return 数据key
+     */
+    long key();
+
+    /**
+     * 获取当前数据值，调用next()返回true后有效
+     *
+     * @return 数据值
+     */
+    V value();
+}
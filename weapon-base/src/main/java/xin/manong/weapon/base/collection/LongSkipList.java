@@ -0,0 +1,315 @@
+package xin.manong.weapon.base.collection;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * long key跳表实现
+ * 1. 数据key为long原生类型，不进行装箱，直接比较大小，不使用比较器
+ * 2. 数据节点层数大于0小于等于31，缺省层数13，节点层数按1/2概率生成
+ * 3. 支持获取和删除首元素和尾元素
+ * 4. 通过LongCursor进行正向和逆向迭代
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:40:24
+ */
+@SuppressWarnings("unchecked")
+public class LongSkipList<V> {
+
+    private static final int DEFAULT_MAX_LEVEL = 13;
+    private static final int MAX_MAX_LEVEL = 31;
+
+    /* 当前层数 */
+    private int level;
+    /* 数据数量 */
+    private int size;
+    /* 最大层数 */
+    private final int maxLevel;
+    /* 头节点 */
+    private final Node<V> headNode;
+    /* 尾节点 */
+    private final Node<V> tailNode;
+
+    public LongSkipList() {
+        this(DEFAULT_MAX_LEVEL);
+    }
+
+    public LongSkipList(int maxLevel) {
+        if (maxLevel <= 0) throw new IllegalArgumentException(String.format("Illegal max level:%d", maxLevel));
+        this.level = 0;
+        this.size = 0;
+        this.maxLevel = Math.min(maxLevel, MAX_MAX_LEVEL);
+        headNode = new Node<>(0L, null, this.maxLevel);
+        tailNode = new Node<>(0L, null, this.maxLevel);
+        for (int i = 0; i < this.maxLevel; i++) {
+            headNode.nextNodes[i] = tailNode;
+            tailNode.prevNodes[i] = headNode;
+        }
+    }
+
+    /**
+     * 添加数据
+     *
+     * @param key 数据key
+     * @param value 数据值，如果value为null抛出异常NullPointerException
+     * @return 如果key存在，使用value覆盖原值并返回false，否则返回true
+     */
+    public boolean add(long key, V value) {
+        if (value == null) throw new NullPointerException();
+        Node<V>[] updateNodes = new Node[maxLevel];
+        Node<V> node = headNode;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.nextNodes[i] != tailNode && node.nextNodes[i].key < key) node = node.nextNodes[i];
+            updateNodes[i] = node;
+        }
+        node = node.nextNodes[0];
+        if (node != tailNode && node.key == key) {
+            node.value = value;
+            return false;
+        }
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) updateNodes[i] = headNode;
+            level = nodeLevel;
+        }
+        Node<V> newNode = new Node<>(key, value, nodeLevel);
+        for (int i = nodeLevel - 1; i >= 0; i--) {
+            node = updateNodes[i];
+            newNode.nextNodes[i] = node.nextNodes[i];
+            newNode.prevNodes[i] = node;
+            node.nextNodes[i].prevNodes[i] = newNode;
+            node.nextNodes[i] = newNode;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * 根据key删除数据
+     *
+     * @param key 数据key
+     * @return 成功返回数据值，否则返回null
+     */
+    public V remove(long key) {
+        Node<V> node = findGreaterEquals(key);
+        if (node == tailNode || node.key != key) return null;
+        removeNode(node);
+        return node.value;
+    }
+
+    /**
+     * 根据key获取值
+     *
+     * @param key 数据key
+     * @return 如果存在返回数据值，否则返回null
+     */
+    public V get(long key) {
+        Node<V> node = findGreaterEquals(key);
+        return node == tailNode || node.key != key ? null : node.value;
+    }
+
+    /**
+     * 判断key是否存在
+     *
+     * @param key 数据key
+     * @return 存在返回true，否则返回false
+     */
+    public boolean containsKey(long key) {
+        Node<V> node = findGreaterEquals(key);
+        return node != tailNode && node.key == key;
+    }
+
+    /**
+     * 获取首元素key
+     *
+     * @return 首元素key，如果跳表为空抛出异常NoSuchElementException
+     */
+    public long firstKey() {
+        if (isEmpty()) throw new NoSuchElementException();
+        return headNode.nextNodes[0].key;
+    }
+
+    /**
+     * 获取尾元素key
+     *
+     * @return 尾元素key，如果跳表为空抛出异常NoSuchElementException
+     */
+    public long lastKey() {
+        if (isEmpty()) throw new NoSuchElementException();
+        return tailNode.prevNodes[0].key;
+    }
+
+    /**
+     * 移除首元素
+     *
+     * @return 如果表为空返回null，否则返回首元素值
+     */
+    public V removeFirst() {
+        Node<V> node = headNode.nextNodes[0];
+        if (node == tailNode) return null;
+        removeNode(node);
+        return node.value;
+    }
+
+    /**
+     * 移除尾元素
+     *
+     * @return 如果表为空返回null，否则返回尾元素值
+     */
+    public V removeLast() {
+        Node<V> node = tailNode.prevNodes[0];
+        if (node == headNode) return null;
+        removeNode(node);
+        return node.value;
+    }
+
+    /**
+     * 列表是否为空
+     *
+     * @return 列表为空返回true，否则返回false
+     */
+    public boolean isEmpty() {
+        return headNode.nextNodes[0] == tailNode;
+    }
+
+    /**
+     * 获取数据数量
+     *
+     * @return 数据数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取数据游标
+     *
+     * @return 数据游标
+     */
+    public LongCursor<V> cursor() {
+        return new NodeCursor(false);
+    }
+
+    /**
+     * 获取逆向数据游标
+     *
+     * @return 逆向数据游标
+     */
+    public LongCursor<V> reversedCursor() {
+        return new NodeCursor(true);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        Node<V> node = headNode.nextNodes[0];
+        while (node != tailNode) {
+            if (!builder.isEmpty()) builder.append(",");
+            builder.append(node.key).append("=").append(node.value);
+            node = node.nextNodes[0];
+        }
+        builder.insert(0, "[").append("]");
+        return builder.toString();
+    }
+
+    /**
+     * 定位首个key不小于查找key的节点
+     *
+     * @param key 查找key
+     * @return 节点，不存在返回尾节点
+     */
+    private Node<V> findGreaterEquals(long key) {
+        Node<V> node = headNode;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.nextNodes[i] != tailNode && node.nextNodes[i].key < key) node = node.nextNodes[i];
+        }
+        return node.nextNodes[0];
+    }
+
+    /**
+     * 移除节点
+     *
+     * @param node 节点
+     */
+    private void removeNode(Node<V> node) {
+        for (int i = 0; i < node.nextNodes.length; i++) {
+            node.nextNodes[i].prevNodes[i] = node.prevNodes[i];
+            node.prevNodes[i].nextNodes[i] = node.nextNodes[i];
+        }
+        while (level > 0 && headNode.nextNodes[level-1] == tailNode) level--;
+        size--;
+    }
+
+    /**
+     * 随机level生成：每层以1/2概率晋升
+     *
+     * @return level
+     */
+    private int randomLevel() {
+        int bits = ThreadLocalRandom.current().nextInt();
+        int nodeLevel = 1;
+        while ((bits & 1) != 0 && nodeLevel < maxLevel) {
+            nodeLevel++;
+            bits >>>= 1;
+        }
+        return nodeLevel;
+    }
+
+    /**
+     * 跳表数据游标
+     */
+    final class NodeCursor implements LongCursor<V> {
+
+        private final boolean reversed;
+        private Node<V> cursor;
+
+        public NodeCursor(boolean reversed) {
+            this.reversed = reversed;
+            this.cursor = reversed ? tailNode : headNode;
+        }
+
+        @Override
+        public boolean next() {
+            Node<V> node = reversed ? cursor.prevNodes[0] : cursor.nextNodes[0];
+            if (node == null || node == headNode || node == tailNode) return false;
+            cursor = node;
+            return true;
+        }
+
+        @Override
+        public long key() {
+            if (cursor == headNode || cursor == tailNode) throw new NoSuchElementException();
+            return cursor.key;
+        }
+
+        @Override
+        public V value() {
+            if (cursor == headNode || cursor == tailNode) throw new NoSuchElementException();
+            return cursor.value;
+        }
+    }
+
+    /**
+     * 跳表节点
+     *
+     * @param <V> 数据值
+     */
+    static final class Node<V> {
+        /* 数据key */
+        private final long key;
+        /* 数据值 */
+        private V value;
+        /* 后向节点引用 */
+        private final Node<V>[] nextNodes;
+        /* 前向节点引用 */
+        private final Node<V>[] prevNodes;
+
+        public Node(long key, V value, int level) {
+            assert level > 0;
+            this.key = key;
+            this.value = value;
+            this.nextNodes = new Node[level];
+            this.prevNodes = new Node[level];
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package xin.manong.weapon.base.collection;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 败者树实现：多路归并
+ * 1. 内部节点记录子树比较败者，根节点之上记录最终胜者
+ * 2. 弹出胜者数据后仅沿胜者叶子到根路径重新比较，每条数据比较次数为log(k)
+ * 3. 数据读取器读取结束后视为无穷大，不再参与胜出，并关闭读取器
+ * 4. 比较相等时编号较小的读取器胜出，保证归并稳定
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:35:01
+ */
+class LoserTree<T> {
+
+    /* 数据读取器数量 */
+    private final int k;
+    /* tree[0]为胜者，tree[1..k-1]为内部节点败者 */
+    private final int[] tree;
+    /* 数据读取器 */
+    private final RecordReader<T>[] readers;
+    /* 数据读取器比较器 */
+    private final Comparator<RecordReader<T>> readerComparator;
+
+    /**
+     * 构建败者树
+     *
+     * @param readers 数据读取器列表，数据读取器需已打开并读取首条数据
+     * @param readerComparator 数据读取器比较器
+     */
+    @SuppressWarnings("unchecked")
+    public LoserTree(List<RecordReader<T>> readers, Comparator<RecordReader<T>> readerComparator) {
+        this.k = readers.size();
+        this.readers = readers.toArray(new RecordReader[0]);
+        this.readerComparator = readerComparator;
+        this.tree = new int[Math.max(k, 1)];
+        if (k > 0) tree[0] = k == 1 ? 0 : build(1);
+    }
+
+    /**
+     * 获取当前最小数据，不移动读取游标
+     *
+     * @return 最小数据，归并结束返回null
+     */
+    public T peek() {
+        return k == 0 ? null : readers[tree[0]].peak();
+    }
+
+    /**
+     * 弹出当前最小数据
+     * 胜者读取器读取下一条数据后沿路径重新比较
+     *
+     * @return 最小数据，归并结束返回null
+     */
+    public T poll() {
+        if (k == 0) return null;
+        int winner = tree[0];
+        RecordReader<T> reader = readers[winner];
+        T record = reader.peak();
+        if (record == null) return null;
+        if (reader.read() == null) reader.close();
+        for (int node = (winner + k) >>> 1; node > 0; node >>>= 1) {
+            if (beats(tree[node], winner)) {
+                int loser = winner;
+                winner = tree[node];
+                tree[node] = loser;
+            }
+        }
+        tree[0] = winner;
+        return record;
+    }
+
+    /**
+     * 归并是否结束
+     *
+     * @return 结束返回true，否则返回false
+     */
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    /**
+     * 关闭所有未结束的数据读取器
+     */
+    public void close() {
+        for (RecordReader<T> reader : readers) {
+            if (reader.peak() != null) reader.close();
+        }
+    }
+
+    /**
+     * 自底向上构建子树，内部节点记录败者
+     * 节点node的子节点为2*node和2*node+1，叶子节点k+i对应读取器i
+     *
+     * @param node 子树根节点
+     * @return 子树胜者读取器编号
+     */
+    private int build(int node) {
+        if (node >= k) return node - k;
+        int left = build(node << 1);
+        int right = build((node << 1) + 1);
+        if (beats(left, right)) {
+            tree[node] = right;
+            return left;
+        }
+        tree[node] = left;
+        return right;
+    }
+
+    /**
+     * 判断读取器i是否胜过读取器j
+     *
+     * @param i 读取器编号
+     * @param j 读取器编号
+     * @return 胜出返回true，否则返回false
+     */
+    private boolean beats(int i, int j) {
+        int c = readerComparator.compare(readers[i], readers[j]);
+        return c < 0 || (c == 0 && i < j);
+    }
+}
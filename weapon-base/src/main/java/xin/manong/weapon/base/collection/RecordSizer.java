@@ -0,0 +1,20 @@
+package xin.manong.weapon.base.collection;
+
+/**
+ * 数据大小估算接口
+ * 用于LSMTree按内存字节预算控制spill
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:34:17
+ */
+@FunctionalInterface
+public interface RecordSizer<T> {
+
+    /**
+     * 估算数据占用字节数
+     *
+     * @param record 数据
+     * @return 字节数
+     */
+    long sizeOf(T record);
+}
@@ -0,0 +1,22 @@
+package xin.manong.weapon.base.html;
+
+import org.jsoup.nodes.Element;
+
+/**
+ * HTML单遍抽取结果
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:59:42
+ */
+public class ExtractResult {
+
+    /* 正文主体元素 */
+    public Element mainElement;
+    /* 发布时间毫秒时间戳，无法抽取为null */
+    public Long publishTime;
+
+    public ExtractResult(Element mainElement, Long publishTime) {
+        this.mainElement = mainElement;
+        this.publishTime = publishTime;
+    }
+}
@@ -54,6 +54,12 @@ public class HTMLExtractor {
         add("button");
     }};
 
+    /* 候选元素排序：分数升序，分数相同时广度优先顺序靠后者在前 */
+    private final static Comparator<ElementStat> CANDIDATE_COMPARATOR =
+            Comparator.<ElementStat>comparingDouble(stat -> stat.score)
+                    .thenComparing(stat -> stat.depth, Comparator.reverseOrder())
+                    .thenComparing(stat -> stat.order, Comparator.reverseOrder());
+
     /**
      * 抽取HTML主体元素
      * 针对新闻文章网页生效
@@ -75,6 +81,43 @@ public class HTMLExtractor {
         return selectMainElement(bodyNode);
     }
 
+    /**
+     * 单遍抽取HTML主体元素及发布时间
+     * 1. 遍历时跳过排除节点，不修改DOM，主体元素中排除节点由formatHTMLElement忽略
+     * 2. 一次后序遍历完成节点打分，分段文本长度方差通过累计量计算，不构建HTMLNode树
+     * 3. 遍历时按文档顺序记录各元素首个时间文本(包括属性值及文本节点)，抽取发布时间无需重新序列化HTML
+     * 针对新闻文章网页生效
+     *
+     * @param html 网页HTML
+     * @param url 网页URL
+     * @return 抽取成功返回结果，否则返回null
+     */
+    public static ExtractResult extract(String html, String url) {
+        if (StringUtils.isEmpty(html)) {
+            logger.error("Page HTML is empty");
+            return null;
+        }
+        Document document = StringUtils.isEmpty(url) ? Jsoup.parse(html) : Jsoup.parse(html, url);
+        Element body = document.body();
+        List<ElementStat> elementStats = new ArrayList<>();
+        ElementStat bodyStat = scoreElement(body, null, 0, elementStats);
+        PriorityQueue<ElementStat> candidates = new PriorityQueue<>(4, CANDIDATE_COMPARATOR);
+        for (ElementStat stat : elementStats) {
+            stat.candidate = !Double.isNaN(stat.score) && (stat.parent == null || stat.parent.candidate);
+            if (!stat.candidate) continue;
+            if (candidates.size() < 3) candidates.offer(stat);
+            else if (CANDIDATE_COMPARATOR.compare(candidates.peek(), stat) < 0) {
+                candidates.poll();
+                candidates.offer(stat);
+            }
+        }
+        elementStats = new ArrayList<>(candidates);
+        if (elementStats.isEmpty()) return new ExtractResult(body, publishTime(bodyStat));
+        elementStats.sort(CANDIDATE_COMPARATOR.reversed());
+        ElementStat mainStat = selectMainElementStat(elementStats);
+        return new ExtractResult(mainStat.element, publishTime(mainStat));
+    }
+
     /**
      * 从正文主体中抽取发布时间
      * 如果无法抽取返回null
@@ -156,13 +199,13 @@ public class HTMLExtractor {
             if (textNode.text().trim().isEmpty()) return htmlElements;
             Node parentNode = node.parent();
             boolean block = parentNode instanceof Element &&
-                    ((Element) parentNode).isBlock() && parentNode.childNodeSize() == 1;
+                    ((Element) parentNode).isBlock() && isSingleChild(parentNode);
             Element htmlElement = new Element(block ? TAG_NAME_PARAGRAPH : TAG_NAME_SPAN);
             htmlElement.appendChild(node.clone());
             htmlElements.add(htmlElement);
         } else if (node instanceof Element element) {
             String tagName = element.tagName();
-            if (!isVisible(element)) return htmlElements;
+            if (!isVisible(element) || EXCLUDE_NODES.contains(element.normalName())) return htmlElements;
             if (tagName.equals(TAG_NAME_BR)) {
                 Element htmlElement = new Element(TAG_NAME_BR);
                 htmlElements.add(htmlElement);
@@ -430,6 +473,253 @@ public class HTMLExtractor {
         return null;
     }
 
+    /**
+     * 判断节点是否为唯一子节点，忽略排除节点
+     *
+     * @param parentNode 父节点
+     * @return 唯一子节点返回true，否则返回false
+     */
+    private static boolean isSingleChild(Node parentNode) {
+        int count = 0;
+        for (Node childNode : parentNode.childNodes()) {
+            if (isExcluded(childNode)) continue;
+            if (++count > 1) return false;
+        }
+        return count == 1;
+    }
+
+    /**
+     * 判断是否为排除节点
+     *
+     * @param node 节点
+     * @return 排除节点返回true，否则返回false
+     */
+    private static boolean isExcluded(Node node) {
+        return node instanceof Element element && EXCLUDE_NODES.contains(element.normalName());
+    }
+
+    /**
+     * 后序遍历计算元素分数，计算方式与computeScore一致
+     * 排除节点直接跳过，元素统计信息按先序加入列表
+     *
+     * @param element 元素
+     * @param parentStat 父元素统计信息
+     * @param depth 元素深度
+     * @param elementStats 元素统计信息列表
+     * @return 元素统计信息
+     */
+    private static ElementStat scoreElement(Element element, ElementStat parentStat,
+                                            int depth, List<ElementStat> elementStats) {
+        ElementStat stat = new ElementStat(element, parentStat, depth, elementStats.size());
+        elementStats.add(stat);
+        detectAttributeDateTime(stat, element);
+        String tagName = element.tagName();
+        if (!isVisible(element) || tagName.equals(TAG_NAME_BR)) {
+            collectDateTime(element, stat);
+            return stat;
+        }
+        for (Node childNode : element.childNodes()) {
+            if (isExcluded(childNode)) continue;
+            stat.childSize++;
+            if (childNode instanceof TextNode textNode) accumulateText(stat, textNode.text());
+            else if (childNode instanceof Element childElement) {
+                accumulateChildStat(stat, scoreElement(childElement, stat, depth + 1, elementStats));
+            }
+        }
+        stat.nodeCount++;
+        if (tagName.equals(TAG_NAME_PARAGRAPH) || tagName.equals(TAG_NAME_SECTION)) stat.paragraphNodeCount++;
+        else if (tagName.equals(TAG_NAME_ANCHOR)) {
+            stat.anchorNodeCount++;
+            stat.anchorTextCount = stat.textCount;
+        }
+        int pureTextCount = stat.textCount - stat.anchorTextCount;
+        int pureNodeCount = stat.nodeCount - stat.anchorNodeCount;
+        stat.density = pureNodeCount == 0 || pureTextCount == 0 ? 0d : pureTextCount * 1.0d / pureNodeCount;
+        double var = computeVariance(stat.segmentCount, stat.segmentTextSum, stat.segmentTextSquareSum);
+        stat.score = Math.log(var) * stat.sumDensity * Math.log(stat.textCount -
+                stat.anchorTextCount + 1) * Math.log10(stat.paragraphNodeCount + 2);
+        return stat;
+    }
+
+    /**
+     * 收集不参与打分元素(不可见元素及br)内时间文本
+     *
+     * @param element 元素
+     * @param stat 元素统计信息
+     */
+    private static void collectDateTime(Element element, ElementStat stat) {
+        for (Node childNode : element.childNodes()) {
+            if (stat.dateTime1 != null) return;
+            if (childNode instanceof TextNode textNode) detectDateTime(stat, textNode.text());
+            else if (childNode instanceof Element childElement && !isExcluded(childElement)) {
+                detectAttributeDateTime(stat, childElement);
+                collectDateTime(childElement, stat);
+            }
+        }
+    }
+
+    /**
+     * 累计文本节点信息
+     *
+     * @param stat 元素统计信息
+     * @param text 文本
+     */
+    private static void accumulateText(ElementStat stat, String text) {
+        int textCount = text.trim().length();
+        stat.textCount += textCount;
+        if (textCount > 0) {
+            stat.segmentCount++;
+            stat.segmentTextSum += textCount;
+            stat.segmentTextSquareSum += (long) textCount * textCount;
+        }
+        detectDateTime(stat, text);
+    }
+
+    /**
+     * 检测文本中时间，记录文档顺序首个时间文本
+     *
+     * @param stat 元素统计信息
+     * @param text 文本
+     */
+    private static void detectDateTime(ElementStat stat, String text) {
+        if (stat.dateTime1 != null || !maybeDateTime(text)) return;
+        Matcher matcher = DATE_TIME_PATTERN2.matcher(text);
+        if (!matcher.find()) return;
+        if (stat.dateTime2 == null) stat.dateTime2 = String.format("%s-%s-%s %s:%s", matcher.group(1),
+                matcher.group(2), matcher.group(3), matcher.group(4), matcher.group(5));
+        matcher = DATE_TIME_PATTERN1.matcher(text);
+        if (matcher.find()) stat.dateTime1 = String.format("%s-%s-%s %s:%s:%s", matcher.group(1),
+                matcher.group(2), matcher.group(3), matcher.group(4), matcher.group(5), matcher.group(6));
+    }
+
+    /**
+     * 检测元素属性值中时间，如time元素datetime属性及data-*属性
+     * 属性在outerHtml中先于子节点出现，需在遍历子节点前调用以保持文档顺序
+     *
+     * @param stat 元素统计信息
+     * @param element 元素
+     */
+    private static void detectAttributeDateTime(ElementStat stat, Element element) {
+        if (stat.dateTime1 != null || element.attributesSize() == 0) return;
+        for (Attribute attribute : element.attributes()) {
+            detectDateTime(stat, attribute.getValue());
+            if (stat.dateTime1 != null) return;
+        }
+    }
+
+    /**
+     * 快速判断文本是否可能包含时间：时间至少包含8个数字
+     *
+     * @param text 文本
+     * @return 可能包含返回true，否则返回false
+     */
+    private static boolean maybeDateTime(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9' && ++count >= 8) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 累计子元素统计信息，时间文本保留文档顺序首个
+     *
+     * @param stat 元素统计信息
+     * @param childStat 子元素统计信息
+     */
+    private static void accumulateChildStat(ElementStat stat, ElementStat childStat) {
+        stat.textCount += childStat.textCount;
+        stat.anchorTextCount += childStat.anchorTextCount;
+        stat.nodeCount += childStat.nodeCount;
+        stat.anchorNodeCount += childStat.anchorNodeCount;
+        stat.paragraphNodeCount += childStat.paragraphNodeCount;
+        stat.sumDensity += childStat.density;
+        stat.segmentCount += childStat.segmentCount;
+        stat.segmentTextSum += childStat.segmentTextSum;
+        stat.segmentTextSquareSum += childStat.segmentTextSquareSum;
+        if (stat.dateTime1 == null) stat.dateTime1 = childStat.dateTime1;
+        if (stat.dateTime2 == null) stat.dateTime2 = childStat.dateTime2;
+    }
+
+    /**
+     * 根据累计量计算文本长度方差，计算方式与computeVariance(List)一致
+     *
+     * @param count 分段数量
+     * @param sum 分段文本长度和
+     * @param squareSum 分段文本长度平方和
+     * @return 方差
+     */
+    private static double computeVariance(int count, long sum, long squareSum) {
+        if (count == 0) return 0d;
+        if (count == 1) return sum * 1.0d / 2;
+        double mean = sum * 1.0d / count;
+        double deviation = Math.max(0d, squareSum - sum * mean);
+        return Math.sqrt(deviation / count + 1);
+    }
+
+    /**
+     * 选择更大范围的主体元素，选择方式与selectMainHTMLNode一致
+     *
+     * @param elementStats 候选元素统计信息，按分数降序排列
+     * @return 主体元素统计信息
+     */
+    private static ElementStat selectMainElementStat(List<ElementStat> elementStats) {
+        ElementStat mainStat = elementStats.get(0);
+        ElementStat mainParentStat = findParentElementStat(mainStat);
+        if (mainParentStat == null) return mainStat;
+        int nodeCount = 1, textCount = mainStat.textCount;
+        for (int i = 1; i < elementStats.size(); i++) {
+            ElementStat stat = elementStats.get(i);
+            if (stat == mainParentStat) {
+                nodeCount += 1;
+                textCount = mainParentStat.textCount;
+                break;
+            }
+            ElementStat parentStat = findParentElementStat(stat);
+            if (parentStat == null || parentStat != mainParentStat) continue;
+            if (stat.textCount < 300 && stat.textCount * 1.0 / mainStat.textCount < 0.4d) continue;
+            nodeCount += 1;
+            textCount += stat.textCount;
+        }
+        return nodeCount > 1 && textCount * 1.0 / mainParentStat.textCount >= 0.8 ? mainParentStat : mainStat;
+    }
+
+    /**
+     * 获取非独生子女父元素统计信息
+     *
+     * @param stat 元素统计信息
+     * @return 非独生子女父元素统计信息，如果没有返回null
+     */
+    private static ElementStat findParentElementStat(ElementStat stat) {
+        ElementStat parentStat = stat.parent;
+        while (parentStat != null) {
+            if (parentStat.childSize != 1 || parentStat.parent == null) return parentStat;
+            parentStat = parentStat.parent;
+        }
+        return null;
+    }
+
+    /**
+     * 根据遍历记录的时间文本抽取发布时间，向上查找方式与publishTime(Element)一致
+     *
+     * @param mainStat 主体元素统计信息
+     * @return 成功返回毫秒时间戳，否则返回null
+     */
+    private static Long publishTime(ElementStat mainStat) {
+        ElementStat stat = mainStat;
+        for (int i = 0; i < 6; i++) {
+            if (stat == null) return null;
+            if (stat.dateTime1 != null) return CommonUtil.stringToTime(stat.dateTime1, null);
+            if (stat.dateTime2 != null) return CommonUtil.stringToTime(stat.dateTime2, "yyyy-MM-dd HH:mm");
+            do {
+                if (stat.element.tagName().equalsIgnoreCase("body")) return null;
+                stat = stat.parent;
+            } while (stat != null && stat.childSize == 1);
+        }
+        return null;
+    }
+
     /**
      * 节点统计信息
      */
@@ -437,4 +727,40 @@ public class HTMLExtractor {
         public int nodeCount;
         public int textCount;
     }
+
+    /**
+     * 单遍抽取元素统计信息
+     */
+    private static class ElementStat {
+        public final Element element;
+        public final ElementStat parent;
+        public final int depth;
+        public final int order;
+        /* 子节点数，不包含排除节点 */
+        public int childSize;
+        public int textCount;
+        public int anchorTextCount;
+        public int nodeCount;
+        public int anchorNodeCount;
+        public int paragraphNodeCount;
+        public double density;
+        public double sumDensity;
+        public double score;
+        /* 是否为候选：分数及所有祖先分数均不为NaN */
+        public boolean candidate;
+        /* 分段文本数量、长度和及长度平方和 */
+        public int segmentCount;
+        public long segmentTextSum;
+        public long segmentTextSquareSum;
+        /* 文档顺序首个完整时间文本及精确到分钟时间文本 */
+        public String dateTime1;
+        public String dateTime2;
+
+        public ElementStat(Element element, ElementStat parent, int depth, int order) {
+            this.element = element;
+            this.parent = parent;
+            this.depth = depth;
+            this.order = order;
+        }
+    }
 }
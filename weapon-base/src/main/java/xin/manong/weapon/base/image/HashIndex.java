@@ -0,0 +1,451 @@
+package xin.manong.weapon.base.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 图片近似重复索引：基于多索引hash(multi-index hashing)实现
+ * 1. 64位图片hash(PerceivedHash等不超过8字节hash)切分为bandNum个band，每个band建立倒排桶
+ * 2. 半径r查询时，根据鸽巢原理至少存在一个band与查询hash差异不超过r/bandNum位，
+ *    枚举每个band该差异范围内的桶获取候选，使用Long.bitCount计算海明距离过滤候选
+ * 3. 添加数据返回数据ID，通过数据ID删除数据，删除后ID可被复用
+ * 4. 支持快照持久化及加载，数据ID在快照前后保持不变
+ * 5. 读写锁保证线程安全，查询之间可并发
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:49:51
+ */
+public class HashIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashIndex.class);
+
+    private static final int MAGIC = 0x48494458;
+    private static final int VERSION = 1;
+    private static final int DEFAULT_BAND_NUM = 4;
+    private static final int MAX_BAND_BITS = 16;
+    private static final int DEFAULT_INIT_CAPACITY = 1024;
+
+    /**
+     * 查询结果
+     */
+    public static class Match {
+
+        /* 数据ID */
+        public final int id;
+        /* 数据hash */
+        public final long hash;
+        /* 海明距离 */
+        public final int distance;
+
+        public Match(int id, long hash, int distance) {
+            this.id = id;
+            this.hash = hash;
+            this.distance = distance;
+        }
+    }
+
+    /* band数量 */
+    private final int bandNum;
+    /* 每个band位数 */
+    private final int bandBits;
+    /* 数据数量 */
+    private int size;
+    /* 已分配数据ID上界 */
+    private int nextId;
+    /* 空闲数据ID栈 */
+    private int[] freeIds;
+    private int freeIdNum;
+    /* 数据hash */
+    private long[] hashes;
+    /* 数据有效标记 */
+    private boolean[] lives;
+    /* band倒排桶：buckets[band][bandValue]存储数据ID */
+    private final int[][][] buckets;
+    /* band倒排桶数据数量 */
+    private final int[][] bucketSizes;
+    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock(false);
+
+    public HashIndex() {
+        this(DEFAULT_BAND_NUM);
+    }
+
+    /**
+     * 构建索引
+     *
+     * @param bandNum band数量，需整除64且每个band不超过16位，可选4，8，16，32，64
+     */
+    public HashIndex(int bandNum) {
+        if (bandNum <= 0 || Long.SIZE % bandNum != 0 || Long.SIZE / bandNum > MAX_BAND_BITS) {
+            throw new IllegalArgumentException(String.format("非法band数量:%d", bandNum));
+        }
+        this.bandNum = bandNum;
+        this.bandBits = Long.SIZE / bandNum;
+        this.size = 0;
+        this.nextId = 0;
+        this.freeIds = new int[16];
+        this.freeIdNum = 0;
+        this.hashes = new long[DEFAULT_INIT_CAPACITY];
+        this.lives = new boolean[DEFAULT_INIT_CAPACITY];
+        this.buckets = new int[bandNum][1 << bandBits][];
+        this.bucketSizes = new int[bandNum][1 << bandBits];
+    }
+
+    /**
+     * 字节数组hash转换为long
+     * 字节数组按大端序排列，长度不超过8字节
+     *
+     * @param hash 字节数组hash
+     * @return long hash
+     */
+    public static long toLong(byte[] hash) {
+        if (hash == null || hash.length == 0 || hash.length > Long.BYTES) {
+            throw new IllegalArgumentException("Hash length must be in range [1, 8]");
+        }
+        long value = 0L;
+        for (byte b : hash) value = (value << 8) | (b & 0xff);
+        return value;
+    }
+
+    /**
+     * 添加数据
+     *
+     * @param hash 字节数组hash，长度不超过8字节
+     * @return 数据ID
+     */
+    public int add(byte[] hash) {
+        return add(toLong(hash));
+    }
+
+    /**
+     * 添加数据
+     *
+     * @param hash 64位hash
+     * @return 数据ID
+     */
+    public int add(long hash) {
+        readWriteLock.writeLock().lock();
+        try {
+            int id = freeIdNum > 0 ? freeIds[--freeIdNum] : nextId++;
+            if (id >= hashes.length) {
+                int capacity = hashes.length + (hashes.length >>> 1);
+                hashes = Arrays.copyOf(hashes, capacity);
+                lives = Arrays.copyOf(lives, capacity);
+            }
+            hashes[id] = hash;
+            lives[id] = true;
+            for (int band = 0; band < bandNum; band++) addBucket(band, bandValue(hash, band), id);
+            size++;
+            return id;
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除数据
+     *
+     * @param id 数据ID
+     * @return 删除成功返回true，数据不存在返回false
+     */
+    public boolean remove(int id) {
+        readWriteLock.writeLock().lock();
+        try {
+            if (id < 0 || id >= nextId || !lives[id]) return false;
+            long hash = hashes[id];
+            for (int band = 0; band < bandNum; band++) removeBucket(band, bandValue(hash, band), id);
+            lives[id] = false;
+            if (freeIdNum == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeIds.length << 1);
+            freeIds[freeIdNum++] = id;
+            size--;
+            return true;
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取数据hash
+     *
+     * @param id 数据ID
+     * @return 数据hash，数据不存在抛出异常IllegalArgumentException
+     */
+    public long get(int id) {
+        readWriteLock.readLock().lock();
+        try {
+            if (id < 0 || id >= nextId || !lives[id]) {
+                throw new IllegalArgumentException(String.format("Data id:%d is not found", id));
+            }
+            return hashes[id];
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 数据数量
+     *
+     * @return 数据数量
+     */
+    public int size() {
+        readWriteLock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 判断是否存在与hash海明距离不超过radius的数据
+     *
+     * @param hash 字节数组hash，长度不超过8字节
+     * @param radius 海明距离半径
+     * @return 存在返回true，否则返回false
+     */
+    public boolean contains(byte[] hash, int radius) {
+        return contains(toLong(hash), radius);
+    }
+
+    /**
+     * 判断是否存在与hash海明距离不超过radius的数据
+     * 发现首个满足条件数据即返回
+     *
+     * @param hash 64位hash
+     * @param radius 海明距离半径
+     * @return 存在返回true，否则返回false
+     */
+    public boolean contains(long hash, int radius) {
+        return !search(hash, radius, true).isEmpty();
+    }
+
+    /**
+     * 半径查询
+     *
+     * @param hash 字节数组hash，长度不超过8字节
+     * @param radius 海明距离半径
+     * @return 海明距离不超过radius的数据，按距离升序排列
+     */
+    public List<Match> search(byte[] hash, int radius) {
+        return search(toLong(hash), radius);
+    }
+
+    /**
+     * 半径查询
+     *
+     * @param hash 64位hash
+     * @param radius 海明距离半径
+     * @return 海明距离不超过radius的数据，按距离升序排列
+     */
+    public List<Match> search(long hash, int radius) {
+        List<Match> matches = search(hash, radius, false);
+        matches.sort(Comparator.comparingInt((Match match) -> match.distance).thenComparingInt(match -> match.id));
+        return matches;
+    }
+
+    /**
+     * 保存索引快照
+     *
+     * @param file 快照文件
+     * @throws IOException 写入失败抛出异常
+     */
+    public void save(File file) throws IOException {
+        readWriteLock.readLock().lock();
+        try (DataOutputStream outputStream = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.writeInt(bandNum);
+            outputStream.writeInt(nextId);
+            outputStream.writeInt(size);
+            for (int id = 0; id < nextId; id++) {
+                if (!lives[id]) continue;
+                outputStream.writeInt(id);
+                outputStream.writeLong(hashes[id]);
+            }
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 加载索引快照
+     *
+     * @param file 快照文件
+     * @return 索引
+     * @throws IOException 读取失败或快照格式非法抛出异常
+     */
+    public static HashIndex load(File file) throws IOException {
+        try (DataInputStream inputStream = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (inputStream.readInt() != MAGIC) throw new IOException("Invalid hash index snapshot");
+            int version = inputStream.readInt();
+            if (version != VERSION) throw new IOException(String.format("Unsupported snapshot version:%d", version));
+            HashIndex index = new HashIndex(inputStream.readInt());
+            int nextId = inputStream.readInt();
+            int size = inputStream.readInt();
+            if (nextId < 0 || size < 0 || size > nextId) throw new IOException("Invalid hash index snapshot");
+            int capacity = Math.max(nextId, DEFAULT_INIT_CAPACITY);
+            index.hashes = new long[capacity];
+            index.lives = new boolean[capacity];
+            for (int i = 0; i < size; i++) {
+                int id = inputStream.readInt();
+                long hash = inputStream.readLong();
+                if (id < 0 || id >= nextId || index.lives[id]) throw new IOException("Invalid hash index snapshot");
+                index.hashes[id] = hash;
+                index.lives[id] = true;
+                for (int band = 0; band < index.bandNum; band++) index.addBucket(band, index.bandValue(hash, band), id);
+            }
+            index.size = size;
+            index.nextId = nextId;
+            index.freeIds = new int[Math.max(nextId - size, 16)];
+            for (int id = nextId - 1; id >= 0; id--) if (!index.lives[id]) index.freeIds[index.freeIdNum++] = id;
+            logger.info("Load hash index success, size:{}", size);
+            return index;
+        }
+    }
+
+    /**
+     * 半径查询
+     * 每个band枚举差异不超过radius/bandNum位的桶，候选数据在首个命中band处理，避免重复
+     *
+     * @param hash 64位hash
+     * @param radius 海明距离半径
+     * @param first 是否找到首个结果即返回
+     * @return 查询结果
+     */
+    private List<Match> search(long hash, int radius, boolean first) {
+        if (radius < 0) throw new IllegalArgumentException(String.format("非法查询半径:%d", radius));
+        List<Match> matches = new ArrayList<>();
+        int bandRadius = Math.min(radius / bandNum, bandBits);
+        readWriteLock.readLock().lock();
+        try {
+            for (int band = 0; band < bandNum; band++) {
+                int value = bandValue(hash, band);
+                if (!searchBand(band, value, 0, bandRadius, hash, radius, first, matches)) return matches;
+            }
+            return matches;
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 枚举band中与查询band值差异不超过bandRadius位的桶
+     * 每个桶只访问一次：从最低位开始，仅翻转比上次翻转位置更高的位
+     *
+     * @param band band序号
+     * @param value 当前枚举band值
+     * @param fromBit 可翻转起始位
+     * @param leftFlips 剩余翻转次数
+     * @param hash 查询hash
+     * @param radius 海明距离半径
+     * @param first 是否找到首个结果即返回
+     * @param matches 查询结果
+     * @return 继续查询返回true，否则返回false
+     */
+    private boolean searchBand(int band, int value, int fromBit, int leftFlips,
+                               long hash, int radius, boolean first, List<Match> matches) {
+        if (!searchBucket(band, value, hash, radius, first, matches)) return false;
+        if (leftFlips == 0) return true;
+        for (int bit = fromBit; bit < bandBits; bit++) {
+            if (!searchBand(band, value ^ (1 << bit), bit + 1,
+                    leftFlips - 1, hash, radius, first, matches)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 检测桶内候选数据
+     * 候选数据在更靠前的band中已被枚举时跳过，避免重复结果
+     *
+     * @param band band序号
+     * @param value band值
+     * @param hash 查询hash
+     * @param radius 海明距离半径
+     * @param first 是否找到首个结果即返回
+     * @param matches 查询结果
+     * @return 继续查询返回true，否则返回false
+     */
+    private boolean searchBucket(int band, int value, long hash, int radius, boolean first, List<Match> matches) {
+        int[] bucket = buckets[band][value];
+        if (bucket == null) return true;
+        int bandRadius = Math.min(radius / bandNum, bandBits);
+        long mask = bandMask();
+        for (int i = 0; i < bucketSizes[band][value]; i++) {
+            int id = bucket[i];
+            long xor = hashes[id] ^ hash;
+            int distance = Long.bitCount(xor);
+            if (distance > radius) continue;
+            boolean visited = false;
+            for (int prevBand = 0; prevBand < band && !visited; prevBand++) {
+                visited = Long.bitCount((xor >>> (prevBand * bandBits)) & mask) <= bandRadius;
+            }
+            if (visited) continue;
+            matches.add(new Match(id, hashes[id], distance));
+            if (first) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 添加数据ID至band倒排桶
+     *
+     * @param band band序号
+     * @param value band值
+     * @param id 数据ID
+     */
+    private void addBucket(int band, int value, int id) {
+        int[] bucket = buckets[band][value];
+        int bucketSize = bucketSizes[band][value];
+        if (bucket == null) bucket = buckets[band][value] = new int[2];
+        else if (bucketSize == bucket.length) bucket = buckets[band][value] = Arrays.copyOf(bucket, bucketSize << 1);
+        bucket[bucketSize] = id;
+        bucketSizes[band][value]++;
+    }
+
+    /**
+     * 从band倒排桶删除数据ID
+     *
+     * @param band band序号
+     * @param value band值
+     * @param id 数据ID
+     */
+    private void removeBucket(int band, int value, int id) {
+        int[] bucket = buckets[band][value];
+        int bucketSize = bucketSizes[band][value];
+        for (int i = 0; i < bucketSize; i++) {
+            if (bucket[i] != id) continue;
+            bucket[i] = bucket[bucketSize - 1];
+            bucketSizes[band][value]--;
+            if (bucketSizes[band][value] == 0) buckets[band][value] = null;
+            return;
+        }
+    }
+
+    /**
+     * 获取hash在指定band的值
+     *
+     * @param hash 64位hash
+     * @param band band序号
+     * @return band值
+     */
+    private int bandValue(long hash, int band) {
+        return (int) ((hash >>> (band * bandBits)) & bandMask());
+    }
+
+    /**
+     * band掩码
+     *
+     * @return band掩码
+     */
+    private long bandMask() {
+        return (1L << bandBits) - 1;
+    }
+}
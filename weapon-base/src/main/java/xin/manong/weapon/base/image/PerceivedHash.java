@@ -3,9 +3,14 @@ package xin.manong.weapon.base.image;
 import xin.manong.weapon.base.util.ImageUtil;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 
 /**
  * 图片感知Hash
+ * 1. 余弦矩阵预先计算，只计算低频8*8区域的可分离二维DCT
+ * 2. 缩放后图片像素直接读取raster数据缓冲
  *
  * @author frankcl
  * @date 2023-08-02 15:18:07
@@ -16,6 +21,7 @@ public class PerceivedHash extends Hash {
     private static final int SAMPLE_SIZE = 8;
 
     private static final double[] coefficientsDCT = initCoefficientsDCT();
+    private static final double[][] cosines = initCosines();
 
     /**
      * 初始化DCT系数
@@ -30,51 +36,83 @@ public class PerceivedHash extends Hash {
     }
 
     /**
-     * 计算坐标(x, y)的余弦变换
+     * 初始化余弦矩阵：cosines[u][i]为频率u在坐标i的余弦值，只保留低频部分
      *
-     * @param metrics 输入矩阵
-     * @param x 坐标x
-     * @param y 坐标y
-     * @return 余弦变换结果
+     * @return 余弦矩阵
      */
-    private double computeDCT(double[][] metrics, int x, int y) {
-        double sum = 0.0;
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                sum += Math.cos(((2 * i + 1) / (2.0 * SIZE)) * x * Math.PI) *
-                        Math.cos(((2 * j + 1) / (2.0 * SIZE)) * y * Math.PI) * (metrics[i][j]);
+    private static double[][] initCosines() {
+        double[][] cosines = new double[SAMPLE_SIZE][SIZE];
+        for (int u = 0; u < SAMPLE_SIZE; u++) {
+            for (int i = 0; i < SIZE; i++) {
+                cosines[u][i] = Math.cos(((2 * i + 1) / (2.0 * SIZE)) * u * Math.PI);
             }
         }
-        return sum * ((coefficientsDCT[x] * coefficientsDCT[y]) / 4.0);
+        return cosines;
     }
 
     /**
      * 进行离散余弦变换，达到去燥效果
+     * 二维DCT可分离为两次一维DCT，只计算左上角低频8*8矩阵
      *
      * @param input 待变换矩阵
-     * @return 变换后矩阵
+     * @return 低频8*8变换矩阵
      */
     private double[][] applyDCT(double[][] input) {
-        double[][] output = new double[SIZE][SIZE];
-        for (int i = 0; i < SIZE; i++) {
+        double[][] temp = new double[SAMPLE_SIZE][SIZE];
+        for (int u = 0; u < SAMPLE_SIZE; u++) {
+            double[] cosine = cosines[u];
             for (int j = 0; j < SIZE; j++) {
-                output[i][j] = computeDCT(input, i, j);
+                double sum = 0.0;
+                for (int i = 0; i < SIZE; i++) sum += cosine[i] * input[i][j];
+                temp[u][j] = sum;
+            }
+        }
+        double[][] output = new double[SAMPLE_SIZE][SAMPLE_SIZE];
+        for (int u = 0; u < SAMPLE_SIZE; u++) {
+            for (int v = 0; v < SAMPLE_SIZE; v++) {
+                double[] cosine = cosines[v];
+                double sum = 0.0;
+                for (int j = 0; j < SIZE; j++) sum += cosine[j] * temp[u][j];
+                output[u][v] = sum * ((coefficientsDCT[u] * coefficientsDCT[v]) / 4.0);
             }
         }
         return output;
     }
 
+    /**
+     * 读取灰度矩阵
+     * TYPE_INT_ARGB图片直接读取raster数据缓冲，避免逐像素getRGB调用
+     *
+     * @param image 灰度图片
+     * @return 灰度矩阵，matrix[x][y]为坐标(x, y)灰度值
+     */
+    private double[][] readMatrix(BufferedImage image) {
+        double[][] matrix = new double[SIZE][SIZE];
+        WritableRaster raster = image.getRaster();
+        if (raster.getDataBuffer() instanceof DataBufferInt dataBuffer &&
+                raster.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel &&
+                image.getType() == BufferedImage.TYPE_INT_ARGB) {
+            int[] pixels = dataBuffer.getData();
+            int stride = sampleModel.getScanlineStride();
+            int offset = dataBuffer.getOffset() - sampleModel.getOffset(
+                    raster.getSampleModelTranslateX(), raster.getSampleModelTranslateY());
+            for (int y = 0; y < SIZE; y++) {
+                int rowOffset = offset + y * stride;
+                for (int x = 0; x < SIZE; x++) matrix[x][y] = pixels[rowOffset + x] & 0xff;
+            }
+            return matrix;
+        }
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) matrix[x][y] = image.getRGB(x, y) & 0xff;
+        }
+        return matrix;
+    }
+
     @Override
     public byte[] compute(BufferedImage image) {
         BufferedImage processedImage = ImageUtil.resize(image, SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
         ImageUtil.gray(processedImage);
-        double[][] matrix = new double[SIZE][SIZE];
-        for (int x = 0; x < processedImage.getWidth(); x++) {
-            for (int y = 0; y < processedImage.getHeight(); y++) {
-                matrix[x][y] = processedImage.getRGB(x, y) & 0xff;
-            }
-        }
-        double[][] matrixDCT = applyDCT(matrix);
+        double[][] matrixDCT = applyDCT(readMatrix(processedImage));
         /*
          * 保留左上角8*8矩阵，这部分表示图片的低频部分
          * 计算8*8矩阵平均值（排除矩阵第一个元素）
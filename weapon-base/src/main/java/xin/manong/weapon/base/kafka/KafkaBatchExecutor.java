@@ -0,0 +1,144 @@
+package xin.manong.weapon.base.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * kafka分区数据批量执行器
+ * 1. 调用批量处理器处理分区数据，连续处理成功前缀在位点跟踪器中标记完成
+ * 2. 处理器抛出异常视为全部失败，返回值超出范围时截断
+ * 3. 处理失败分区按指数退避暂停，退避时间从retryBackoffMs开始翻倍，不超过maxRetryBackoffMs，处理成功后重置
+ * 4. 只在消费线程中使用，非线程安全
+ *
+ * @author frankcl
+ * @date 2026-10-18 02:27:44
+ */
+class KafkaBatchExecutor {
+
+    private final static Logger logger = LoggerFactory.getLogger(KafkaBatchExecutor.class);
+
+    private final KafkaBatchRecordProcessor processor;
+    private final KafkaOffsetTracker offsetTracker;
+    private final KafkaConsumeMetrics metrics;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+    /* 分区连续失败次数 */
+    private final Map<TopicPartition, Integer> failureCounts;
+    /* 暂停分区恢复时间 */
+    private final Map<TopicPartition, Long> resumeTimes;
+
+    KafkaBatchExecutor(KafkaBatchRecordProcessor processor, KafkaOffsetTracker offsetTracker,
+                       KafkaConsumeMetrics metrics, long retryBackoffMs, long maxRetryBackoffMs) {
+        this.processor = processor;
+        this.offsetTracker = offsetTracker;
+        this.metrics = metrics;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryBackoffMs = Math.max(retryBackoffMs, maxRetryBackoffMs);
+        this.failureCounts = new HashMap<>();
+        this.resumeTimes = new HashMap<>();
+    }
+
+    /**
+     * 批量处理分区数据
+     * 处理失败时调用方需回退到失败位点并暂停分区，直到resumablePartitions返回该分区
+     *
+     * @param partition 分区
+     * @param consumerRecords 分区数据
+     * @return 全部处理成功返回-1，否则返回第一条失败数据位点
+     */
+    long execute(TopicPartition partition, List<ConsumerRecord<byte[], byte[]>> consumerRecords) {
+        if (consumerRecords.isEmpty()) return -1L;
+        int successCount;
+        long startTime = System.nanoTime();
+        try {
+            successCount = processor.process(partition, consumerRecords);
+        } catch (Throwable e) {
+            logger.error("Process kafka messages failed for topic:{} and partition:{}",
+                    partition.topic(), partition.partition());
+            logger.error(e.getMessage(), e);
+            successCount = 0;
+        }
+        successCount = Math.max(0, Math.min(successCount, consumerRecords.size()));
+        if (metrics != null) {
+            long byteNum = 0L;
+            for (ConsumerRecord<byte[], byte[]> consumerRecord : consumerRecords) {
+                byteNum += KafkaConsumeMetrics.recordSize(consumerRecord);
+            }
+            metrics.recordProcess(partition, consumerRecords.size(), byteNum,
+                    consumerRecords.size() - successCount, System.nanoTime() - startTime);
+        }
+        for (int i = 0; i < successCount; i++) {
+            long offset = consumerRecords.get(i).offset();
+            offsetTracker.fetch(partition, offset);
+            offsetTracker.complete(partition, offset);
+        }
+        if (successCount == consumerRecords.size()) {
+            failureCounts.remove(partition);
+            return -1L;
+        }
+        int failureCount = failureCounts.merge(partition, 1, Integer::sum);
+        long backoffMs = backoffMs(failureCount);
+        resumeTimes.put(partition, System.currentTimeMillis() + backoffMs);
+        long failedOffset = consumerRecords.get(successCount).offset();
+        logger.warn("Process kafka messages failed from offset:{} for topic:{} and partition:{}, retry after {} ms",
+                failedOffset, partition.topic(), partition.partition(), backoffMs);
+        return failedOffset;
+    }
+
+    /**
+     * 计算退避时间
+     *
+     * @param failureCount 连续失败次数
+     * @return 退避时间(毫秒)
+     */
+    long backoffMs(int failureCount) {
+        if (retryBackoffMs <= 0L) return 0L;
+        int shift = Math.min(failureCount - 1, 30);
+        long backoffMs = retryBackoffMs << shift;
+        return backoffMs <= 0L || backoffMs > maxRetryBackoffMs ? maxRetryBackoffMs : backoffMs;
+    }
+
+    /**
+     * 获取退避时间已到的暂停分区，返回分区不再视为暂停
+     *
+     * @param currentTime 当前时间
+     * @return 可恢复分区
+     */
+    List<TopicPartition> resumablePartitions(long currentTime) {
+        if (resumeTimes.isEmpty()) return Collections.emptyList();
+        List<TopicPartition> partitions = new ArrayList<>();
+        Iterator<Map.Entry<TopicPartition, Long>> iterator = resumeTimes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TopicPartition, Long> entry = iterator.next();
+            if (entry.getValue() > currentTime) continue;
+            partitions.add(entry.getKey());
+            iterator.remove();
+        }
+        return partitions;
+    }
+
+    /**
+     * 是否存在退避暂停分区
+     *
+     * @return 存在返回true，否则返回false
+     */
+    boolean hasPausedPartitions() {
+        return !resumeTimes.isEmpty();
+    }
+
+    /**
+     * 移除分区退避信息，分区撤销时调用
+     *
+     * @param partitions 分区集合
+     */
+    void remove(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            failureCounts.remove(partition);
+            resumeTimes.remove(partition);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package xin.manong.weapon.base.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.List;
+
+/**
+ * kafka数据批量处理接口
+ * 以分区为单位处理单次拉取数据，适用于批量写入等场景
+ * 部分处理失败时，位点提交停止在第一条失败数据，并从失败数据开始重新拉取
+ *
+ * @author frankcl
+ * @date 2026-10-18 02:06:18
+ */
+public interface KafkaBatchRecordProcessor {
+
+    /**
+     * 批量处理分区数据，数据按位点递增排列
+     * 不可恢复的数据应由实现自行处理(如记录日志后跳过)，否则将被反复重新拉取
+     *
+     * @param partition 分区
+     * @param consumerRecords 分区数据
+     * @return 从头开始连续处理成功的数据数量，全部成功返回数据列表大小
+     * @throws Exception 异常，视为全部处理失败
+     */
+    int process(TopicPartition partition, List<ConsumerRecord<byte[], byte[]>> consumerRecords) throws Exception;
+}
@@ -23,9 +23,27 @@ public class KafkaConsumeConfig extends KafkaAuthSupport {
     private final static Logger logger = LoggerFactory.getLogger(KafkaConsumeConfig.class);
 
     private final static Integer DEFAULT_CONSUME_THREAD_NUM = 1;
+    private final static Integer DEFAULT_COMMIT_BATCH_SIZE = 1000;
+    private final static Long DEFAULT_COMMIT_INTERVAL_MS = 1000L;
+    private final static Integer DEFAULT_WORKER_NUM = 0;
+    private final static Integer DEFAULT_MAX_PENDING_RECORDS = 10000;
+    private final static Long DEFAULT_RETRY_BACKOFF_MS = 1000L;
+    private final static Long DEFAULT_MAX_RETRY_BACKOFF_MS = 60000L;
 
     public Integer consumeThreadNum;
     public Long maxFetchWaitTimeMs;
+    /* 位点批量提交数量，处理完成数据达到该数量时提交 */
+    public Integer commitBatchSize;
+    /* 位点提交时间间隔(毫秒)，距上次提交超过该时间时提交 */
+    public Long commitIntervalMs;
+    /* 每个消费线程数据处理线程数，大于0开启流水线模式：拉取与处理解耦，相同key顺序处理，不同key并行处理 */
+    public Integer workerNum;
+    /* 流水线模式下未处理完成数据上限，超过上限暂停拉取，降至一半时恢复 */
+    public Integer maxPendingRecords;
+    /* 批量处理失败后分区暂停重试初始间隔(毫秒)，连续失败时翻倍 */
+    public Long retryBackoffMs;
+    /* 批量处理失败后分区暂停重试最大间隔(毫秒) */
+    public Long maxRetryBackoffMs;
     public String name;
     public String servers;
     public String groupId;
@@ -53,6 +71,14 @@ public class KafkaConsumeConfig extends KafkaAuthSupport {
         }
         if (StringUtils.isEmpty(name)) name = "unknown_consumer";
         if (consumeThreadNum == null || consumeThreadNum <= 0) consumeThreadNum = DEFAULT_CONSUME_THREAD_NUM;
+        if (commitBatchSize == null || commitBatchSize <= 0) commitBatchSize = DEFAULT_COMMIT_BATCH_SIZE;
+        if (commitIntervalMs == null || commitIntervalMs <= 0) commitIntervalMs = DEFAULT_COMMIT_INTERVAL_MS;
+        if (workerNum == null || workerNum < 0) workerNum = DEFAULT_WORKER_NUM;
+        if (maxPendingRecords == null || maxPendingRecords <= 0) maxPendingRecords = DEFAULT_MAX_PENDING_RECORDS;
+        if (retryBackoffMs == null || retryBackoffMs < 0) retryBackoffMs = DEFAULT_RETRY_BACKOFF_MS;
+        if (maxRetryBackoffMs == null || maxRetryBackoffMs < retryBackoffMs) {
+            maxRetryBackoffMs = Math.max(retryBackoffMs, DEFAULT_MAX_RETRY_BACKOFF_MS);
+        }
         topics = new ArrayList<>(new HashSet<>(topics));
         return true;
     }
@@ -1,11 +1,18 @@
 package xin.manong.weapon.base.kafka;
 
+import lombok.Getter;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * kafka消费组
+ * 启动consumeThreadNum个消费线程，并行度受分区数限制
+ * 配置workerNum开启流水线模式，单个消费线程按key并行处理，并行度不再受分区数限制
+ * 支持获取各消费线程指标快照及消费堆积总量，设置指标输出接口输出指标
  *
  * @author frankcl
  * @date 2023-01-05 16:16:24
@@ -16,8 +23,13 @@ public class KafkaConsumeGroup {
 
     protected final KafkaConsumeConfig config;
     private KafkaConsumer[] consumers;
+    @Getter
     @Setter
     private KafkaRecordProcessor processor;
+    @Getter
+    @Setter
+    private KafkaBatchRecordProcessor batchProcessor;
+    private KafkaMetricsSink metricsSink;
 
     public KafkaConsumeGroup(KafkaConsumeConfig config) {
         this.config = config;
@@ -28,6 +40,23 @@ public class KafkaConsumeGroup {
         this.processor = processor;
     }
 
+    public KafkaConsumeGroup(KafkaConsumeConfig config, KafkaBatchRecordProcessor batchProcessor) {
+        this(config);
+        this.batchProcessor = batchProcessor;
+    }
+
+    /**
+     * 设置指标输出接口，消费组已启动时同时应用到运行中消费线程
+     *
+     * @param metricsSink 指标输出接口，为null不输出
+     */
+    public void setMetricsSink(KafkaMetricsSink metricsSink) {
+        this.metricsSink = metricsSink;
+        for (int i = 0; consumers != null && i < consumers.length; i++) {
+            if (consumers[i] != null) consumers[i].setMetricsSink(metricsSink);
+        }
+    }
+
     /**
      * 启动kafka消费组
      *
@@ -39,14 +68,20 @@ public class KafkaConsumeGroup {
             logger.error("Kafka consume config is invalid");
             return false;
         }
-        if (processor == null) {
+        if (processor == null && batchProcessor == null) {
             logger.error("Kafka record processor is null");
             return false;
         }
+        if (processor != null && batchProcessor != null) {
+            logger.error("Kafka record processor and batch record processor are both set");
+            return false;
+        }
         consumers = new KafkaConsumer[config.consumeThreadNum];
         for (int i = 0; i < config.consumeThreadNum; i++) {
             String name = String.format("%s_%d", config.name, i);
-            consumers[i] = new KafkaConsumer(name, config, processor);
+            consumers[i] = batchProcessor != null ? new KafkaConsumer(name, config, batchProcessor) :
+                    new KafkaConsumer(name, config, processor);
+            consumers[i].setMetricsSink(metricsSink);
             if (!consumers[i].start()) {
                 logger.error("Start kafka consumer:{} failed", name);
                 return false;
@@ -66,4 +101,30 @@ public class KafkaConsumeGroup {
         }
         logger.info("Kafka consume group:{} has been stopped", config.name);
     }
+
+    /**
+     * 获取各消费线程指标快照
+     *
+     * @return 指标快照列表，未启动返回空列表
+     */
+    public List<KafkaMetricsSnapshot> snapshotMetrics() {
+        List<KafkaMetricsSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; consumers != null && i < consumers.length; i++) {
+            if (consumers[i] != null) snapshots.add(consumers[i].snapshotMetrics());
+        }
+        return snapshots;
+    }
+
+    /**
+     * 获取消费堆积总量，堆积按固定时间间隔更新
+     *
+     * @return 消费堆积总量
+     */
+    public long getConsumeLag() {
+        long lag = 0L;
+        for (int i = 0; consumers != null && i < consumers.length; i++) {
+            if (consumers[i] != null) lag += consumers[i].getConsumeLag();
+        }
+        return lag;
+    }
 }
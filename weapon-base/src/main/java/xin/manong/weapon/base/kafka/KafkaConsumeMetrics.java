@@ -0,0 +1,291 @@
+package xin.manong.weapon.base.kafka;
+
+import lombok.Setter;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * kafka消费线程指标统计
+ * 1. 按分区统计消费数量、字节数、处理失败数量、处理耗时分布及消费堆积
+ * 2. 统计位点提交次数、失败次数及耗时分布
+ * 3. 统计同时输出到指标输出接口，输出接口为null时只在本地统计
+ * 4. 线程安全，消费线程及处理线程可并发更新
+ *
+ * @author frankcl
+ * @date 2026-10-18 02:09:08
+ */
+class KafkaConsumeMetrics {
+
+    private final String name;
+    private final String group;
+    private final Map<String, String> commitTags;
+    private final Map<TopicPartition, PartitionMetrics> partitionMetricsMap;
+    private final LongAdder commitCount;
+    private final LongAdder commitFailureCount;
+    private final LatencyHistogram commitLatency;
+    @Setter
+    private volatile KafkaMetricsSink sink;
+
+    KafkaConsumeMetrics(String name, String group) {
+        this.name = name;
+        this.group = group;
+        this.commitTags = Map.of(KafkaMetricsSink.TAG_GROUP, String.valueOf(group),
+                KafkaMetricsSink.TAG_CONSUMER, String.valueOf(name));
+        this.partitionMetricsMap = new ConcurrentHashMap<>();
+        this.commitCount = new LongAdder();
+        this.commitFailureCount = new LongAdder();
+        this.commitLatency = new LatencyHistogram();
+    }
+
+    /**
+     * 记录数据处理
+     *
+     * @param partition 分区
+     * @param recordNum 数据数量
+     * @param byteNum 数据字节数
+     * @param failureNum 处理失败数据数量
+     * @param latencyNanos 处理耗时(纳秒)
+     */
+    void recordProcess(TopicPartition partition, int recordNum, long byteNum,
+                       int failureNum, long latencyNanos) {
+        PartitionMetrics partitionMetrics = partitionMetricsMap.computeIfAbsent(
+                partition, p -> new PartitionMetrics(p, group));
+        partitionMetrics.recordCount.add(recordNum);
+        partitionMetrics.byteCount.add(byteNum);
+        if (failureNum > 0) partitionMetrics.failureCount.add(failureNum);
+        partitionMetrics.processLatency.record(latencyNanos);
+        KafkaMetricsSink metricsSink = sink;
+        if (metricsSink == null) return;
+        metricsSink.count(KafkaMetricsSink.RECORDS, partitionMetrics.tags, recordNum);
+        metricsSink.count(KafkaMetricsSink.BYTES, partitionMetrics.tags, byteNum);
+        if (failureNum > 0) metricsSink.count(KafkaMetricsSink.PROCESS_FAILURES, partitionMetrics.tags, failureNum);
+        metricsSink.recordLatency(KafkaMetricsSink.PROCESS_LATENCY, partitionMetrics.tags, latencyNanos);
+    }
+
+    /**
+     * 记录位点提交
+     *
+     * @param success 提交成功
+     * @param latencyNanos 提交耗时(纳秒)
+     */
+    void recordCommit(boolean success, long latencyNanos) {
+        commitCount.increment();
+        if (!success) commitFailureCount.increment();
+        commitLatency.record(latencyNanos);
+        KafkaMetricsSink metricsSink = sink;
+        if (metricsSink == null) return;
+        if (!success) metricsSink.count(KafkaMetricsSink.COMMIT_FAILURES, commitTags, 1L);
+        metricsSink.recordLatency(KafkaMetricsSink.COMMIT_LATENCY, commitTags, latencyNanos);
+    }
+
+    /**
+     * 更新分区消费堆积
+     *
+     * @param partition 分区
+     * @param lag 消费堆积数量
+     */
+    void updateLag(TopicPartition partition, long lag) {
+        PartitionMetrics partitionMetrics = partitionMetricsMap.computeIfAbsent(
+                partition, p -> new PartitionMetrics(p, group));
+        partitionMetrics.lag = lag;
+        KafkaMetricsSink metricsSink = sink;
+        if (metricsSink != null) metricsSink.gauge(KafkaMetricsSink.LAG, partitionMetrics.tags, lag);
+    }
+
+    /**
+     * 移除分区指标，分区撤销时调用
+     *
+     * @param partitions 分区集合
+     */
+    void remove(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) partitionMetricsMap.remove(partition);
+    }
+
+    /**
+     * 只保留指定分区指标，清理分区撤销后迟到的处理记录
+     *
+     * @param partitions 分区集合
+     */
+    void retain(Collection<TopicPartition> partitions) {
+        partitionMetricsMap.keySet().retainAll(partitions);
+    }
+
+    /**
+     * 计算所有分区消费堆积总量，忽略堆积未知分区
+     * 直接读取分区堆积，不影响快照速率计算
+     *
+     * @return 消费堆积总量
+     */
+    long lag() {
+        long lag = 0L;
+        for (PartitionMetrics partitionMetrics : partitionMetricsMap.values()) {
+            long partitionLag = partitionMetrics.lag;
+            if (partitionLag > 0) lag += partitionLag;
+        }
+        return lag;
+    }
+
+    /**
+     * 计算数据字节数：key及value字节数之和
+     *
+     * @param consumerRecord 数据
+     * @return 数据字节数
+     */
+    static long recordSize(ConsumerRecord<byte[], byte[]> consumerRecord) {
+        long size = 0L;
+        if (consumerRecord.key() != null) size += consumerRecord.key().length;
+        if (consumerRecord.value() != null) size += consumerRecord.value().length;
+        return size;
+    }
+
+    /**
+     * 生成指标快照
+     *
+     * @return 指标快照
+     */
+    synchronized KafkaMetricsSnapshot snapshot() {
+        long currentTime = System.currentTimeMillis();
+        KafkaMetricsSnapshot snapshot = new KafkaMetricsSnapshot();
+        snapshot.name = name;
+        snapshot.timestamp = currentTime;
+        snapshot.commitCount = commitCount.sum();
+        snapshot.commitFailureCount = commitFailureCount.sum();
+        snapshot.commitLatencyP99Ms = commitLatency.percentileMs(0.99d);
+        snapshot.commitLatencyMaxMs = commitLatency.maxMs();
+        for (PartitionMetrics partitionMetrics : partitionMetricsMap.values()) {
+            snapshot.partitions.add(partitionMetrics.snapshot(currentTime));
+        }
+        return snapshot;
+    }
+
+    /**
+     * 分区指标
+     */
+    private static class PartitionMetrics {
+
+        private final TopicPartition partition;
+        private final Map<String, String> tags;
+        private final LongAdder recordCount;
+        private final LongAdder byteCount;
+        private final LongAdder failureCount;
+        private final LatencyHistogram processLatency;
+        private volatile long lag;
+        /* 上次快照时间及计数，用于计算速率 */
+        private long lastSnapshotTime;
+        private long lastRecordCount;
+        private long lastByteCount;
+
+        PartitionMetrics(TopicPartition partition, String group) {
+            this.partition = partition;
+            Map<String, String> partitionTags = new HashMap<>();
+            partitionTags.put(KafkaMetricsSink.TAG_GROUP, String.valueOf(group));
+            partitionTags.put(KafkaMetricsSink.TAG_TOPIC, partition.topic());
+            partitionTags.put(KafkaMetricsSink.TAG_PARTITION, String.valueOf(partition.partition()));
+            this.tags = Map.copyOf(partitionTags);
+            this.recordCount = new LongAdder();
+            this.byteCount = new LongAdder();
+            this.failureCount = new LongAdder();
+            this.processLatency = new LatencyHistogram();
+            this.lag = -1L;
+            this.lastSnapshotTime = System.currentTimeMillis();
+        }
+
+        /**
+         * 生成分区指标快照，调用方保证串行
+         *
+         * @param currentTime 当前时间
+         * @return 分区指标快照
+         */
+        KafkaMetricsSnapshot.Partition snapshot(long currentTime) {
+            KafkaMetricsSnapshot.Partition snapshot = new KafkaMetricsSnapshot.Partition();
+            snapshot.topic = partition.topic();
+            snapshot.partition = partition.partition();
+            snapshot.recordCount = recordCount.sum();
+            snapshot.byteCount = byteCount.sum();
+            snapshot.failureCount = failureCount.sum();
+            snapshot.processLatencyP50Ms = processLatency.percentileMs(0.5d);
+            snapshot.processLatencyP99Ms = processLatency.percentileMs(0.99d);
+            snapshot.processLatencyMaxMs = processLatency.maxMs();
+            snapshot.lag = lag;
+            long elapsedMs = currentTime - lastSnapshotTime;
+            if (elapsedMs > 0) {
+                snapshot.recordsPerSecond = (snapshot.recordCount - lastRecordCount) * 1000d / elapsedMs;
+                snapshot.bytesPerSecond = (snapshot.byteCount - lastByteCount) * 1000d / elapsedMs;
+            }
+            lastSnapshotTime = currentTime;
+            lastRecordCount = snapshot.recordCount;
+            lastByteCount = snapshot.byteCount;
+            return snapshot;
+        }
+    }
+
+    /**
+     * 耗时分布统计
+     * 按微秒2的幂次分桶，第i个桶统计[2^(i-1), 2^i)微秒耗时，分位值取所在桶上界
+     */
+    static class LatencyHistogram {
+
+        private static final int BUCKET_NUM = 40;
+
+        private final AtomicLongArray buckets;
+        private final LongAccumulator maxNanos;
+
+        LatencyHistogram() {
+            buckets = new AtomicLongArray(BUCKET_NUM);
+            maxNanos = new LongAccumulator(Math::max, 0L);
+        }
+
+        /**
+         * 记录耗时
+         *
+         * @param latencyNanos 耗时(纳秒)
+         */
+        void record(long latencyNanos) {
+            if (latencyNanos < 0L) latencyNanos = 0L;
+            long micros = latencyNanos / 1000L;
+            int bucket = Math.min(BUCKET_NUM - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            maxNanos.accumulate(latencyNanos);
+        }
+
+        /**
+         * 计算分位值
+         *
+         * @param quantile 分位[0, 1]
+         * @return 分位耗时(毫秒)，无数据返回0
+         */
+        double percentileMs(double quantile) {
+            long[] counts = new long[BUCKET_NUM];
+            long total = 0L;
+            for (int i = 0; i < BUCKET_NUM; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0L) return 0d;
+            long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+            long count = 0L;
+            for (int i = 0; i < BUCKET_NUM; i++) {
+                count += counts[i];
+                if (count >= rank) return Math.min((1L << i) / 1000d, maxMs());
+            }
+            return maxMs();
+        }
+
+        /**
+         * 获取最大耗时
+         *
+         * @return 最大耗时(毫秒)
+         */
+        double maxMs() {
+            return maxNanos.get() / 1000000d;
+        }
+    }
+}
@@ -2,17 +2,22 @@ package xin.manong.weapon.base.kafka;
 
 import org.apache.kafka.clients.consumer.*;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.Properties;
+import java.util.*;
 
 /**
  * kafka消费线程
+ * 按分区跟踪最长连续处理完成位点，根据数量或时间间隔批量异步提交
+ * 分区撤销及消费线程停止时同步提交，保证至少一次消费语义
+ * 配置workerNum大于0时开启流水线模式：拉取线程只负责拉取和提交，数据分发至处理线程池按key并行处理，
+ * 未处理完成数据超过maxPendingRecords时暂停分区拉取，降至一半时恢复
+ * 使用批量处理器时按分区批量处理，部分失败时回退到第一条失败数据并暂停分区，按指数退避恢复后重新拉取，
+ * 批量模式不使用处理线程池
+ * 统计分区消费速率、处理耗时、位点提交及消费堆积指标，支持快照及输出到指标输出接口
  *
  * @author frankcl
  * @date 2023-01-05 16:16:07
@@ -21,21 +26,75 @@ public class KafkaConsumer implements Runnable {
 
     private final static Logger logger = LoggerFactory.getLogger(KafkaConsumer.class);
 
+    private final static long POLL_TIMEOUT_MS = 3000L;
+    private final static long PAUSED_POLL_TIMEOUT_MS = 100L;
+    private final static long REVOKE_WAIT_TIME_MS = 5000L;
+    private final static long LAG_UPDATE_INTERVAL_MS = 10000L;
+
     private volatile boolean running;
+    private boolean paused;
+    private long lastLagUpdateTime;
     private final String name;
     private org.apache.kafka.clients.consumer.KafkaConsumer<byte[], byte[]> consumer;
     private final KafkaRecordProcessor processor;
+    private final KafkaBatchRecordProcessor batchProcessor;
     private final KafkaConsumeConfig config;
+    private final KafkaOffsetTracker offsetTracker;
+    private final KafkaConsumeMetrics metrics;
+    private KafkaRecordDispatcher dispatcher;
+    private KafkaBatchExecutor batchExecutor;
     private Thread consumeThread;
 
     public KafkaConsumer(String name, KafkaConsumeConfig config,
                          KafkaRecordProcessor processor) {
+        this(name, config, processor, null);
+    }
+
+    public KafkaConsumer(String name, KafkaConsumeConfig config,
+                         KafkaBatchRecordProcessor batchProcessor) {
+        this(name, config, null, batchProcessor);
+    }
+
+    private KafkaConsumer(String name, KafkaConsumeConfig config,
+                          KafkaRecordProcessor processor,
+                          KafkaBatchRecordProcessor batchProcessor) {
         this.name = name;
         this.config = config;
         this.processor = processor;
+        this.batchProcessor = batchProcessor;
+        this.offsetTracker = new KafkaOffsetTracker();
+        this.metrics = new KafkaConsumeMetrics(name, config.groupId);
         this.running = false;
     }
 
+    /**
+     * 设置指标输出接口
+     *
+     * @param metricsSink 指标输出接口，为null不输出
+     */
+    public void setMetricsSink(KafkaMetricsSink metricsSink) {
+        metrics.setSink(metricsSink);
+    }
+
+    /**
+     * 获取指标快照
+     *
+     * @return 指标快照
+     */
+    public KafkaMetricsSnapshot snapshotMetrics() {
+        return metrics.snapshot();
+    }
+
+    /**
+     * 获取消费堆积总量，堆积按固定时间间隔更新
+     * 不生成指标快照，不影响快照速率计算
+     *
+     * @return 消费堆积总量
+     */
+    public long getConsumeLag() {
+        return metrics.lag();
+    }
+
     /**
      * 启动kafka消费线程
      *
@@ -60,6 +119,16 @@ public class KafkaConsumer implements Runnable {
             properties.put(KafkaAuthConfig.SASL_JAAS_CONFIG, config.authConfig.saslJaasConfig);
         }
         consumer = new org.apache.kafka.clients.consumer.KafkaConsumer<>(properties);
+        if (batchProcessor != null) {
+            if (config.workerNum != null && config.workerNum > 0) {
+                logger.warn("Worker num:{} is ignored for batch record processor", config.workerNum);
+            }
+            batchExecutor = new KafkaBatchExecutor(batchProcessor, offsetTracker, metrics,
+                    config.retryBackoffMs, config.maxRetryBackoffMs);
+        } else if (config.workerNum != null && config.workerNum > 0) {
+            dispatcher = new KafkaRecordDispatcher(name, config.workerNum, processor, offsetTracker, metrics);
+            dispatcher.start();
+        }
         running = true;
         consumeThread = new Thread(this, name);
         consumeThread.start();
@@ -73,7 +142,7 @@ public class KafkaConsumer implements Runnable {
     public void stop() {
         logger.info("Kafka consumer:{} is stopping ...", name);
         running = false;
-        if (consumeThread != null && consumeThread.isAlive()) consumeThread.interrupt();
+        if (consumer != null) consumer.wakeup();
         try {
             if (consumeThread != null) consumeThread.join();
         } catch (InterruptedException e) {
@@ -85,29 +154,216 @@ public class KafkaConsumer implements Runnable {
 
     @Override
     public void run() {
-        consumer.subscribe(config.topics);
-        while (running) {
-            try {
-                ConsumerRecords<byte[], byte[]> records = consumer.poll(Duration.ofSeconds(3));
-                if (records == null || records.isEmpty()) continue;
-                for (TopicPartition partition : records.partitions()) {
-                    List<ConsumerRecord<byte[], byte[]>> partitionRecords = records.records(partition);
-                    for (ConsumerRecord<byte[], byte[]> partitionRecord : partitionRecords) {
-                        processor.process(partitionRecord);
-                        Map<TopicPartition, OffsetAndMetadata> offsets = Collections.singletonMap(
-                                partition, new OffsetAndMetadata(partitionRecord.offset() + 1));
-                        consumer.commitAsync(offsets, (partitionOffsetMap, exception) -> {
-                            if (exception == null) return;
-                            partitionOffsetMap.forEach((p, offsetMeta) -> logger.warn(
-                                    "Commit failed for topic:{}, partition:{} and offset:{}",
-                                    p.topic(), p.partition(), offsetMeta.offset()));
-                        });
+        consumer.subscribe(config.topics, new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                if (dispatcher != null) awaitPending(partitions);
+                if (dispatcher != null && offsetTracker.pendingCount(partitions) > 0) {
+                    int count = dispatcher.discard(partitions);
+                    logger.warn("Discard {} pending records of revoked partitions for kafka consumer:{}", count, name);
+                }
+                commitSync(offsetTracker.commitOffsets(partitions));
+                offsetTracker.remove(partitions);
+                metrics.remove(partitions);
+                if (batchExecutor != null) batchExecutor.remove(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                if (paused) consumer.pause(partitions);
+            }
+        });
+        try {
+            while (running) {
+                try {
+                    if (batchExecutor != null) resumeBatch();
+                    boolean shortPoll = paused || (batchExecutor != null && batchExecutor.hasPausedPartitions());
+                    ConsumerRecords<byte[], byte[]> records = consumer.poll(Duration.ofMillis(
+                            shortPoll ? PAUSED_POLL_TIMEOUT_MS : POLL_TIMEOUT_MS));
+                    if (records != null && !records.isEmpty()) {
+                        if (batchExecutor != null) processBatch(records);
+                        else if (dispatcher != null) dispatch(records);
+                        else process(records);
                     }
+                    if (dispatcher != null) applyBackpressure();
+                    updateLag();
+                    if (offsetTracker.shouldCommit(config.commitBatchSize, config.commitIntervalMs)) commitAsync();
+                } catch (WakeupException e) {
+                    if (running) logger.warn("Kafka consumer:{} is woken up unexpectedly", name);
+                } catch (Throwable e) {
+                    logger.error("Process kafka message failed");
+                    logger.error(e.getMessage(), e);
+                }
+            }
+        } finally {
+            if (dispatcher != null) dispatcher.stop();
+            commitSync(offsetTracker.commitOffsets());
+        }
+    }
+
+    /**
+     * 处理拉取数据，单条数据处理失败不影响后续数据
+     *
+     * @param records 拉取数据
+     */
+    private void process(ConsumerRecords<byte[], byte[]> records) {
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<byte[], byte[]>> partitionRecords = records.records(partition);
+            for (ConsumerRecord<byte[], byte[]> partitionRecord : partitionRecords) {
+                offsetTracker.fetch(partition, partitionRecord.offset());
+                long startTime = System.nanoTime();
+                boolean success = false;
+                try {
+                    processor.process(partitionRecord);
+                    success = true;
+                } catch (Throwable e) {
+                    logger.error("Process kafka message failed for topic:{}, partition:{} and offset:{}",
+                            partition.topic(), partition.partition(), partitionRecord.offset());
+                    logger.error(e.getMessage(), e);
+                } finally {
+                    offsetTracker.complete(partition, partitionRecord.offset());
+                    metrics.recordProcess(partition, 1, KafkaConsumeMetrics.recordSize(partitionRecord),
+                            success ? 0 : 1, System.nanoTime() - startTime);
                 }
-            } catch (Throwable e) {
-                logger.error("Process kafka message failed");
-                logger.error(e.getMessage(), e);
             }
         }
     }
+
+    /**
+     * 按分区批量处理拉取数据
+     * 连续处理成功数据标记完成，部分失败时回退到第一条失败数据并暂停分区，退避时间到后恢复重新拉取
+     *
+     * @param records 拉取数据
+     */
+    private void processBatch(ConsumerRecords<byte[], byte[]> records) {
+        for (TopicPartition partition : records.partitions()) {
+            long failedOffset = batchExecutor.execute(partition, records.records(partition));
+            if (failedOffset < 0L) continue;
+            consumer.seek(partition, failedOffset);
+            consumer.pause(Collections.singletonList(partition));
+        }
+    }
+
+    /**
+     * 恢复批量处理失败退避时间已到的分区，忽略已撤销分区
+     */
+    private void resumeBatch() {
+        List<TopicPartition> partitions = batchExecutor.resumablePartitions(System.currentTimeMillis());
+        if (partitions.isEmpty()) return;
+        Set<TopicPartition> assignment = consumer.assignment();
+        partitions.removeIf(partition -> !assignment.contains(partition));
+        if (!partitions.isEmpty()) consumer.resume(partitions);
+    }
+
+    /**
+     * 流水线模式分发拉取数据
+     *
+     * @param records 拉取数据
+     */
+    private void dispatch(ConsumerRecords<byte[], byte[]> records) {
+        for (TopicPartition partition : records.partitions()) dispatcher.dispatch(partition, records.records(partition));
+    }
+
+    /**
+     * 流水线模式背压控制
+     * 未处理完成数据达到上限暂停所有分配分区拉取，降至上限一半时恢复
+     * 暂停期间继续poll维持心跳，避免触发重平衡
+     */
+    private void applyBackpressure() {
+        int pendingCount = offsetTracker.pendingCount();
+        if (!paused && pendingCount >= config.maxPendingRecords) {
+            consumer.pause(consumer.assignment());
+            paused = true;
+            logger.debug("Kafka consumer:{} is paused for {} pending records", name, pendingCount);
+        } else if (paused && pendingCount <= config.maxPendingRecords / 2) {
+            consumer.resume(consumer.paused());
+            paused = false;
+            logger.debug("Kafka consumer:{} is resumed for {} pending records", name, pendingCount);
+        }
+    }
+
+    /**
+     * 分区撤销前等待已分发数据处理完成，减少重复消费，等待时间有上限
+     * 超时后由调用方丢弃队列中未处理数据，避免分区转移后继续处理且背压计数失真
+     *
+     * @param partitions 撤销分区
+     */
+    private void awaitPending(Collection<TopicPartition> partitions) {
+        long deadline = System.currentTimeMillis() + REVOKE_WAIT_TIME_MS;
+        try {
+            while (offsetTracker.pendingCount(partitions) > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 定期更新分区消费堆积：客户端本地记录的分区堆积，加上已拉取未处理完成数量
+     * 本地堆积根据拉取响应中分区最新位点计算，不请求broker，避免阻塞拉取线程
+     * 尚未拉取过数据的分区堆积未知，跳过更新
+     */
+    private void updateLag() {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lastLagUpdateTime < LAG_UPDATE_INTERVAL_MS) return;
+        lastLagUpdateTime = currentTime;
+        Set<TopicPartition> partitions = consumer.assignment();
+        metrics.retain(partitions);
+        for (TopicPartition partition : partitions) {
+            try {
+                OptionalLong currentLag = consumer.currentLag(partition);
+                if (currentLag.isEmpty()) continue;
+                long lag = currentLag.getAsLong() + offsetTracker.pendingCount(Collections.singletonList(partition));
+                metrics.updateLag(partition, Math.max(0L, lag));
+            } catch (Exception e) {
+                logger.warn("Update consume lag failed for topic:{} and partition:{}",
+                        partition.topic(), partition.partition());
+                logger.warn(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 异步提交位点
+     */
+    private void commitAsync() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.commitOffsets();
+        if (offsets.isEmpty()) return;
+        long startTime = System.nanoTime();
+        consumer.commitAsync(offsets, (partitionOffsetMap, exception) -> {
+            offsetTracker.completeCommit(offsets, exception == null);
+            metrics.recordCommit(exception == null, System.nanoTime() - startTime);
+            if (exception == null) return;
+            partitionOffsetMap.forEach((p, offsetMeta) -> logger.warn(
+                    "Commit failed for topic:{}, partition:{} and offset:{}",
+                    p.topic(), p.partition(), offsetMeta.offset()));
+        });
+    }
+
+    /**
+     * 同步提交位点
+     * 停止时未消耗的wakeup信号会使提交抛出WakeupException，此时重试一次
+     *
+     * @param offsets 位点
+     */
+    private void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        if (offsets.isEmpty()) return;
+        long startTime = System.nanoTime();
+        boolean success = false;
+        try {
+            try {
+                consumer.commitSync(offsets);
+            } catch (WakeupException e) {
+                consumer.commitSync(offsets);
+            }
+            success = true;
+        } catch (Exception e) {
+            logger.error("Commit offsets failed for kafka consumer:{}", name);
+            logger.error(e.getMessage(), e);
+        } finally {
+            offsetTracker.completeCommit(offsets, success);
+            metrics.recordCommit(success, System.nanoTime() - startTime);
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package xin.manong.weapon.base.kafka;
+
+import java.util.Map;
+
+/**
+ * kafka消费指标输出接口
+ * 指标以名称加标签形式输出，可直接映射到Micrometer：
+ * count对应Counter.increment，recordLatency对应Timer.record，gauge对应Gauge(实现方保存最新值)
+ * 实现需线程安全，消费线程及处理线程均会调用，且不应执行耗时操作
+ *
+ * @author frankcl
+ * @date 2026-10-18 02:08:13
+ */
+public interface KafkaMetricsSink {
+
+    /* 消费数据数量，标签：group, topic, partition */
+    String RECORDS = "kafka.consumer.records";
+    /* 消费数据字节数，标签：group, topic, partition */
+    String BYTES = "kafka.consumer.bytes";
+    /* 处理失败数据数量，标签：group, topic, partition */
+    String PROCESS_FAILURES = "kafka.consumer.process.failures";
+    /* 处理耗时，批量处理时为单批耗时，标签：group, topic, partition */
+    String PROCESS_LATENCY = "kafka.consumer.process.latency";
+    /* 位点提交耗时，标签：group, consumer */
+    String COMMIT_LATENCY = "kafka.consumer.commit.latency";
+    /* 位点提交失败次数，标签：group, consumer */
+    String COMMIT_FAILURES = "kafka.consumer.commit.failures";
+    /* 消费堆积数量，标签：group, topic, partition */
+    String LAG = "kafka.consumer.lag";
+
+    String TAG_GROUP = "group";
+    String TAG_CONSUMER = "consumer";
+    String TAG_TOPIC = "topic";
+    String TAG_PARTITION = "partition";
+
+    /**
+     * 累加计数
+     *
+     * @param name 指标名称
+     * @param tags 指标标签
+     * @param amount 累加值
+     */
+    void count(String name, Map<String, String> tags, long amount);
+
+    /**
+     * 记录耗时
+     *
+     * @param name 指标名称
+     * @param tags 指标标签
+     * @param latencyNanos 耗时(纳秒)
+     */
+    void recordLatency(String name, Map<String, String> tags, long latencyNanos);
+
+    /**
+     * 更新瞬时值
+     *
+     * @param name 指标名称
+     * @param tags 指标标签
+     * @param value 瞬时值
+     */
+    void gauge(String name, Map<String, String> tags, double value);
+}
@@ -0,0 +1,73 @@
+package xin.manong.weapon.base.kafka;
+
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * kafka消费线程指标快照
+ * 计数及耗时分布为累计值，速率为距上次快照时间窗口内速率
+ *
+ * @author frankcl
+ * @date 2026-10-18 02:08:41
+ */
+@ToString
+public class KafkaMetricsSnapshot {
+
+    /* 消费线程名称 */
+    public String name;
+    /* 快照时间戳 */
+    public long timestamp;
+    /* 位点提交次数 */
+    public long commitCount;
+    /* 位点提交失败次数 */
+    public long commitFailureCount;
+    /* 位点提交耗时P99(毫秒) */
+    public double commitLatencyP99Ms;
+    /* 位点提交最大耗时(毫秒) */
+    public double commitLatencyMaxMs;
+    /* 当前分配分区指标 */
+    public List<Partition> partitions = new ArrayList<>();
+
+    /**
+     * 计算所有分区消费堆积总量，忽略堆积未知分区
+     *
+     * @return 消费堆积总量
+     */
+    public long totalLag() {
+        long lag = 0L;
+        for (Partition partition : partitions) {
+            if (partition.lag > 0) lag += partition.lag;
+        }
+        return lag;
+    }
+
+    /**
+     * 分区指标快照
+     */
+    @ToString
+    public static class Partition {
+
+        public String topic;
+        public int partition;
+        /* 消费数据数量 */
+        public long recordCount;
+        /* 消费数据字节数 */
+        public long byteCount;
+        /* 处理失败数据数量 */
+        public long failureCount;
+        /* 每秒消费数据数量 */
+        public double recordsPerSecond;
+        /* 每秒消费数据字节数 */
+        public double bytesPerSecond;
+        /* 处理耗时P50(毫秒) */
+        public double processLatencyP50Ms;
+        /* 处理耗时P99(毫秒) */
+        public double processLatencyP99Ms;
+        /* 处理最大耗时(毫秒) */
+        public double processLatencyMaxMs;
+        /* 消费堆积数量：分区最新位点减去消费位点，加上已拉取未处理完成数量，未知为-1 */
+        public long lag = -1L;
+    }
+}
@@ -0,0 +1,238 @@
+package xin.manong.weapon.base.kafka;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.*;
+
+/**
+ * kafka消费位点跟踪器
+ * 1. 按分区记录拉取数据位点顺序，数据处理完成后标记
+ * 2. 分区可提交位点为最长连续处理完成前缀最后位点+1，保证至少一次消费语义
+ * 3. 根据数量或时间间隔判断是否批量提交，避免逐条提交
+ * 4. 已提交位点只在提交成功确认后推进，提交失败时重新触发提交，分区撤销及停止时可补提交
+ * 5. 线程安全，支持处理线程并发标记完成
+ *
+ * @author frankcl
+ * @date 2026-10-18 02:02:48
+ */
+public class KafkaOffsetTracker {
+
+    private final Map<TopicPartition, PartitionOffsets> partitionOffsetsMap;
+    /* 上次提交后新增可提交数据数量 */
+    private int uncommittedCount;
+    /* 上次提交时间 */
+    private long lastCommitTime;
+
+    public KafkaOffsetTracker() {
+        partitionOffsetsMap = new HashMap<>();
+        lastCommitTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 记录拉取数据位点，同一分区位点必须递增
+     *
+     * @param partition 分区
+     * @param offset 位点
+     */
+    public synchronized void fetch(TopicPartition partition, long offset) {
+        partitionOffsetsMap.computeIfAbsent(partition, p -> new PartitionOffsets()).add(offset);
+    }
+
+    /**
+     * 标记数据处理完成
+     *
+     * @param partition 分区
+     * @param offset 位点
+     * @return 标记成功返回true，位点不存在(如分区已撤销)返回false
+     */
+    public synchronized boolean complete(TopicPartition partition, long offset) {
+        PartitionOffsets partitionOffsets = partitionOffsetsMap.get(partition);
+        if (partitionOffsets == null) return false;
+        int count = partitionOffsets.complete(offset);
+        if (count < 0) return false;
+        uncommittedCount += count;
+        return true;
+    }
+
+    /**
+     * 判断是否需要提交：新增可提交数据达到批量大小，或距上次提交超过时间间隔
+     *
+     * @param batchSize 批量大小
+     * @param intervalMs 时间间隔(毫秒)
+     * @return 需要提交返回true，否则返回false
+     */
+    public synchronized boolean shouldCommit(int batchSize, long intervalMs) {
+        if (uncommittedCount <= 0) return false;
+        return uncommittedCount >= batchSize || System.currentTimeMillis() - lastCommitTime >= intervalMs;
+    }
+
+    /**
+     * 获取所有分区待提交位点，重置提交触发条件
+     * 提交结果需通过completeCommit确认，确认成功前位点仍视为待提交
+     *
+     * @return 待提交位点，无待提交位点返回空
+     */
+    public synchronized Map<TopicPartition, OffsetAndMetadata> commitOffsets() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = collectOffsets(partitionOffsetsMap.keySet());
+        uncommittedCount = 0;
+        lastCommitTime = System.currentTimeMillis();
+        return offsets;
+    }
+
+    /**
+     * 获取指定分区待提交位点，用于分区撤销及停止时同步提交
+     *
+     * @param partitions 分区集合
+     * @return 待提交位点，无待提交位点返回空
+     */
+    public synchronized Map<TopicPartition, OffsetAndMetadata> commitOffsets(Collection<TopicPartition> partitions) {
+        return collectOffsets(partitions);
+    }
+
+    /**
+     * 确认位点提交结果
+     * 提交成功推进已提交位点；提交失败重新触发提交，保证空闲分区也能在时间间隔后重试
+     *
+     * @param offsets 提交位点
+     * @param success 提交成功返回true，否则返回false
+     */
+    public synchronized void completeCommit(Map<TopicPartition, OffsetAndMetadata> offsets, boolean success) {
+        if (!success) {
+            if (!offsets.isEmpty() && uncommittedCount <= 0) uncommittedCount = 1;
+            return;
+        }
+        for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : offsets.entrySet()) {
+            PartitionOffsets partitionOffsets = partitionOffsetsMap.get(entry.getKey());
+            if (partitionOffsets == null) continue;
+            partitionOffsets.committedOffset = Math.max(partitionOffsets.committedOffset, entry.getValue().offset());
+        }
+    }
+
+    /**
+     * 移除分区跟踪信息，分区撤销时调用
+     *
+     * @param partitions 分区集合
+     */
+    public synchronized void remove(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) partitionOffsetsMap.remove(partition);
+        if (partitionOffsetsMap.isEmpty()) uncommittedCount = 0;
+    }
+
+    /**
+     * 获取已拉取未处理完成数据数量
+     *
+     * @return 未处理完成数据数量
+     */
+    public synchronized int pendingCount() {
+        int count = 0;
+        for (PartitionOffsets partitionOffsets : partitionOffsetsMap.values()) count += partitionOffsets.size;
+        return count;
+    }
+
+    /**
+     * 获取指定分区已拉取未处理完成数据数量
+     *
+     * @param partitions 分区集合
+     * @return 未处理完成数据数量
+     */
+    public synchronized int pendingCount(Collection<TopicPartition> partitions) {
+        int count = 0;
+        for (TopicPartition partition : partitions) {
+            PartitionOffsets partitionOffsets = partitionOffsetsMap.get(partition);
+            if (partitionOffsets != null) count += partitionOffsets.size;
+        }
+        return count;
+    }
+
+    /**
+     * 收集分区待提交位点：可提交位点大于已确认提交位点
+     *
+     * @param partitions 分区集合
+     * @return 待提交位点
+     */
+    private Map<TopicPartition, OffsetAndMetadata> collectOffsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionOffsets partitionOffsets = partitionOffsetsMap.get(partition);
+            if (partitionOffsets == null || partitionOffsets.committableOffset <= partitionOffsets.committedOffset) {
+                continue;
+            }
+            offsets.put(partition, new OffsetAndMetadata(partitionOffsets.committableOffset));
+        }
+        return offsets;
+    }
+
+    /**
+     * 分区位点信息：环形数组按拉取顺序保存未连续完成位点
+     */
+    private static class PartitionOffsets {
+
+        private long[] offsets = new long[16];
+        private boolean[] completes = new boolean[16];
+        private int head;
+        private int size;
+        /* 可提交位点 */
+        private long committableOffset = -1L;
+        /* 已确认提交成功位点 */
+        private long committedOffset = -1L;
+
+        /**
+         * 添加位点
+         *
+         * @param offset 位点
+         */
+        void add(long offset) {
+            if (size > 0 && offset <= offsets[(head + size - 1) & (offsets.length - 1)]) {
+                throw new IllegalArgumentException(String.format("Offset:%d is not increasing", offset));
+            }
+            if (size == offsets.length) grow();
+            int index = (head + size++) & (offsets.length - 1);
+            offsets[index] = offset;
+            completes[index] = false;
+        }
+
+        /**
+         * 标记位点完成，推进连续完成前缀
+         *
+         * @param offset 位点
+         * @return 新增可提交数据数量，位点不存在返回-1
+         */
+        int complete(long offset) {
+            int low = 0, high = size - 1, mask = offsets.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midOffset = offsets[(head + mid) & mask];
+                if (midOffset < offset) low = mid + 1;
+                else if (midOffset > offset) high = mid - 1;
+                else {
+                    completes[(head + mid) & mask] = true;
+                    int count = 0;
+                    while (size > 0 && completes[head]) {
+                        committableOffset = offsets[head] + 1;
+                        head = (head + 1) & mask;
+                        size--;
+                        count++;
+                    }
+                    return count;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 环形数组扩容
+         */
+        private void grow() {
+            long[] newOffsets = new long[offsets.length * 2];
+            boolean[] newCompletes = new boolean[offsets.length * 2];
+            for (int i = 0; i < size; i++) {
+                newOffsets[i] = offsets[(head + i) & (offsets.length - 1)];
+                newCompletes[i] = completes[(head + i) & (offsets.length - 1)];
+            }
+            offsets = newOffsets;
+            completes = newCompletes;
+            head = 0;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Set;
+
 /**
  * kafka消息生产配置
  *
@@ -20,10 +22,20 @@ public class KafkaProduceConfig extends KafkaAuthSupport {
 
     private final static int DEFAULT_RETRY_CNT = 3;
     private final static int DEFAULT_REQUEST_TIMEOUT_MS = 3000;
+    private final static Set<String> COMPRESSION_TYPES = Set.of("none", "gzip", "snappy", "lz4", "zstd");
+    private final static Set<String> ACKS = Set.of("all", "-1", "0", "1");
 
     public int retryCnt = DEFAULT_RETRY_CNT;
     public int requestTimeoutMs = DEFAULT_REQUEST_TIMEOUT_MS;
     public String servers;
+    /* 批量发送字节数上限，为null使用客户端默认值 */
+    public Integer batchSize;
+    /* 批量发送等待时间(毫秒)，为null使用客户端默认值 */
+    public Integer lingerMs;
+    /* 压缩类型：none, gzip, snappy, lz4及zstd，为null使用客户端默认值 */
+    public String compressionType;
+    /* 确认机制：all, -1, 0及1，为null使用客户端默认值 */
+    public String acks;
 
     /**
      * 检测配置有效性
@@ -38,6 +50,22 @@ public class KafkaProduceConfig extends KafkaAuthSupport {
         }
         if (retryCnt <= 0) retryCnt = DEFAULT_RETRY_CNT;
         if (requestTimeoutMs <= 0) requestTimeoutMs = DEFAULT_REQUEST_TIMEOUT_MS;
+        if (batchSize != null && batchSize < 0) {
+            logger.error("Invalid batch size:{}", batchSize);
+            return false;
+        }
+        if (lingerMs != null && lingerMs < 0) {
+            logger.error("Invalid linger ms:{}", lingerMs);
+            return false;
+        }
+        if (compressionType != null && !COMPRESSION_TYPES.contains(compressionType)) {
+            logger.error("Unsupported compression type:{}", compressionType);
+            return false;
+        }
+        if (acks != null && !ACKS.contains(acks)) {
+            logger.error("Unsupported acks:{}", acks);
+            return false;
+        }
         return true;
     }
 }
@@ -1,6 +1,7 @@
 package xin.manong.weapon.base.kafka;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
@@ -10,10 +11,12 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Properties;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * kafka消息生产
+ * 1. 同步发送接口等待broker响应，每条消息一次往返，吞吐受限
+ * 2. 异步发送接口立即返回，由客户端按batch.size及linger.ms批量发送，通过future或回调获取结果
  *
  * @author frankcl
  * @date 2023-01-05 18:05:17
@@ -53,13 +56,17 @@ public class KafkaProducer {
             properties.put(KafkaAuthConfig.SASL_MECHANISM, config.authConfig.saslMechanism);
             properties.put(KafkaAuthConfig.SASL_JAAS_CONFIG, config.authConfig.saslJaasConfig);
         }
+        if (config.batchSize != null) properties.put(ProducerConfig.BATCH_SIZE_CONFIG, String.valueOf(config.batchSize));
+        if (config.lingerMs != null) properties.put(ProducerConfig.LINGER_MS_CONFIG, String.valueOf(config.lingerMs));
+        if (config.compressionType != null) properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, config.compressionType);
+        if (config.acks != null) properties.put(ProducerConfig.ACKS_CONFIG, config.acks);
         producer = new org.apache.kafka.clients.producer.KafkaProducer<>(properties);
         logger.info("Kafka producer init success");
         return true;
     }
 
     /**
-     * 销毁kafka消息生产
+     * 销毁kafka消息生产，关闭前发送缓存中所有消息
      */
     public void destroy() {
         logger.info("Kafka producer is destroying ...");
@@ -68,27 +75,17 @@ public class KafkaProducer {
     }
 
     /**
-     * 发送消息
+     * 同步发送消息
      *
-     * @param key 消息key
+     * @param key 消息key，可为null
      * @param message 消息内容
      * @param topic kafka主题
+     * @param headers 消息头，可为null
      * @return 发送成功返回kafka元信息，否则返回null
      */
     public RecordMetadata send(String key, byte[] message, String topic, RecordHeaders headers) {
-        if (StringUtils.isEmpty(topic)) {
-            logger.error("Send kafka topic is empty");
-            return null;
-        }
-        if (message == null || message.length == 0) {
-            logger.error("Send message is empty, ignore it");
-            return null;
-        }
-        ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(topic, null, null,
-                key.getBytes(StandardCharsets.UTF_8), message, headers);
-        Future<RecordMetadata> future = producer.send(record);
         try {
-            return future.get();
+            return sendAsync(key, message, topic, headers).get();
         } catch (Exception e) {
             logger.error("Get response failed for sending message");
             logger.error(e.getMessage(), e);
@@ -97,9 +94,9 @@ public class KafkaProducer {
     }
 
     /**
-     * 发送消息
+     * 同步发送消息
      *
-     * @param key 消息key
+     * @param key 消息key，可为null
      * @param message 消息内容
      * @param topic 主题
      * @return 发送成功返回kafka元信息，否则返回null
@@ -109,7 +106,7 @@ public class KafkaProducer {
     }
 
     /**
-     * 发送消息
+     * 同步发送消息
      *
      * @param message 消息内容
      * @param topic kafka主题
@@ -118,4 +115,99 @@ public class KafkaProducer {
     public RecordMetadata send(byte[] message, String topic) {
         return send(null, message, topic);
     }
+
+    /**
+     * 异步发送消息
+     *
+     * @param key 消息key，可为null
+     * @param message 消息内容
+     * @param topic kafka主题
+     * @param headers 消息头，可为null
+     * @return 发送结果future，参数非法或发送失败时异常结束
+     */
+    public CompletableFuture<RecordMetadata> sendAsync(String key, byte[] message,
+                                                       String topic, RecordHeaders headers) {
+        CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
+        sendWithCallback(key, message, topic, headers, (recordMetadata, exception) -> {
+            if (exception != null) future.completeExceptionally(exception);
+            else future.complete(recordMetadata);
+        });
+        return future;
+    }
+
+    /**
+     * 异步发送消息
+     *
+     * @param key 消息key，可为null
+     * @param message 消息内容
+     * @param topic kafka主题
+     * @return 发送结果future，参数非法或发送失败时异常结束
+     */
+    public CompletableFuture<RecordMetadata> sendAsync(String key, byte[] message, String topic) {
+        return sendAsync(key, message, topic, null);
+    }
+
+    /**
+     * 异步发送消息
+     *
+     * @param message 消息内容
+     * @param topic kafka主题
+     * @return 发送结果future，参数非法或发送失败时异常结束
+     */
+    public CompletableFuture<RecordMetadata> sendAsync(byte[] message, String topic) {
+        return sendAsync(null, message, topic);
+    }
+
+    /**
+     * 异步发送消息，发送完成后回调
+     * 回调在kafka客户端IO线程执行，不应执行耗时操作
+     * 与sendAsync区分命名，避免headers传null时重载歧义
+     *
+     * @param key 消息key，可为null
+     * @param message 消息内容
+     * @param topic kafka主题
+     * @param headers 消息头，可为null
+     * @param callback 回调，发送成功exception为null，否则recordMetadata为null
+     */
+    public void sendWithCallback(String key, byte[] message, String topic,
+                                 RecordHeaders headers, Callback callback) {
+        if (StringUtils.isEmpty(topic)) {
+            logger.error("Send kafka topic is empty");
+            callback.onCompletion(null, new IllegalArgumentException("Send kafka topic is empty"));
+            return;
+        }
+        if (message == null || message.length == 0) {
+            logger.error("Send message is empty, ignore it");
+            callback.onCompletion(null, new IllegalArgumentException("Send message is empty"));
+            return;
+        }
+        ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(topic, null, null,
+                key == null ? null : key.getBytes(StandardCharsets.UTF_8), message, headers);
+        try {
+            producer.send(record, callback);
+        } catch (Exception e) {
+            logger.error("Send message failed for topic:{}", topic);
+            logger.error(e.getMessage(), e);
+            callback.onCompletion(null, e);
+        }
+    }
+
+    /**
+     * 异步发送消息，发送完成后回调
+     *
+     * @param key 消息key，可为null
+     * @param message 消息内容
+     * @param topic kafka主题
+     * @param callback 回调，发送成功exception为null，否则recordMetadata为null
+     */
+    public void sendWithCallback(String key, byte[] message, String topic, Callback callback) {
+        sendWithCallback(key, message, topic, null, callback);
+    }
+
+    /**
+     * 立即发送缓存中所有消息，阻塞直到发送完成
+     */
+    public void flush() {
+        if (producer != null) producer.flush();
+    }
 }
@@ -0,0 +1,190 @@
+package xin.manong.weapon.base.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * kafka数据分发器
+ * 1. 拉取线程将数据按key分发至处理线程，相同key数据由同一线程顺序处理，不同key数据并行处理
+ * 2. key为空时按分区分发，保证同一分区无key数据顺序处理
+ * 3. 数据处理完成(包括处理失败)后在位点跟踪器中标记完成，拉取线程据此提交位点
+ * 4. 分发队列不设上限，由拉取线程根据未完成数据数量暂停/恢复分区实现背压
+ * 5. 分区撤销时可丢弃队列中该分区未处理数据，避免分区转移后继续处理
+ *
+ * @author frankcl
+ * @date 2026-10-18 02:04:57
+ */
+public class KafkaRecordDispatcher {
+
+    private final static Logger logger = LoggerFactory.getLogger(KafkaRecordDispatcher.class);
+
+    private final static ConsumerRecord<byte[], byte[]> STOP_SIGNAL = new ConsumerRecord<>(
+            "", -1, -1L, null, null);
+
+    private final String name;
+    private final KafkaRecordProcessor processor;
+    private final KafkaOffsetTracker offsetTracker;
+    private final KafkaConsumeMetrics metrics;
+    private final Worker[] workers;
+
+    public KafkaRecordDispatcher(String name, int workerNum,
+                                 KafkaRecordProcessor processor,
+                                 KafkaOffsetTracker offsetTracker) {
+        this(name, workerNum, processor, offsetTracker, null);
+    }
+
+    KafkaRecordDispatcher(String name, int workerNum,
+                          KafkaRecordProcessor processor,
+                          KafkaOffsetTracker offsetTracker,
+                          KafkaConsumeMetrics metrics) {
+        if (workerNum <= 0) throw new IllegalArgumentException(String.format("Invalid worker num:%d", workerNum));
+        this.name = name;
+        this.processor = processor;
+        this.offsetTracker = offsetTracker;
+        this.metrics = metrics;
+        this.workers = new Worker[workerNum];
+    }
+
+    /**
+     * 启动处理线程
+     */
+    public void start() {
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(String.format("%s_worker_%d", name, i));
+            workers[i].start();
+        }
+        logger.info("Kafka record dispatcher:{} has been started with {} workers", name, workers.length);
+    }
+
+    /**
+     * 停止处理线程，等待已分发数据处理完成
+     */
+    public void stop() {
+        for (Worker worker : workers) {
+            if (worker != null) worker.queue.add(STOP_SIGNAL);
+        }
+        for (Worker worker : workers) {
+            if (worker == null) continue;
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+        logger.info("Kafka record dispatcher:{} has been stopped", name);
+    }
+
+    /**
+     * 记录位点并分发分区数据
+     * 消费位点回退(如位点越界后重置)时重置该分区位点跟踪，已分发数据继续处理
+     *
+     * @param partition 分区
+     * @param consumerRecords 分区数据
+     */
+    public void dispatch(TopicPartition partition, List<ConsumerRecord<byte[], byte[]>> consumerRecords) {
+        for (ConsumerRecord<byte[], byte[]> consumerRecord : consumerRecords) {
+            try {
+                offsetTracker.fetch(partition, consumerRecord.offset());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Position is reset to offset:{} for topic:{} and partition:{}, reset offset tracking",
+                        consumerRecord.offset(), partition.topic(), partition.partition());
+                offsetTracker.remove(Collections.singletonList(partition));
+                offsetTracker.fetch(partition, consumerRecord.offset());
+            }
+            dispatch(consumerRecord);
+        }
+    }
+
+    /**
+     * 丢弃队列中指定分区未处理数据，正在处理的数据不受影响
+     *
+     * @param partitions 分区集合
+     * @return 丢弃数据数量
+     */
+    public int discard(Collection<TopicPartition> partitions) {
+        int count = 0;
+        for (Worker worker : workers) {
+            if (worker == null) continue;
+            int size = worker.queue.size();
+            worker.queue.removeIf(consumerRecord -> consumerRecord != STOP_SIGNAL && partitions.contains(
+                    new TopicPartition(consumerRecord.topic(), consumerRecord.partition())));
+            count += size - worker.queue.size();
+        }
+        return count;
+    }
+
+    /**
+     * 分发数据，调用前需在位点跟踪器中记录数据位点
+     *
+     * @param consumerRecord 数据
+     */
+    public void dispatch(ConsumerRecord<byte[], byte[]> consumerRecord) {
+        workers[selectWorker(consumerRecord)].queue.add(consumerRecord);
+    }
+
+    /**
+     * 选择处理线程
+     *
+     * @param consumerRecord 数据
+     * @return 处理线程下标
+     */
+    private int selectWorker(ConsumerRecord<byte[], byte[]> consumerRecord) {
+        byte[] key = consumerRecord.key();
+        int hash = key != null ? Arrays.hashCode(key) :
+                consumerRecord.topic().hashCode() * 31 + consumerRecord.partition();
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % workers.length;
+    }
+
+    /**
+     * 处理线程：顺序处理分发队列数据
+     */
+    private class Worker extends Thread {
+
+        private final BlockingQueue<ConsumerRecord<byte[], byte[]>> queue;
+
+        Worker(String name) {
+            super(name);
+            queue = new LinkedBlockingQueue<>();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                ConsumerRecord<byte[], byte[]> consumerRecord;
+                try {
+                    consumerRecord = queue.take();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                if (consumerRecord == STOP_SIGNAL) break;
+                TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+                long startTime = System.nanoTime();
+                boolean success = false;
+                try {
+                    processor.process(consumerRecord);
+                    success = true;
+                } catch (Throwable e) {
+                    logger.error("Process kafka message failed for topic:{}, partition:{} and offset:{}",
+                            partition.topic(), partition.partition(), consumerRecord.offset());
+                    logger.error(e.getMessage(), e);
+                } finally {
+                    offsetTracker.complete(partition, consumerRecord.offset());
+                    if (metrics != null) {
+                        metrics.recordProcess(partition, 1, KafkaConsumeMetrics.recordSize(consumerRecord),
+                                success ? 0 : 1, System.nanoTime() - startTime);
+                    }
+                }
+            }
+        }
+    }
+}
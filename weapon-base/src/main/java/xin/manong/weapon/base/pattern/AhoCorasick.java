@@ -0,0 +1,303 @@
+package xin.manong.weapon.base.pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * 字符串多模匹配算法：基于双数组trie的AhoCorasick自动机实现
+ * 1. 构建完成后不可变，可被多线程并发使用，无需加锁
+ * 2. 状态转移存储于双数组base/check，失败跳转及输出链存储于int[]，单遍扫描文本，性能与最短模式长度无关
+ * 3. 支持忽略大小写及全角转半角归一化，归一化为字符一一映射，命中位置对应原始文本
+ * 4. 命中结果通过MatchHandler回调或MatchResult列表返回
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:45:32
+ */
+public final class AhoCorasick implements PatternMatcher {
+
+    private final static Logger logger = LoggerFactory.getLogger(AhoCorasick.class);
+
+    private final static int ROOT = 0;
+    private final static int FREE = -1;
+
+    /* 忽略大小写 */
+    private final boolean ignoreCase;
+    /* 全角转半角 */
+    private final boolean normalizeWidth;
+    /* 最大模式长度 */
+    private final int maxPatternLength;
+    /* 匹配模式 */
+    private final String[] patterns;
+    /* 双数组base */
+    private int[] base;
+    /* 双数组check：存储父状态，未使用为-1 */
+    private int[] check;
+    /* 失败跳转状态 */
+    private int[] fail;
+    /* 输出链：沿失败跳转找到的下一个有输出状态，无输出为根状态 */
+    private int[] outputLink;
+    /* 状态输出偏移：状态s输出模式下标范围[outputOffsets[s], outputOffsets[s+1]) */
+    private int[] outputOffsets;
+    /* 状态输出模式下标 */
+    private int[] outputPatterns;
+
+    /**
+     * trie构建节点
+     */
+    private static class TrieNode {
+        /* 双数组状态 */
+        int state;
+        /* 孩子节点，按字符排序 */
+        final TreeMap<Character, TrieNode> children = new TreeMap<>();
+        /* 命中模式下标 */
+        final List<Integer> patternIndices = new ArrayList<>();
+    }
+
+    public AhoCorasick(List<String> patterns) {
+        this(patterns, false, false);
+    }
+
+    /**
+     * 编译匹配自动机
+     * 构建失败抛出异常IllegalArgumentException
+     *
+     * @param patterns 匹配模式列表
+     * @param ignoreCase 是否忽略大小写
+     * @param normalizeWidth 是否进行全角转半角归一化
+     */
+    public AhoCorasick(List<String> patterns, boolean ignoreCase, boolean normalizeWidth) {
+        List<String> tempPatterns = new ArrayList<>();
+        if (patterns != null) tempPatterns.addAll(patterns);
+        tempPatterns.removeIf(pattern -> pattern == null || pattern.isEmpty());
+        if (tempPatterns.isEmpty()) {
+            logger.error("Match patterns are empty");
+            throw new IllegalArgumentException("匹配模式为空");
+        }
+        this.ignoreCase = ignoreCase;
+        this.normalizeWidth = normalizeWidth;
+        this.patterns = tempPatterns.toArray(new String[0]);
+        this.maxPatternLength = Arrays.stream(this.patterns).mapToInt(String::length).max().getAsInt();
+        build();
+    }
+
+    @Override
+    public int patternNum() {
+        return patterns.length;
+    }
+
+    @Override
+    public String getPattern(int patternIndex) {
+        return patterns[patternIndex];
+    }
+
+    @Override
+    public int maxPatternLength() {
+        return maxPatternLength;
+    }
+
+    /**
+     * 搜索匹配
+     *
+     * @param text 匹配文本
+     * @return 匹配结果列表，按模式下标排序
+     */
+    public List<MatchResult> search(CharSequence text) {
+        if (text == null || text.isEmpty()) return new ArrayList<>();
+        Map<Integer, MatchResult> matchMap = new TreeMap<>();
+        search(text, (patternIndex, start, end) -> {
+            matchMap.computeIfAbsent(patternIndex, k -> new MatchResult(patterns[k])).positions.add(start);
+            return true;
+        });
+        return new ArrayList<>(matchMap.values());
+    }
+
+    /**
+     * 搜索匹配，命中结果通过回调返回
+     *
+     * @param text 匹配文本
+     * @param handler 命中回调
+     */
+    public void search(CharSequence text, MatchHandler handler) {
+        if (text == null || text.isEmpty()) return;
+        search(text, 0, text.length(), handler);
+    }
+
+    /**
+     * 在文本区间[from, to)内搜索匹配，命中结果完整位于区间内
+     * 命中结果按结束位置顺序回调，回调返回false时终止搜索
+     *
+     * @param text 匹配文本
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @param handler 命中回调
+     */
+    @Override
+    public void search(CharSequence text, int from, int to, MatchHandler handler) {
+        if (handler == null) throw new NullPointerException();
+        if (from < 0 || to > text.length() || from > to) {
+            throw new IndexOutOfBoundsException(String.format("Range[%d, %d) out of text length:%d",
+                    from, to, text.length()));
+        }
+        int state = ROOT;
+        for (int i = from; i < to; i++) {
+            char c = normalize(text.charAt(i));
+            int next = transition(state, c);
+            while (next == FREE && state != ROOT) {
+                state = fail[state];
+                next = transition(state, c);
+            }
+            state = next == FREE ? ROOT : next;
+            for (int s = state; s != ROOT; s = outputLink[s]) {
+                for (int j = outputOffsets[s]; j < outputOffsets[s + 1]; j++) {
+                    int patternIndex = outputPatterns[j];
+                    if (!handler.onMatch(patternIndex, i + 1 - patterns[patternIndex].length(), i + 1)) return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 状态转移
+     *
+     * @param state 当前状态
+     * @param c 输入字符
+     * @return 转移状态，不存在返回-1
+     */
+    private int transition(int state, char c) {
+        int next = base[state] + c;
+        return next > ROOT && next < check.length && check[next] == state ? next : FREE;
+    }
+
+    /**
+     * 字符归一化
+     * 1. 全角字符(U+FF01~U+FF5E)转换为对应半角字符，全角空格转换为半角空格
+     * 2. 转换为小写字符
+     *
+     * @param c 字符
+     * @return 归一化字符
+     */
+    private char normalize(char c) {
+        if (normalizeWidth) {
+            if (c == '\u3000') c = ' ';
+            else if (c >= '\uFF01' && c <= '\uFF5E') c = (char) (c - 0xFEE0);
+        }
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    /**
+     * 构建自动机
+     * 1. 构建trie
+     * 2. 广度优先为trie节点分配双数组状态
+     * 3. 广度优先计算失败跳转、输出链及状态输出
+     */
+    private void build() {
+        TrieNode root = new TrieNode();
+        for (int i = 0; i < patterns.length; i++) {
+            TrieNode node = root;
+            String pattern = patterns[i];
+            for (int j = 0; j < pattern.length(); j++) {
+                node = node.children.computeIfAbsent(normalize(pattern.charAt(j)), k -> new TrieNode());
+            }
+            node.patternIndices.add(i);
+        }
+        List<TrieNode> nodes = buildDoubleArray(root);
+        fail = new int[check.length];
+        outputLink = new int[check.length];
+        outputOffsets = new int[check.length + 1];
+        for (TrieNode node : nodes) outputOffsets[node.state + 1] = node.patternIndices.size();
+        for (TrieNode node : nodes) {
+            for (Map.Entry<Character, TrieNode> entry : node.children.entrySet()) {
+                TrieNode child = entry.getValue();
+                int failState = ROOT;
+                if (node != root) {
+                    int state = fail[node.state];
+                    int next = transition(state, entry.getKey());
+                    while (next == FREE && state != ROOT) {
+                        state = fail[state];
+                        next = transition(state, entry.getKey());
+                    }
+                    failState = next == FREE ? ROOT : next;
+                }
+                fail[child.state] = failState;
+                outputLink[child.state] = outputOffsets[failState + 1] > 0 ? failState : outputLink[failState];
+            }
+        }
+        for (int i = 1; i < outputOffsets.length; i++) outputOffsets[i] += outputOffsets[i - 1];
+        outputPatterns = new int[outputOffsets[outputOffsets.length - 1]];
+        for (TrieNode node : nodes) {
+            int pos = outputOffsets[node.state];
+            for (Integer patternIndex : node.patternIndices) outputPatterns[pos++] = patternIndex;
+        }
+    }
+
+    /**
+     * 广度优先为trie节点分配双数组状态
+     * 为每个节点寻找base，使得所有孩子base+c位置空闲
+     *
+     * @param root trie根节点
+     * @return 广度优先顺序节点列表
+     */
+    private List<TrieNode> buildDoubleArray(TrieNode root) {
+        int capacity = 1024;
+        base = new int[capacity];
+        check = new int[capacity];
+        Arrays.fill(check, FREE);
+        check[ROOT] = Integer.MIN_VALUE;
+        root.state = ROOT;
+        List<TrieNode> nodes = new ArrayList<>();
+        nodes.add(root);
+        int nextCheckPos = ROOT + 1;
+        for (int i = 0; i < nodes.size(); i++) {
+            TrieNode node = nodes.get(i);
+            if (node.children.isEmpty()) continue;
+            int firstCode = node.children.firstKey();
+            while (nextCheckPos < check.length && check[nextCheckPos] != FREE) nextCheckPos++;
+            for (int pos = nextCheckPos; ; pos++) {
+                int b = pos - firstCode;
+                ensureCapacity(b + node.children.lastKey() + 1);
+                if (!isFree(b, node.children.keySet())) continue;
+                base[node.state] = b;
+                for (Map.Entry<Character, TrieNode> entry : node.children.entrySet()) {
+                    TrieNode child = entry.getValue();
+                    child.state = b + entry.getKey();
+                    check[child.state] = node.state;
+                    nodes.add(child);
+                }
+                break;
+            }
+        }
+        int size = check.length;
+        while (size > ROOT + 1 && check[size - 1] == FREE) size--;
+        base = Arrays.copyOf(base, size);
+        check = Arrays.copyOf(check, size);
+        return nodes;
+    }
+
+    /**
+     * 判断孩子字符对应位置是否全部空闲
+     *
+     * @param b base值
+     * @param codes 孩子字符
+     * @return 全部空闲返回true，否则返回false
+     */
+    private boolean isFree(int b, Set<Character> codes) {
+        for (char c : codes) if (check[b + c] != FREE) return false;
+        return true;
+    }
+
+    /**
+     * 扩容双数组
+     *
+     * @param capacity 最小容量
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= check.length) return;
+        int newCapacity = Math.max(capacity, check.length + (check.length >>> 1));
+        int oldCapacity = check.length;
+        base = Arrays.copyOf(base, newCapacity);
+        check = Arrays.copyOf(check, newCapacity);
+        Arrays.fill(check, oldCapacity, newCapacity, FREE);
+    }
+}
@@ -4,11 +4,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * 字符串单模匹配算法：BoyerMoore算法实现
+ * 1. 坏字符表、好后缀表及后缀长度表编译为不可变模型Model，通过volatile引用发布
+ * 2. 重建时在旁路构建新模型后原子替换，搜索无锁且不被重建阻塞
  *
  * @author frankcl
  * @date 2022-11-19 13:29:55
@@ -17,15 +19,65 @@ public class BM {
 
     private final static Logger logger = LoggerFactory.getLogger(BM.class);
 
-    /* 模式字符串 */
-    private String pattern;
-    /* 好后缀表 */
-    private int[] bmGS;
-    /* 后缀长度表 */
-    private int[] bmSL;
-    /* 坏字符表 */
-    private Map<Character, Integer> bmBC;
-    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock(false);
+    /* 编译匹配模型 */
+    private volatile Model model;
+
+    /**
+     * 不可变匹配模型
+     */
+    private static final class Model implements PatternMatcher {
+
+        /* 模式字符串 */
+        private final String pattern;
+        /* 好后缀表 */
+        private final int[] bmGS;
+        /* 坏字符表 */
+        private final Map<Character, Integer> bmBC;
+
+        private Model(String pattern) {
+            this.pattern = pattern;
+            this.bmBC = buildBC(pattern);
+            this.bmGS = buildGS(pattern, quickBuildSL(pattern));
+        }
+
+        @Override
+        public int patternNum() {
+            return 1;
+        }
+
+        @Override
+        public String getPattern(int patternIndex) {
+            if (patternIndex != 0) throw new IndexOutOfBoundsException(String.format("Pattern index:%d", patternIndex));
+            return pattern;
+        }
+
+        @Override
+        public int maxPatternLength() {
+            return pattern.length();
+        }
+
+        @Override
+        @SuppressWarnings("StatementWithEmptyBody")
+        public void search(CharSequence text, int from, int to, MatchHandler handler) {
+            if (handler == null) throw new NullPointerException();
+            if (from < 0 || to > text.length() || from > to) {
+                throw new IndexOutOfBoundsException(String.format("Range[%d, %d) out of text length:%d",
+                        from, to, text.length()));
+            }
+            int m = pattern.length();
+            for (int i = from; i <= to - m; ) {
+                int j = m - 1;
+                for (; j >= 0 && pattern.charAt(j) == text.charAt(i + j); j--) ;
+                if (j < 0) {
+                    if (!handler.onMatch(0, i, i + m)) return;
+                    i++;
+                } else {
+                    Integer bc = bmBC.get(text.charAt(i + j));
+                    i += Math.max(bc != null ? bc - m + 1 + j : m, bmGS[j]);
+                }
+            }
+        }
+    }
 
     public BM(String pattern) {
         build(pattern);
@@ -33,7 +85,8 @@ public class BM {
 
     /**
      * 重建匹配模式
-     * 模式非法抛出异常
+     * 新模型构建完成后原子替换当前模型，构建期间搜索使用当前模型
+     * 模式非法抛出异常，当前模型保持不变
      *
      * @param pattern 重建匹配模式
      */
@@ -51,35 +104,38 @@ public class BM {
      * @param text 待匹配文本
      * @return 匹配上返回匹配结果，否则返回null
      */
-    @SuppressWarnings("StatementWithEmptyBody")
     public MatchResult search(String text) {
         if (text == null || text.isEmpty()) {
             logger.warn("Search text is empty");
             return null;
         }
-        try {
-            readWriteLock.readLock().lock();
-            MatchResult result = new MatchResult(pattern);
-            int n = text.length(), m = pattern.length();
-            for (int i = 0; i <= n - m; ) {
-                int j = m - 1;
-                for (; j >= 0 && pattern.charAt(j) == text.charAt(i + j); j--) ;
-                if (j < 0) {
-                    result.positions.add(i);
-                    i++;
-                } else {
-                    char c = text.charAt(i + j);
-                    i += Math.max(bmBC.containsKey(c) ? bmBC.get(c) - m + 1 + j : m, bmGS[j]);
-                }
-            }
-            return result.positions.isEmpty() ? null : result;
-        } finally {
-            readWriteLock.readLock().unlock();
-        }
+        Model model = this.model;
+        MatchResult result = new MatchResult(model.pattern);
+        model.search(text, 0, text.length(), (patternIndex, start, end) -> result.positions.add(start));
+        return result.positions.isEmpty() ? null : result;
+    }
+
+    /**
+     * 批量搜索匹配，文档间及长文档分块间在ForkJoinPool公共池并行搜索
+     *
+     * @param texts 待匹配文本列表
+     * @return 匹配结果列表，与文本列表一一对应，未匹配文本对应空列表
+     */
+    public List<List<MatchResult>> search(List<? extends CharSequence> texts) {
+        return new BatchSearcher(model).search(texts);
     }
 
     /**
-     * 根据模式构建坏字符表，好后缀表及后缀长度表
+     * 获取当前编译匹配模型
+     *
+     * @return 编译匹配模型
+     */
+    public PatternMatcher getModel() {
+        return model;
+    }
+
+    /**
+     * 根据模式构建坏字符表，好后缀表及后缀长度表，完成后替换当前模型
      * 构建失败抛出异常
      *
      * @param pattern 模式串
@@ -89,55 +145,52 @@ public class BM {
             logger.error("Pattern is empty");
             throw new IllegalArgumentException("匹配模式为空");
         }
-        try {
-            readWriteLock.writeLock().lock();
-            this.pattern = pattern;
-            buildBC(pattern);
-            quickBuildSL(pattern);
-            buildGS(pattern);
-        } finally {
-            readWriteLock.writeLock().unlock();
-        }
+        model = new Model(pattern);
     }
 
     /**
      * 构建坏字符表
      *
      * @param pattern 模式串
+     * @return 坏字符表
      */
-    private void buildBC(String pattern) {
-        bmBC = new HashMap<>();
+    private static Map<Character, Integer> buildBC(String pattern) {
+        Map<Character, Integer> bmBC = new HashMap<>();
         int len = pattern.length();
         for (int i = 0; i < len - 1; i++) {
             char c = pattern.charAt(i);
             bmBC.put(c, len - 1 - i);
         }
+        return bmBC;
     }
 
     /**
      * 构建后缀长度表
      *
      * @param pattern 模式串
+     * @return 后缀长度表
      */
-    private void buildSL(String pattern) {
+    private static int[] buildSL(String pattern) {
         int len = pattern.length();
-        bmSL = new int[len];
+        int[] bmSL = new int[len];
         bmSL[len - 1] = len;
         for (int i = len - 2; i >= 0; i--) {
             int j = i;
             while (j >= 0 && pattern.charAt(j) == pattern.charAt(len - 1 - i + j)) j--;
             bmSL[i] = i - j;
         }
+        return bmSL;
     }
 
     /**
      * 快速构建后缀长度表
      *
      * @param pattern 模式串
+     * @return 后缀长度表
      */
-    private void quickBuildSL(String pattern) {
+    private static int[] quickBuildSL(String pattern) {
         int len = pattern.length();
-        bmSL = new int[len];
+        int[] bmSL = new int[len];
         bmSL[len - 1] = len;
         for (int i = len - 2, j = 0, k = len - 1; i >= 0; i--) {
             if (i > k && bmSL[i + len - 1 - j] < i - k) bmSL[i] = bmSL[i + len - 1 - j];
@@ -148,16 +201,19 @@ public class BM {
                 bmSL[i] = j - k;
             }
         }
+        return bmSL;
     }
 
     /**
      * 构建好后缀表
      *
      * @param pattern 模式串
+     * @param bmSL 后缀长度表
+     * @return 好后缀表
      */
-    private void buildGS(String pattern) {
+    private static int[] buildGS(String pattern, int[] bmSL) {
         int len = pattern.length();
-        bmGS = new int[len];
+        int[] bmGS = new int[len];
         for (int i = 0; i < len; i++) bmGS[i] = len;
         for (int i = len - 1, j = 0; i >= 0; i--) {
             if (bmSL[i] != i + 1) continue;
@@ -168,5 +224,6 @@ public class BM {
         for (int i = 0; i < len - 1; i++) {
             bmGS[len - 1 - bmSL[i]] = len - 1 - i;
         }
+        return bmGS;
     }
 }
@@ -0,0 +1,134 @@
+package xin.manong.weapon.base.pattern;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 批量并行搜索
+ * 1. 多文档在ForkJoinPool中并行搜索，匹配结果按文档合并，与输入文档一一对应
+ * 2. 长文档按chunkSize切分，相邻分块重叠最大模式长度-1个字符，单文档分块并行搜索
+ * 3. 命中起始位置归属唯一分块，重叠区域不产生重复结果
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:47:48
+ */
+public class BatchSearcher {
+
+    private final static int DEFAULT_CHUNK_SIZE = 65536;
+
+    /* 分块大小 */
+    private final int chunkSize;
+    /* 匹配器 */
+    private final PatternMatcher matcher;
+    /* 并行池 */
+    private final ForkJoinPool pool;
+
+    public BatchSearcher(PatternMatcher matcher) {
+        this(matcher, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public BatchSearcher(PatternMatcher matcher, ForkJoinPool pool, int chunkSize) {
+        if (matcher == null || pool == null) throw new NullPointerException();
+        if (chunkSize <= 0) throw new IllegalArgumentException(String.format("非法分块大小:%d", chunkSize));
+        this.matcher = matcher;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 批量搜索
+     *
+     * @param texts 文档流
+     * @return 匹配结果列表，与文档流顺序一一对应
+     */
+    public List<List<MatchResult>> search(Stream<? extends CharSequence> texts) {
+        if (texts == null) return new ArrayList<>();
+        return search(texts.collect(Collectors.toList()));
+    }
+
+    /**
+     * 批量搜索
+     *
+     * @param texts 文档列表
+     * @return 匹配结果列表，与文档列表一一对应，空文档及未匹配文档对应空列表
+     */
+    public List<List<MatchResult>> search(List<? extends CharSequence> texts) {
+        List<List<MatchResult>> results = new ArrayList<>();
+        if (texts == null || texts.isEmpty()) return results;
+        List<ChunkTask> tasks = new ArrayList<>();
+        int[] taskOffsets = new int[texts.size() + 1];
+        int overlap = Math.max(matcher.maxPatternLength() - 1, 0);
+        for (int i = 0; i < texts.size(); i++) {
+            CharSequence text = texts.get(i);
+            int length = text == null ? 0 : text.length();
+            for (int from = 0; from < length; from += chunkSize) {
+                int ownEnd = (int) Math.min((long) from + chunkSize, length);
+                int to = (int) Math.min((long) ownEnd + overlap, length);
+                tasks.add(new ChunkTask(text, from, to, ownEnd));
+            }
+            taskOffsets[i + 1] = tasks.size();
+        }
+        if (tasks.size() == 1) tasks.get(0).invoke();
+        else if (!tasks.isEmpty()) pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        for (int i = 0; i < texts.size(); i++) {
+            Map<Integer, MatchResult> matchMap = new TreeMap<>();
+            for (int j = taskOffsets[i]; j < taskOffsets[i + 1]; j++) {
+                ChunkTask task = tasks.get(j);
+                for (int k = 0; k < task.hitNum; k++) {
+                    int patternIndex = task.hits[k << 1];
+                    matchMap.computeIfAbsent(patternIndex, index -> new MatchResult(
+                            matcher.getPattern(index))).positions.add(task.hits[(k << 1) + 1]);
+                }
+            }
+            results.add(new ArrayList<>(matchMap.values()));
+        }
+        return results;
+    }
+
+    /**
+     * 分块搜索任务
+     * 搜索窗口为[from, to)，只保留起始位置位于[from, ownEnd)的命中
+     */
+    private final class ChunkTask extends RecursiveAction implements MatchHandler {
+
+        private final CharSequence text;
+        private final int from;
+        private final int to;
+        private final int ownEnd;
+        /* 命中结果：依次存储模式下标及起始位置 */
+        private int[] hits;
+        private int hitNum;
+
+        ChunkTask(CharSequence text, int from, int to, int ownEnd) {
+            this.text = text;
+            this.from = from;
+            this.to = to;
+            this.ownEnd = ownEnd;
+            this.hits = new int[16];
+            this.hitNum = 0;
+        }
+
+        @Override
+        protected void compute() {
+            matcher.search(text, from, to, this);
+        }
+
+        @Override
+        public boolean onMatch(int patternIndex, int start, int end) {
+            if (start >= ownEnd) return true;
+            if ((hitNum << 1) + 2 > hits.length) hits = Arrays.copyOf(hits, hits.length << 1);
+            hits[hitNum << 1] = patternIndex;
+            hits[(hitNum << 1) + 1] = start;
+            hitNum++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package xin.manong.weapon.base.pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * 编译WuManber多模匹配器
+ * 1. 构建完成后不可变，可被多线程并发使用，无需加锁
+ * 2. 块和前缀直接由字符计算hash，映射到int[]移动表及前缀桶，搜索过程不创建子串
+ * 3. 前缀桶以压缩数组(偏移数组+模式下标数组)存储，hash冲突只会减小移动距离或增加候选，候选模式逐字符校验
+ * 4. 命中结果通过MatchHandler回调，搜索过程零内存分配
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:44:16
+ */
+public final class CompiledWM implements PatternMatcher {
+
+    private final static Logger logger = LoggerFactory.getLogger(CompiledWM.class);
+
+    private final static int DEFAULT_BLOCK_SIZE = 2;
+    private final static int MAX_BLOCK_SIZE = 3;
+    private final static int MAX_PREFIX_SIZE = 3;
+    private final static int MIN_TABLE_BITS = 10;
+    private final static int MAX_TABLE_BITS = 20;
+    private final static long HASH_SEED = 0x9E3779B97F4A7C15L;
+
+    /* 块长度 */
+    private final int B;
+    /* 最小模式长度 */
+    private final int m;
+    /* 前缀长度 */
+    private final int p;
+    /* 移动表hash位数 */
+    private final int shiftBits;
+    /* 前缀桶hash位数 */
+    private final int bucketBits;
+    /* 最大模式长度 */
+    private final int maxPatternLength;
+    /* 匹配模式 */
+    private final String[] patterns;
+    /* 模式前缀key */
+    private final long[] prefixKeys;
+    /* 移动表 */
+    private final int[] shiftTable;
+    /* 移动距离为0时的辅助移动表 */
+    private final int[] auxShiftTable;
+    /* 前缀桶偏移：桶i对应模式下标范围[bucketOffsets[i], bucketOffsets[i+1]) */
+    private final int[] bucketOffsets;
+    /* 前缀桶模式下标 */
+    private final int[] bucketPatterns;
+
+    public CompiledWM(List<String> patterns) {
+        this(patterns, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * 编译匹配模型
+     * 构建失败抛出异常IllegalArgumentException
+     *
+     * @param patterns 匹配模式列表
+     * @param B 块长度，最大为3，超过最小模式长度时使用最小模式长度
+     */
+    public CompiledWM(List<String> patterns, int B) {
+        List<String> tempPatterns = new ArrayList<>();
+        if (patterns != null) tempPatterns.addAll(patterns);
+        tempPatterns.removeIf(pattern -> pattern == null || pattern.isEmpty());
+        if (tempPatterns.isEmpty()) {
+            logger.error("Match patterns are empty");
+            throw new IllegalArgumentException("匹配模式为空");
+        }
+        if (B <= 0) throw new IllegalArgumentException(String.format("非法块长度:%d", B));
+        this.patterns = tempPatterns.toArray(new String[0]);
+        this.maxPatternLength = Arrays.stream(this.patterns).mapToInt(String::length).max().getAsInt();
+        int minLength = Integer.MAX_VALUE;
+        for (String pattern : this.patterns) minLength = Math.min(minLength, pattern.length());
+        this.m = minLength;
+        this.B = Math.min(Math.min(B, MAX_BLOCK_SIZE), m);
+        this.p = Math.min(MAX_PREFIX_SIZE, m);
+        this.shiftBits = tableBits((long) (m - this.B + 1) * this.patterns.length * 2);
+        this.bucketBits = tableBits((long) this.patterns.length * 2);
+        this.shiftTable = new int[1 << shiftBits];
+        this.auxShiftTable = new int[1 << shiftBits];
+        this.prefixKeys = new long[this.patterns.length];
+        this.bucketOffsets = new int[(1 << bucketBits) + 1];
+        this.bucketPatterns = new int[this.patterns.length];
+        build();
+    }
+
+    @Override
+    public int patternNum() {
+        return patterns.length;
+    }
+
+    @Override
+    public String getPattern(int patternIndex) {
+        return patterns[patternIndex];
+    }
+
+    @Override
+    public int maxPatternLength() {
+        return maxPatternLength;
+    }
+
+    /**
+     * 搜索匹配，命中结果通过回调返回
+     *
+     * @param text 匹配文本
+     * @param handler 命中回调
+     */
+    public void search(CharSequence text, MatchHandler handler) {
+        if (text == null || text.isEmpty()) return;
+        search(text, 0, text.length(), handler);
+    }
+
+    /**
+     * 在文本区间[from, to)内搜索匹配，命中结果完整位于区间内
+     * 命中结果通过回调返回，回调返回false时终止搜索
+     *
+     * @param text 匹配文本
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @param handler 命中回调
+     */
+    @Override
+    public void search(CharSequence text, int from, int to, MatchHandler handler) {
+        if (handler == null) throw new NullPointerException();
+        if (from < 0 || to > text.length() || from > to) {
+            throw new IndexOutOfBoundsException(String.format("Range[%d, %d) out of text length:%d",
+                    from, to, text.length()));
+        }
+        int defaultShift = m - B + 1;
+        for (int i = from + m - B; i + B <= to; ) {
+            long blockKey = key(text, i, B);
+            int slot = hash(blockKey, shiftBits);
+            int shiftLen = shiftTable[slot];
+            if (shiftLen >= 0) {
+                i += shiftLen == 0 ? defaultShift : shiftLen;
+                continue;
+            }
+            int start = i - m + B;
+            long prefixKey = key(text, start, p);
+            int bucket = hash(blockKey * 31 + prefixKey, bucketBits);
+            for (int j = bucketOffsets[bucket]; j < bucketOffsets[bucket + 1]; j++) {
+                int patternIndex = bucketPatterns[j];
+                if (prefixKeys[patternIndex] != prefixKey) continue;
+                String pattern = patterns[patternIndex];
+                int end = start + pattern.length();
+                if (end > to || !match(pattern, text, start)) continue;
+                if (!handler.onMatch(patternIndex, start, end)) return;
+            }
+            i += auxShiftTable[slot];
+        }
+    }
+
+    /**
+     * 搜索匹配
+     *
+     * @param text 匹配文本
+     * @return 匹配结果列表，按模式下标排序
+     */
+    public List<MatchResult> search(CharSequence text) {
+        if (text == null || text.isEmpty()) return new ArrayList<>();
+        Map<Integer, MatchResult> matchMap = new TreeMap<>();
+        search(text, (patternIndex, start, end) -> {
+            matchMap.computeIfAbsent(patternIndex, k -> new MatchResult(patterns[k])).positions.add(start);
+            return true;
+        });
+        return new ArrayList<>(matchMap.values());
+    }
+
+    /**
+     * 构建移动表、辅助移动表及前缀桶
+     * 移动表存储值：0表示未出现块，使用缺省移动距离m-B+1；正数表示移动距离；-1表示移动距离为0需校验候选
+     */
+    private void build() {
+        int defaultShift = m - B + 1;
+        Arrays.fill(auxShiftTable, defaultShift);
+        long[] blockKeys = new long[patterns.length];
+        int[] bucketCounts = new int[bucketOffsets.length];
+        for (int i = 0; i < patterns.length; i++) {
+            String pattern = patterns[i];
+            prefixKeys[i] = key(pattern, 0, p);
+            for (int k = 0; k < m - B + 1; k++) {
+                long blockKey = key(pattern, k, B);
+                int slot = hash(blockKey, shiftBits);
+                int shiftLen = m - k - B;
+                if (shiftLen == 0) {
+                    shiftTable[slot] = -1;
+                    blockKeys[i] = blockKey;
+                    continue;
+                }
+                if (shiftTable[slot] == 0 || shiftLen < shiftTable[slot]) shiftTable[slot] = shiftLen;
+                if (shiftLen < auxShiftTable[slot]) auxShiftTable[slot] = shiftLen;
+            }
+            bucketCounts[hash(blockKeys[i] * 31 + prefixKeys[i], bucketBits) + 1]++;
+        }
+        for (int i = 1; i < bucketOffsets.length; i++) bucketOffsets[i] = bucketOffsets[i - 1] + bucketCounts[i];
+        int[] positions = Arrays.copyOf(bucketOffsets, bucketOffsets.length - 1);
+        for (int i = 0; i < patterns.length; i++) {
+            int bucket = hash(blockKeys[i] * 31 + prefixKeys[i], bucketBits);
+            bucketPatterns[positions[bucket]++] = i;
+        }
+    }
+
+    /**
+     * 模式匹配
+     *
+     * @param pattern 模式
+     * @param text 匹配文本
+     * @param start 起始位置
+     * @return 匹配成功返回true，否则返回false
+     */
+    private static boolean match(String pattern, CharSequence text, int start) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) != text.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 将不超过3个字符编码为long key
+     *
+     * @param text 文本
+     * @param from 起始位置
+     * @param len 字符数量
+     * @return key
+     */
+    private static long key(CharSequence text, int from, int len) {
+        long key = 0L;
+        for (int i = from; i < from + len; i++) key = (key << 16) | text.charAt(i);
+        return key;
+    }
+
+    /**
+     * 计算key的hash槽位
+     *
+     * @param key key
+     * @param bits 槽位bit数
+     * @return hash槽位
+     */
+    private static int hash(long key, int bits) {
+        return (int) ((key * HASH_SEED) >>> (64 - bits));
+    }
+
+    /**
+     * 根据期望容量计算hash表bit数
+     *
+     * @param capacity 期望容量
+     * @return hash表bit数
+     */
+    private static int tableBits(long capacity) {
+        int bits = MIN_TABLE_BITS;
+        while (bits < MAX_TABLE_BITS && (1L << bits) < capacity) bits++;
+        return bits;
+    }
+}
@@ -0,0 +1,22 @@
+package xin.manong.weapon.base.pattern;
+
+/**
+ * 匹配回调接口
+ * 匹配过程中每命中一次模式回调一次，不构建中间匹配结果
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:43:52
+ */
+@FunctionalInterface
+public interface MatchHandler {
+
+    /**
+     * 处理命中模式
+     *
+     * @param patternIndex 模式下标
+     * @param start 命中起始位置（包含）
+     * @param end 命中结束位置（不包含）
+     * @return 继续匹配返回true，终止匹配返回false
+     */
+    boolean onMatch(int patternIndex, int start, int end);
+}
@@ -0,0 +1,44 @@
+package xin.manong.weapon.base.pattern;
+
+/**
+ * 区间匹配器接口
+ * 不可变编译匹配模型实现该接口，用于批量及分块并行搜索
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:47:29
+ */
+public interface PatternMatcher {
+
+    /**
+     * 模式数量
+     *
+     * @return 模式数量
+     */
+    int patternNum();
+
+    /**
+     * 获取模式
+     *
+     * @param patternIndex 模式下标
+     * @return 模式
+     */
+    String getPattern(int patternIndex);
+
+    /**
+     * 最大模式长度
+     *
+     * @return 最大模式长度
+     */
+    int maxPatternLength();
+
+    /**
+     * 在文本区间[from, to)内搜索匹配，命中结果完整位于区间内
+     * 命中结果通过回调返回，回调返回false时终止搜索
+     *
+     * @param text 匹配文本
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @param handler 命中回调
+     */
+    void search(CharSequence text, int from, int to, MatchHandler handler);
+}
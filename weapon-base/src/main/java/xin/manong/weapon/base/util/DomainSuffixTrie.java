@@ -0,0 +1,134 @@
+package xin.manong.weapon.base.util;
+
+import java.util.*;
+
+/**
+ * 域名后缀字典树
+ * 1. 后缀规则按字符逆序编译为扁平数组，标签分隔符'.'作为普通字符参与匹配
+ * 2. 支持公共后缀列表规则：普通规则(com.cn)，通配规则(*.ck)及例外规则(!www.ck)
+ * 3. 匹配时从站点末尾逐字符回溯，不进行字符串切分，不分配内存
+ * 4. 编译后不可变，可安全并发使用
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:56:24
+ */
+class DomainSuffixTrie {
+
+    private static final byte TERMINAL = 0x1;
+    private static final byte WILDCARD = 0x2;
+    private static final byte EXCEPTION = 0x4;
+
+    /* 节点子节点在childChars及childNodes中的起始位置 */
+    private final int[] childOffsets;
+    /* 节点子节点字符，同一节点子节点按字符有序 */
+    private final char[] childChars;
+    /* 子节点编号 */
+    private final int[] childNodes;
+    /* 节点标记 */
+    private final byte[] flags;
+
+    /**
+     * 编译后缀规则
+     *
+     * @param rules 后缀规则
+     */
+    DomainSuffixTrie(Collection<String> rules) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Byte> nodeFlags = new ArrayList<>();
+        children.add(new TreeMap<>());
+        nodeFlags.add((byte) 0);
+        for (String rule : rules) {
+            byte flag = TERMINAL;
+            if (rule.startsWith("!")) {
+                flag = EXCEPTION;
+                rule = rule.substring(1);
+            } else if (rule.startsWith("*.")) {
+                flag = WILDCARD | TERMINAL;
+                rule = rule.substring(2);
+            }
+            if (rule.isEmpty()) continue;
+            int node = 0;
+            for (int i = rule.length() - 1; i >= 0; i--) {
+                char c = rule.charAt(i);
+                Integer child = children.get(node).get(c);
+                if (child == null) {
+                    child = children.size();
+                    children.add(new TreeMap<>());
+                    nodeFlags.add((byte) 0);
+                    children.get(node).put(c, child);
+                }
+                node = child;
+            }
+            nodeFlags.set(node, (byte) (nodeFlags.get(node) | flag));
+        }
+        int nodeNum = children.size();
+        childOffsets = new int[nodeNum + 1];
+        childChars = new char[nodeNum - 1];
+        childNodes = new int[nodeNum - 1];
+        flags = new byte[nodeNum];
+        int offset = 0;
+        for (int node = 0; node < nodeNum; node++) {
+            childOffsets[node] = offset;
+            flags[node] = nodeFlags.get(node);
+            for (Map.Entry<Character, Integer> entry : children.get(node).entrySet()) {
+                childChars[offset] = entry.getKey();
+                childNodes[offset++] = entry.getValue();
+            }
+        }
+        childOffsets[nodeNum] = offset;
+    }
+
+    /**
+     * 匹配站点最长公共后缀
+     *
+     * @param host 站点
+     * @param end 站点结束位置(不包含)
+     * @return 匹配成功返回后缀起始位置，否则返回-1
+     */
+    int match(CharSequence host, int end) {
+        int node = 0, suffixStart = -1, prevLabelStart = end, labelEnd = end;
+        boolean wildcard = false;
+        while (true) {
+            int i = labelEnd - 1;
+            for (; i >= 0; i--) {
+                char c = host.charAt(i);
+                if (c == '.') break;
+                if (node >= 0) node = child(node, c);
+            }
+            int labelStart = i + 1;
+            if (wildcard) {
+                suffixStart = labelStart;
+                wildcard = false;
+            }
+            if (node >= 0) {
+                byte flag = flags[node];
+                if ((flag & EXCEPTION) != 0) return prevLabelStart;
+                if ((flag & TERMINAL) != 0) suffixStart = labelStart;
+                wildcard = (flag & WILDCARD) != 0;
+            }
+            if (i < 0 || (node < 0 && !wildcard)) return suffixStart;
+            if (node >= 0) node = child(node, '.');
+            prevLabelStart = labelStart;
+            labelEnd = i;
+        }
+    }
+
+    /**
+     * 查找子节点
+     *
+     * @param node 节点
+     * @param c 字符
+     * @return 存在返回子节点编号，否则返回-1
+     */
+    private int child(int node, char c) {
+        int low = childOffsets[node], high = childOffsets[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = childChars[mid];
+            if (midChar < c) low = mid + 1;
+            else if (midChar > c) high = mid - 1;
+            else return childNodes[mid];
+        }
+        return -1;
+    }
+}
@@ -2,10 +2,12 @@ package xin.manong.weapon.base.util;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
  * 域名工具
+ * 一级域名识别基于预编译后缀字典树，支持加载完整公共后缀列表
  *
  * @author frankcl
  * @date 2022-08-08 10:14:44
@@ -344,6 +346,45 @@ public class DomainUtil {
         }
     };
 
+    /* 公共后缀字典树 */
+    private static volatile DomainSuffixTrie suffixTrie = new DomainSuffixTrie(buildRules());
+
+    /**
+     * 内置后缀规则：顶级域名，国家顶级域名下保留二级域名及中国地区域名
+     *
+     * @return 后缀规则
+     */
+    private static List<String> buildRules() {
+        List<String> rules = new ArrayList<>(INTERNATIONAL_TOP_DOMAINS.keySet());
+        rules.addAll(COUNTRY_TOP_DOMAINS.keySet());
+        for (String countryDomain : COUNTRY_TOP_DOMAINS.keySet()) {
+            for (String reservedDomain : RESERVED_DOMAINS) rules.add(reservedDomain + "." + countryDomain);
+        }
+        rules.addAll(CN_REGION_DOMAINS.keySet());
+        return rules;
+    }
+
+    /**
+     * 从本地文件加载公共后缀列表(Public Suffix List)，与内置后缀规则合并后生效
+     * 每行一条规则，忽略空行及"//"开头注释，支持通配规则(*.ck)及例外规则(!www.ck)
+     *
+     * @param filePath 公共后缀列表文件路径
+     * @return 加载成功返回true，否则返回false
+     */
+    public static boolean loadPublicSuffixes(String filePath) {
+        String content = FileUtil.read(filePath, StandardCharsets.UTF_8);
+        if (content == null) return false;
+        List<String> rules = buildRules();
+        for (String line : content.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("//")) continue;
+            int index = StringUtils.indexOfAny(line, ' ', '\t');
+            rules.add(index == -1 ? line : line.substring(0, index));
+        }
+        suffixTrie = new DomainSuffixTrie(rules);
+        return true;
+    }
+
     /**
      * 根据站点获取一级域名
      *
@@ -352,27 +393,66 @@ public class DomainUtil {
      */
     public static String getDomain(String host) {
         if (StringUtils.isEmpty(host)) return host;
-        boolean countryDomain = false;
-        StringBuilder domain = new StringBuilder();
-        String[] segments = host.split("\\.");
-        for (int i = segments.length - 1; i >= 0 && i >= segments.length - 3; i--) {
-            String segment = segments[i];
-            if (i == segments.length - 1) {
-                if (INTERNATIONAL_TOP_DOMAINS.containsKey(segment) || COUNTRY_TOP_DOMAINS.containsKey(segment)) {
-                    if (COUNTRY_TOP_DOMAINS.containsKey(segment)) countryDomain = true;
-                    domain.append(segment);
-                    continue;
-                }
-                break;
-            } else if (i == segments.length - 2) {
-                String str = String.format("%s.%s", segment, domain);
-                domain.insert(0, ".").insert(0, segment);
-                if ((countryDomain && RESERVED_DOMAINS.contains(segment)) ||
-                        CN_REGION_DOMAINS.containsKey(str)) continue;
-                break;
-            }
-            if (!segment.equals("www")) domain.insert(0, ".").insert(0, segment);
-        }
-        return domain.isEmpty() ? host : domain.toString();
+        int end = trimEnd(host);
+        int offset = getDomainOffset(host, end);
+        return offset < 0 ? host : host.substring(offset, end);
+    }
+
+    /**
+     * 根据站点获取一级域名起始位置，不产生字符串拷贝
+     * 一级域名范围为[offset, end)，end为站点去除末尾'.'后长度
+     *
+     * @param host 站点
+     * @return 成功返回一级域名起始位置，顶级域名无法识别返回-1
+     */
+    public static int getDomainOffset(CharSequence host) {
+        if (host == null || host.length() == 0) return -1;
+        return getDomainOffset(host, trimEnd(host));
+    }
+
+    /**
+     * 根据站点获取一级域名起始位置
+     * 后缀之前标签为一级域名标签，多级后缀前的www标签忽略
+     *
+     * @param host 站点
+     * @param end 站点去除末尾'.'后长度
+     * @return 成功返回一级域名起始位置，顶级域名无法识别返回-1
+     */
+    private static int getDomainOffset(CharSequence host, int end) {
+        if (end == 0) return -1;
+        int suffixStart = suffixTrie.match(host, end);
+        if (suffixStart <= 0) return suffixStart;
+        int labelStart = suffixStart - 1;
+        while (labelStart > 0 && host.charAt(labelStart - 1) != '.') labelStart--;
+        if (suffixStart - labelStart == 4 && host.charAt(labelStart) == 'w' &&
+                host.charAt(labelStart + 1) == 'w' && host.charAt(labelStart + 2) == 'w' &&
+                indexOf(host, '.', suffixStart, end) != -1) return suffixStart;
+        return labelStart;
+    }
+
+    /**
+     * 计算站点去除末尾'.'后长度
+     *
+     * @param host 站点
+     * @return 去除末尾'.'后长度
+     */
+    private static int trimEnd(CharSequence host) {
+        int end = host.length();
+        while (end > 0 && host.charAt(end - 1) == '.') end--;
+        return end;
+    }
+
+    /**
+     * 在范围[from, to)内查找字符
+     *
+     * @param chars 字符序列
+     * @param c 查找字符
+     * @param from 起始位置
+     * @param to 结束位置
+     * @return 找到返回位置，否则返回-1
+     */
+    private static int indexOf(CharSequence chars, char c, int from, int to) {
+        for (int i = from; i < to; i++) if (chars.charAt(i) == c) return i;
+        return -1;
     }
 }
@@ -1,7 +1,12 @@
 package xin.manong.weapon.base.util;
 
+import java.nio.ByteBuffer;
+
 /**
  * 将任意字符串映射为long值类型，保证很小的重复率
+ * 1. 字符串按UTF-8编码逐字节计算，不产生中间字节数组
+ * 2. 支持ByteBuffer(包括direct及内存映射区域)直接计算
+ * 3. 支持通过update/finish流式计算，结果与一次性计算一致
  *
  * @author frankcl
  * @date 2019-05-27 15:29
@@ -65,15 +70,120 @@ public class FP63 {
             0x2d150829947c7697L, 0x50a58c4572ba78f6L, 0x7bca0f9ed0f87d29L, 0x6495fada78f80d2bL, 0x4ffa7901daba08f4L,
             0x324afd6d3c7c0695L, 0x19257eb69e3e034aL };
 
+    /* 流式计算中间结果 */
+    private long fp;
+    /* 流式计算时上次输入末尾未配对的高代理字符，0表示不存在 */
+    private char pendingHighSurrogate;
+
+    /**
+     * 构建流式计算器
+     */
+    public FP63() {
+        reset();
+    }
+
     /**
-     * 将字符串转换为long类型
+     * 重置流式计算状态
+     */
+    public void reset() {
+        fp = IRRED_POLY;
+        pendingHighSurrogate = 0;
+    }
+
+    /**
+     * 流式输入字节
+     *
+     * @param b 字节
+     * @return 当前计算器
+     */
+    public FP63 update(byte b) {
+        flushPendingSurrogate();
+        fp = updateByte(fp, b);
+        return this;
+    }
+
+    /**
+     * 流式输入字节数组，输入范围为[pos, pos+length)
+     *
+     * @param byteArray 字节数组
+     * @param pos 起始下标
+     * @param length 字节数
+     * @return 当前计算器
+     */
+    public FP63 update(byte[] byteArray, int pos, int length) {
+        flushPendingSurrogate();
+        fp = updateBytes(fp, byteArray, pos, length);
+        return this;
+    }
+
+    /**
+     * 流式输入ByteBuffer剩余字节[position, limit)，不改变ByteBuffer位置
+     *
+     * @param buffer 字节缓冲
+     * @return 当前计算器
+     */
+    public FP63 update(ByteBuffer buffer) {
+        flushPendingSurrogate();
+        fp = updateBuffer(fp, buffer);
+        return this;
+    }
+
+    /**
+     * 流式输入字符序列，按UTF-8编码计算
+     * 代理对跨越两次输入时仍按完整字符编码
+     *
+     * @param chars 字符序列
+     * @return 当前计算器
+     */
+    public FP63 update(CharSequence chars) {
+        int start = 0, end = chars.length();
+        if (end == 0) return this;
+        if (pendingHighSurrogate != 0) {
+            if (Character.isLowSurrogate(chars.charAt(0))) {
+                fp = updateCodePoint(fp, Character.toCodePoint(pendingHighSurrogate, chars.charAt(0)));
+                start = 1;
+            } else {
+                fp = updateByte(fp, (byte) '?');
+            }
+            pendingHighSurrogate = 0;
+        }
+        if (end > start && Character.isHighSurrogate(chars.charAt(end - 1))) {
+            pendingHighSurrogate = chars.charAt(--end);
+        }
+        fp = updateChars(fp, chars, start, end);
+        return this;
+    }
+
+    /**
+     * 结束流式计算，计算器状态不变，可继续输入
+     *
+     * @return long
+     */
+    public long finish() {
+        long value = fp;
+        if (pendingHighSurrogate != 0) value = updateByte(value, (byte) '?');
+        return complete(value) << 1;
+    }
+
+    /**
+     * 将字符串转换为long类型，字符串按UTF-8编码
      *
      * @param inputStr 需要转换的字符串
      * @return long
      */
     public static long newFP63(String inputStr) {
-        byte[] byteArray = inputStr.getBytes();
-        return newFP63(byteArray, 0, byteArray.length);
+        return newFP63((CharSequence) inputStr);
+    }
+
+    /**
+     * 将字符序列转换为long类型，字符序列按UTF-8编码，不产生中间字节数组
+     * 未配对代理字符按'?'编码，与String.getBytes(UTF-8)一致
+     *
+     * @param chars 需要转换的字符序列
+     * @return long
+     */
+    public static long newFP63(CharSequence chars) {
+        return complete(updateChars(IRRED_POLY, chars, 0, chars.length())) << 1;
     }
 
     /**
@@ -88,6 +198,17 @@ public class FP63 {
         return extendFP63(byteArray, pos, length) << 1;
     }
 
+    /**
+     * 将ByteBuffer剩余字节[position, limit)转换为long类型，不改变ByteBuffer位置
+     * 适用于direct及内存映射ByteBuffer，不产生数据拷贝
+     *
+     * @param buffer 字节缓冲
+     * @return long
+     */
+    public static long newFP63(ByteBuffer buffer) {
+        return complete(updateBuffer(IRRED_POLY, buffer)) << 1;
+    }
+
     /**
      * 字节数组转换为long
      *
@@ -97,18 +218,117 @@ public class FP63 {
      * @return long
      */
     private static long extendFP63(byte[] byteArray, int pos, int length) {
-        long fp = IRRED_POLY;
-        int mask = 0xFF;
+        return complete(updateBytes(IRRED_POLY, byteArray, pos, length));
+    }
+
+    /**
+     * 输入字节
+     *
+     * @param fp 中间结果
+     * @param b 字节
+     * @return 中间结果
+     */
+    private static long updateByte(long fp, byte b) {
+        return (fp >> 8) ^ byteModeTable7[(b ^ (int) fp) & 0xFF];
+    }
+
+    /**
+     * 输入字节数组
+     *
+     * @param fp 中间结果
+     * @param byteArray 字节数组
+     * @param pos 起始下标
+     * @param length 字节数
+     * @return 中间结果
+     */
+    private static long updateBytes(long fp, byte[] byteArray, int pos, int length) {
         int end = pos + length;
-        for (int i = pos; i < end; i++) {
-            fp = (fp >> 8) ^ byteModeTable7[(byteArray[i] ^ (int)fp) & mask];
+        for (int i = pos; i < end; i++) fp = updateByte(fp, byteArray[i]);
+        return fp;
+    }
+
+    /**
+     * 输入ByteBuffer剩余字节，使用绝对位置读取
+     *
+     * @param fp 中间结果
+     * @param buffer 字节缓冲
+     * @return 中间结果
+     */
+    private static long updateBuffer(long fp, ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return updateBytes(fp, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
         }
+        int end = buffer.limit();
+        for (int i = buffer.position(); i < end; i++) fp = updateByte(fp, buffer.get(i));
+        return fp;
+    }
+
+    /**
+     * 输入字符序列[start, end)，按UTF-8编码
+     *
+     * @param fp 中间结果
+     * @param chars 字符序列
+     * @param start 起始下标
+     * @param end 结束下标
+     * @return 中间结果
+     */
+    private static long updateChars(long fp, CharSequence chars, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                fp = updateByte(fp, (byte) c);
+            } else if (c < 0x800) {
+                fp = updateByte(fp, (byte) (0xC0 | (c >> 6)));
+                fp = updateByte(fp, (byte) (0x80 | (c & 0x3F)));
+            } else if (!Character.isSurrogate(c)) {
+                fp = updateByte(fp, (byte) (0xE0 | (c >> 12)));
+                fp = updateByte(fp, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                fp = updateByte(fp, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                fp = updateCodePoint(fp, Character.toCodePoint(c, chars.charAt(++i)));
+            } else {
+                fp = updateByte(fp, (byte) '?');
+            }
+        }
+        return fp;
+    }
+
+    /**
+     * 输入增补平面字符，按4字节UTF-8编码
+     *
+     * @param fp 中间结果
+     * @param codePoint 字符码点
+     * @return 中间结果
+     */
+    private static long updateCodePoint(long fp, int codePoint) {
+        fp = updateByte(fp, (byte) (0xF0 | (codePoint >> 18)));
+        fp = updateByte(fp, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        fp = updateByte(fp, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        return updateByte(fp, (byte) (0x80 | (codePoint & 0x3F)));
+    }
+
+    /**
+     * 计算最终结果
+     *
+     * @param fp 中间结果
+     * @return 最终结果
+     */
+    private static long complete(long fp) {
         if ((fp & X63) != 0) {
             fp ^= 0xCF517E46C7CE691FL;
         }
         return fp;
     }
 
+    /**
+     * 流式输入非字符数据前，输出上次遗留的未配对高代理字符
+     */
+    private void flushPendingSurrogate() {
+        if (pendingHighSurrogate == 0) return;
+        fp = updateByte(fp, (byte) '?');
+        pendingHighSurrogate = 0;
+    }
+
 }
 
 
@@ -0,0 +1,147 @@
+package xin.manong.weapon.base.util;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MinHash签名局部敏感hash(LSH)索引
+ * 1. 签名切分为bandNum个band，每个band包含rowNum个签名值，签名长度必须为bandNum*rowNum
+ * 2. 每个band内签名值hash为桶key，任意band桶key相同的数据成为候选
+ * 3. Jaccard相似度为s的两个文本成为候选概率为1-(1-s^rowNum)^bandNum，调整band及row权衡召回与候选数量
+ * 4. 读写锁保证线程安全，查询之间可并发
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:51:44
+ */
+public class LSHIndex<K> {
+
+    /* band数量 */
+    private final int bandNum;
+    /* 每个band签名值数量 */
+    private final int rowNum;
+    /* band桶：bandBuckets[band]为桶key到数据key集合映射 */
+    private final Map<Long, Set<K>>[] bandBuckets;
+    /* 数据key到band桶key映射 */
+    private final Map<K, long[]> bucketKeys;
+    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock(false);
+
+    @SuppressWarnings("unchecked")
+    public LSHIndex(int bandNum, int rowNum) {
+        if (bandNum <= 0 || rowNum <= 0) {
+            throw new IllegalArgumentException(String.format("非法band参数:%d*%d", bandNum, rowNum));
+        }
+        this.bandNum = bandNum;
+        this.rowNum = rowNum;
+        this.bandBuckets = new Map[bandNum];
+        for (int i = 0; i < bandNum; i++) bandBuckets[i] = new HashMap<>();
+        this.bucketKeys = new HashMap<>();
+    }
+
+    /**
+     * 添加数据，数据key存在时使用新签名覆盖
+     *
+     * @param key 数据key
+     * @param signature MinHash签名
+     */
+    public void add(K key, long[] signature) {
+        if (key == null) throw new NullPointerException();
+        long[] keys = bandKeys(signature);
+        readWriteLock.writeLock().lock();
+        try {
+            removeKey(key);
+            for (int band = 0; band < bandNum; band++) {
+                bandBuckets[band].computeIfAbsent(keys[band], k -> new HashSet<>()).add(key);
+            }
+            bucketKeys.put(key, keys);
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除数据
+     *
+     * @param key 数据key
+     * @return 删除成功返回true，数据不存在返回false
+     */
+    public boolean remove(K key) {
+        readWriteLock.writeLock().lock();
+        try {
+            return removeKey(key);
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 召回候选数据：任意band桶key与签名相同
+     *
+     * @param signature MinHash签名
+     * @return 候选数据key集合
+     */
+    public Set<K> candidates(long[] signature) {
+        long[] keys = bandKeys(signature);
+        Set<K> candidates = new HashSet<>();
+        readWriteLock.readLock().lock();
+        try {
+            for (int band = 0; band < bandNum; band++) {
+                Set<K> bucket = bandBuckets[band].get(keys[band]);
+                if (bucket != null) candidates.addAll(bucket);
+            }
+            return candidates;
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 数据数量
+     *
+     * @return 数据数量
+     */
+    public int size() {
+        readWriteLock.readLock().lock();
+        try {
+            return bucketKeys.size();
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 删除数据，调用方持有写锁
+     *
+     * @param key 数据key
+     * @return 删除成功返回true，数据不存在返回false
+     */
+    private boolean removeKey(K key) {
+        long[] keys = bucketKeys.remove(key);
+        if (keys == null) return false;
+        for (int band = 0; band < bandNum; band++) {
+            Set<K> bucket = bandBuckets[band].get(keys[band]);
+            if (bucket == null) continue;
+            bucket.remove(key);
+            if (bucket.isEmpty()) bandBuckets[band].remove(keys[band]);
+        }
+        return true;
+    }
+
+    /**
+     * 计算签名各band桶key
+     *
+     * @param signature MinHash签名
+     * @return band桶key
+     */
+    private long[] bandKeys(long[] signature) {
+        if (signature == null || signature.length != bandNum * rowNum) {
+            throw new IllegalArgumentException(String.format("Signature length must be %d", bandNum * rowNum));
+        }
+        long[] keys = new long[bandNum];
+        for (int band = 0; band < bandNum; band++) {
+            long key = band;
+            for (int row = 0; row < rowNum; row++) key = SimHash.mix(key * 31 + signature[band * rowNum + row]);
+            keys[band] = key;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,102 @@
+package xin.manong.weapon.base.util;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * 文本MinHash签名
+ * 1. 分词使用SimilarityUtil.analyze，分词hash使用FP63
+ * 2. 每个签名位置使用独立种子对分词hash混淆后取最小值，签名相同位置比例近似Jaccard相似系数
+ * 3. 签名可写入LSHIndex进行候选召回，候选再进行精确相似度计算
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:51:24
+ */
+public class MinHash {
+
+    private static final int DEFAULT_HASH_NUM = 128;
+    private static final long DEFAULT_SEED = 0x5DEECE66DL;
+
+    /* hash种子 */
+    private final long[] seeds;
+
+    public MinHash() {
+        this(DEFAULT_HASH_NUM, DEFAULT_SEED);
+    }
+
+    /**
+     * 构建MinHash
+     * 相同hashNum及seed构建的MinHash计算签名一致
+     *
+     * @param hashNum 签名长度
+     * @param seed 随机种子
+     */
+    public MinHash(int hashNum, long seed) {
+        if (hashNum <= 0) throw new IllegalArgumentException(String.format("非法签名长度:%d", hashNum));
+        Random random = new Random(seed);
+        this.seeds = new long[hashNum];
+        for (int i = 0; i < hashNum; i++) seeds[i] = random.nextLong();
+    }
+
+    /**
+     * 签名长度
+     *
+     * @return 签名长度
+     */
+    public int hashNum() {
+        return seeds.length;
+    }
+
+    /**
+     * 计算文本签名
+     *
+     * @param text 文本
+     * @return 签名
+     */
+    public long[] signature(String text) {
+        if (StringUtils.isEmpty(text)) return signature(new HashSet<>());
+        return signature(SimilarityUtil.analyze(text));
+    }
+
+    /**
+     * 根据分词计算签名
+     * 分词为空时签名所有位置为Long.MAX_VALUE
+     *
+     * @param words 分词集合
+     * @return 签名
+     */
+    public long[] signature(Collection<String> words) {
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        if (words == null) return signature;
+        for (String word : new HashSet<>(words)) {
+            long hash = FP63.newFP63(word);
+            for (int i = 0; i < seeds.length; i++) {
+                long value = SimHash.mix(hash ^ seeds[i]);
+                if (value < signature[i]) signature[i] = value;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 根据签名估算Jaccard相似系数
+     *
+     * @param signature1 签名
+     * @param signature2 签名
+     * @return 相似系数，阈值[0.0, 1.0]
+     */
+    public static double similarity(long[] signature1, long[] signature2) {
+        if (signature1.length != signature2.length) {
+            throw new IllegalArgumentException(String.format("Signature length is not consistent:%d vs %d",
+                    signature1.length, signature2.length));
+        }
+        int count = 0;
+        for (int i = 0; i < signature1.length; i++) if (signature1[i] == signature2[i]) count++;
+        return count * 1.0d / signature1.length;
+    }
+}
@@ -24,6 +24,9 @@ public class ShortKeyBuilder {
     private final static long ONE_BYTE_MASK = 0x3D;
     private final static long TWO_BYTE_MASK = 0x3FFFFFFF;
 
+    /* 编码key长度 */
+    public final static int KEY_LENGTH = 12;
+
     /**
      * 将输入文本进行编码，生成key
      *
@@ -31,32 +34,76 @@ public class ShortKeyBuilder {
      * @return 编码key
      */
     public static String build(String text) {
-        String md5 = DigestUtils.md5Hex(text == null ? "" : text);
-        StringBuilder buffer = new StringBuilder();
-        int[] codes = buildCodes(md5);
-        for (int code : codes) buffer.append(ENCODE_CHARS[code % ENCODE_CHARS.length]);
-        codes = buildCodes(new StringBuffer(md5).reverse().toString());
-        for (int code : codes) buffer.append(ENCODE_CHARS[code % ENCODE_CHARS.length]);
-        return buffer.toString();
+        return build(DigestUtils.md5(text == null ? "" : text));
     }
 
     /**
-     * 将MD5转换为编码表
+     * 根据16字节MD5摘要生成key，结果与build(String)一致
      *
-     * @param md5 字符串MD5
-     * @return 编码表
+     * @param digest MD5摘要
+     * @return 编码key
      */
-    private static int[] buildCodes(String md5) {
-        int[] codes = new int[6];
-        for (int i = 0; i < 4; i++) {
-            String segment = md5.substring(i * 8, (i + 1) * 8);
-            long value = TWO_BYTE_MASK & Long.valueOf(segment, 16);
-            for (int j = 0; j < 6; j++) {
-                int k = (int) (ONE_BYTE_MASK & value);
-                codes[j] += ENCODE_CHARS[k];
-                value = value >> 5;
+    public static String build(byte[] digest) {
+        char[] key = new char[KEY_LENGTH];
+        build(digest, key, 0);
+        return new String(key);
+    }
+
+    /**
+     * 根据16字节MD5摘要生成key，写入key[offset, offset+KEY_LENGTH)，不分配内存
+     * 前6位由摘要十六进制串生成，后6位由十六进制串逆序生成
+     *
+     * @param digest MD5摘要
+     * @param key 输出字符数组
+     * @param offset 输出起始下标
+     */
+    public static void build(byte[] digest, char[] key, int offset) {
+        if (digest == null || digest.length != 16) throw new IllegalArgumentException("MD5 digest must be 16 bytes");
+        if (offset < 0 || key.length - offset < KEY_LENGTH) throw new IndexOutOfBoundsException();
+        for (int j = 0; j < 6; j++) {
+            int code = 0, reversedCode = 0;
+            for (int i = 0; i < 4; i++) {
+                code += ENCODE_CHARS[(int) (ONE_BYTE_MASK & (segment(digest, i) >> (5 * j)))];
+                reversedCode += ENCODE_CHARS[(int) (ONE_BYTE_MASK & (reversedSegment(digest, i) >> (5 * j)))];
             }
+            key[offset + j] = ENCODE_CHARS[code % ENCODE_CHARS.length];
+            key[offset + 6 + j] = ENCODE_CHARS[reversedCode % ENCODE_CHARS.length];
         }
-        return codes;
+    }
+
+    /**
+     * 获取摘要十六进制串第i个8字符分段数值
+     *
+     * @param digest MD5摘要
+     * @param i 分段下标
+     * @return 分段数值
+     */
+    private static long segment(byte[] digest, int i) {
+        return TWO_BYTE_MASK & word(digest, i);
+    }
+
+    /**
+     * 获取摘要逆序十六进制串第i个8字符分段数值
+     * 逆序分段为摘要第3-i个4字节分段的半字节逆序
+     *
+     * @param digest MD5摘要
+     * @param i 分段下标
+     * @return 分段数值
+     */
+    private static long reversedSegment(byte[] digest, int i) {
+        int value = Integer.reverseBytes(word(digest, 3 - i));
+        return TWO_BYTE_MASK & ((value & 0x0F0F0F0F) << 4 | (value >>> 4) & 0x0F0F0F0F);
+    }
+
+    /**
+     * 获取摘要第i个4字节分段，大端序
+     *
+     * @param digest MD5摘要
+     * @param i 分段下标
+     * @return 分段数值
+     */
+    private static int word(byte[] digest, int i) {
+        return (digest[4 * i] & 0xFF) << 24 | (digest[4 * i + 1] & 0xFF) << 16 |
+                (digest[4 * i + 2] & 0xFF) << 8 | (digest[4 * i + 3] & 0xFF);
     }
 }
@@ -0,0 +1,98 @@
+package xin.manong.weapon.base.util;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 文本SimHash指纹
+ * 1. 分词使用SimilarityUtil.analyze，分词hash使用FP63并进行位混淆
+ * 2. 分词权重为词频，64位指纹每位由所有分词对应位加权投票决定
+ * 3. 相似文本指纹海明距离小，可配合image.HashIndex进行半径查询
+ *
+ * @author frankcl
+ * @date 2026-10-18 01:51:04
+ */
+public class SimHash {
+
+    /**
+     * 计算文本SimHash指纹
+     *
+     * @param text 文本
+     * @return SimHash指纹，文本为空返回0
+     */
+    public static long compute(String text) {
+        if (StringUtils.isEmpty(text)) return 0L;
+        return compute(SimilarityUtil.analyze(text));
+    }
+
+    /**
+     * 根据分词计算SimHash指纹，分词权重为词频
+     *
+     * @param words 分词列表
+     * @return SimHash指纹，分词为空返回0
+     */
+    public static long compute(Collection<String> words) {
+        if (words == null || words.isEmpty()) return 0L;
+        Map<String, Integer> weights = new HashMap<>();
+        for (String word : words) weights.merge(word, 1, Integer::sum);
+        return compute(weights);
+    }
+
+    /**
+     * 根据分词权重计算SimHash指纹
+     *
+     * @param weights 分词权重
+     * @return SimHash指纹，分词为空返回0
+     */
+    public static long compute(Map<String, Integer> weights) {
+        if (weights == null || weights.isEmpty()) return 0L;
+        long[] votes = new long[Long.SIZE];
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            long hash = hash(entry.getKey());
+            int weight = entry.getValue();
+            for (int i = 0; i < Long.SIZE; i++) votes[i] += ((hash >>> i) & 1L) != 0 ? weight : -weight;
+        }
+        long simHash = 0L;
+        for (int i = 0; i < Long.SIZE; i++) if (votes[i] > 0) simHash |= 1L << i;
+        return simHash;
+    }
+
+    /**
+     * 计算指纹海明距离
+     *
+     * @param simHash1 指纹
+     * @param simHash2 指纹
+     * @return 海明距离
+     */
+    public static int distance(long simHash1, long simHash2) {
+        return Long.bitCount(simHash1 ^ simHash2);
+    }
+
+    /**
+     * 分词hash：FP63最低位恒为0，进行位混淆使64位分布均匀
+     *
+     * @param word 分词
+     * @return 分词hash
+     */
+    static long hash(String word) {
+        return mix(FP63.newFP63(word));
+    }
+
+    /**
+     * 64位混淆(MurmurHash3 fmix64)
+     *
+     * @param h 输入值
+     * @return 混淆值
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
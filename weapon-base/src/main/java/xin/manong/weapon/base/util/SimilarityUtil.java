@@ -7,6 +7,7 @@ import com.hankcs.hanlp.seg.common.Term;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -33,12 +34,13 @@ public class SimilarityUtil {
     }
 
     /**
-     * 分词：去除停用词
+     * 分词：去除标点及停用词
+     * 分词结果可复用于SimHash及MinHash指纹计算，避免重复分词
      *
      * @param text 文本
      * @return 分词列表
      */
-    private static List<String> analyze(String text) {
+    public static List<String> analyze(String text) {
         List<String> words = new ArrayList<>();
         List<Term> terms = segment.seg(text);
         for (Term term : terms) {
@@ -58,18 +60,106 @@ public class SimilarityUtil {
      * @return 相似性分数，阈值[0.0, 1.0]
      */
     public static double coefficientLCS(String s1, String s2) {
+        return coefficientLCS(s1, s2, 0d);
+    }
+
+    /**
+     * 根据最长公共字符串原理计算文本相似度，分数无法达到阈值时提前结束
+     * 1. 使用位并行LCS算法(Allison-Dix/Hyyrö)，较短文本每个字符对应一个位，内存O(字符种类*较短文本长度/64)
+     * 2. 分数不低于阈值时返回结果与coefficientLCS(s1, s2)一致
+     * 3. 分数低于阈值时返回分数上界，该上界小于阈值
+     *
+     * @param s1 输入文本
+     * @param s2 输入文本
+     * @param threshold 分数阈值
+     * @return 相似性分数，阈值[0.0, 1.0]
+     */
+    public static double coefficientLCS(String s1, String s2, double threshold) {
         boolean empty1 = StringUtils.isEmpty(s1);
         boolean empty2 = StringUtils.isEmpty(s2);
         if (empty1 && empty2) return 1.0d;
         if (empty1 || empty2) return 0d;
-        int[][] d = new int[s1.length() + 1][s2.length() + 1];
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) d[i][j] = d[i - 1][j - 1] + 1;
-                else d[i][j] = Math.max(d[i - 1][j], d[i][j - 1]);
+        String pattern = s1.length() <= s2.length() ? s1 : s2;
+        String text = pattern == s1 ? s2 : s1;
+        int m = pattern.length(), n = text.length(), total = m + n;
+        if (m * 2.0d / total < threshold) return m * 2.0d / total;
+        int wordNum = (m + 63) >>> 6;
+        long lastMask = (m & 63) == 0 ? -1L : (1L << (m & 63)) - 1L;
+        CharTable table = new CharTable(pattern, wordNum);
+        long[] v = new long[wordNum];
+        Arrays.fill(v, -1L);
+        int lcs = 0;
+        for (int i = 0; i < n; i++) {
+            long[] peq = table.get(text.charAt(i));
+            if (peq != null) {
+                long carry = 0L;
+                for (int k = 0; k < wordNum; k++) {
+                    long u = v[k] & peq[k];
+                    long sum = v[k] + u + carry;
+                    carry = Long.compareUnsigned(sum, v[k]) < 0 || (carry != 0L && sum == v[k]) ? 1L : 0L;
+                    v[k] = sum | (v[k] & ~u);
+                }
+                if (threshold > 0d) lcs = countZeros(v, lastMask);
+            }
+            if (threshold > 0d) {
+                double upperBound = Math.min(m, lcs + n - i - 1) * 2.0d / total;
+                if (upperBound < threshold) return upperBound;
+            }
+        }
+        if (threshold <= 0d) lcs = countZeros(v, lastMask);
+        return lcs * 2.0d / total;
+    }
+
+    /**
+     * 统计位向量中0位数量，即当前LCS长度
+     *
+     * @param v 位向量
+     * @param lastMask 最后一个字有效位掩码
+     * @return 0位数量
+     */
+    private static int countZeros(long[] v, long lastMask) {
+        int count = 0;
+        for (int k = 0; k < v.length - 1; k++) count += Long.bitCount(~v[k]);
+        return count + Long.bitCount(~v[v.length - 1] & lastMask);
+    }
+
+    /**
+     * 字符位向量表：记录字符在文本中出现位置，开放寻址hash查找
+     */
+    private static class CharTable {
+
+        private final char[] keys;
+        private final long[][] vectors;
+
+        CharTable(String text, int wordNum) {
+            int capacity = Integer.highestOneBit(Math.max(text.length(), 2) * 2 - 1) << 1;
+            keys = new char[capacity];
+            vectors = new long[capacity][];
+            for (int i = 0; i < text.length(); i++) {
+                int slot = slot(text.charAt(i));
+                if (vectors[slot] == null) {
+                    keys[slot] = text.charAt(i);
+                    vectors[slot] = new long[wordNum];
+                }
+                vectors[slot][i >>> 6] |= 1L << (i & 63);
             }
         }
-        return d[s1.length()][s2.length()] * 2.0d / (s1.length() + s2.length());
+
+        /**
+         * 获取字符位向量
+         *
+         * @param c 字符
+         * @return 字符位向量，字符未出现返回null
+         */
+        long[] get(char c) {
+            return vectors[slot(c)];
+        }
+
+        private int slot(char c) {
+            int mask = keys.length - 1, slot = (c * 0x9E3779B9) >>> 16 & mask;
+            while (vectors[slot] != null && keys[slot] != c) slot = (slot + 1) & mask;
+            return slot;
+        }
     }
 
     /**
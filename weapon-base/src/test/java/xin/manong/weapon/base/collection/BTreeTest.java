@@ -5,6 +5,7 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
@@ -130,4 +131,75 @@ public class BTreeTest {
         Assert.assertFalse(reversedIterator.hasNext());
         Assert.assertNull(reversedIterator.next());
     }
+
+    @Test
+    public void testBulkLoad() {
+        for (int m : new int[] { 3, 4, 13 }) {
+            for (int count : new int[] { 0, 1, 2, 5, 100, 10001 }) {
+                List<Entry<Integer, Integer>> entries = new ArrayList<>();
+                for (int i = 0; i < count; i++) entries.add(new Entry<>(i * 2, i));
+                BTree<Integer, Integer> bTree = new BTree<>(m);
+                bTree.bulkLoad(entries.iterator());
+                Assert.assertEquals(count, bTree.size());
+                Assert.assertEquals(count == 0, bTree.isEmpty());
+                int i = 0;
+                for (Entry<Integer, Integer> entry : bTree) {
+                    Assert.assertEquals(i * 2, entry.getKey().intValue());
+                    Assert.assertEquals(i++, entry.getValue().intValue());
+                }
+                Assert.assertEquals(count, i);
+                for (int j = 0; j < count; j++) {
+                    Assert.assertEquals(j, bTree.search(j * 2).intValue());
+                    Assert.assertNull(bTree.search(j * 2 + 1));
+                }
+                for (int j = 0; j < count; j++) Assert.assertTrue(bTree.add(j * 2 + 1, -j));
+                for (int j = 0; j < count; j += 2) Assert.assertEquals(j, bTree.remove(j * 2).intValue());
+                Integer prevKey = null;
+                int size = 0;
+                for (Entry<Integer, Integer> entry : bTree) {
+                    if (prevKey != null) Assert.assertTrue(prevKey < entry.getKey());
+                    prevKey = entry.getKey();
+                    size++;
+                }
+                Assert.assertEquals(bTree.size(), size);
+                Assert.assertEquals(count + count / 2, size);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkLoadUnsorted() {
+        BTree<Integer, Integer> bTree = new BTree<>();
+        bTree.add(100, 100);
+        List<Entry<Integer, Integer>> entries = new ArrayList<>();
+        entries.add(new Entry<>(2, 2));
+        entries.add(new Entry<>(1, 1));
+        try {
+            bTree.bulkLoad(entries.iterator());
+        } finally {
+            Assert.assertEquals(1, bTree.size());
+            Assert.assertEquals(100, bTree.search(100).intValue());
+        }
+    }
+
+    @Test
+    public void testRangeIterator() {
+        BTree<Integer, Integer> bTree = new BTree<>(5);
+        for (int i = 0; i < 1000; i++) bTree.add(i * 3, i);
+        Iterator<Entry<Integer, Integer>> iterator = bTree.rangeIterator(100, 200);
+        for (int key = 102; key <= 198; key += 3) {
+            Assert.assertTrue(iterator.hasNext());
+            Entry<Integer, Integer> entry = iterator.next();
+            Assert.assertEquals(key, entry.getKey().intValue());
+            Assert.assertEquals(key / 3, entry.getValue().intValue());
+        }
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertFalse(bTree.rangeIterator(5000, 6000).hasNext());
+        Assert.assertFalse(bTree.rangeIterator(1, 2).hasNext());
+        iterator = bTree.rangeIterator(-10, 3);
+        Assert.assertEquals(0, iterator.next().getKey().intValue());
+        Assert.assertEquals(3, iterator.next().getKey().intValue());
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertEquals(33, bTree.search(2900, 5000).size());
+    }
 }
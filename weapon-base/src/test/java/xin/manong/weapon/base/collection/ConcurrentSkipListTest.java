@@ -0,0 +1,153 @@
+package xin.manong.weapon.base.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:37:30
+ */
+public class ConcurrentSkipListTest {
+
+    @Test
+    public void testSkipListOperations() {
+        ConcurrentSkipList<String, String> skipList = new ConcurrentSkipList<>();
+        Assert.assertTrue(skipList.add("456", "456"));
+        Assert.assertTrue(skipList.add("123", "123"));
+        Assert.assertTrue(skipList.add("1234", "1234"));
+        Assert.assertTrue(skipList.add("7", "7"));
+        Assert.assertTrue(skipList.add("3445", "3445"));
+        Assert.assertTrue(skipList.add("888", "888"));
+        Assert.assertNull(skipList.get("222"));
+        Assert.assertFalse(skipList.isEmpty());
+        Assert.assertEquals(6, skipList.size());
+        Assert.assertEquals("7", skipList.get("7"));
+        Assert.assertEquals("123", skipList.getFirst().getKey());
+        Assert.assertEquals("123", skipList.getFirst().getValue());
+        Assert.assertEquals("888", skipList.getLast().getKey());
+        Assert.assertEquals("888", skipList.getLast().getValue());
+        Entry<String, String> removeEntry = skipList.removeFirst();
+        Assert.assertNotNull(removeEntry);
+        Assert.assertEquals("123", removeEntry.getKey());
+        Assert.assertEquals("123", removeEntry.getValue());
+        removeEntry = skipList.removeLast();
+        Assert.assertNotNull(removeEntry);
+        Assert.assertEquals("888", removeEntry.getKey());
+        Assert.assertEquals("888", removeEntry.getValue());
+        Assert.assertEquals("1234", skipList.remove("1234"));
+        Assert.assertFalse(skipList.isEmpty());
+        Assert.assertEquals(3, skipList.size());
+        Assert.assertFalse(skipList.add("7", "777"));
+
+        Iterator<Entry<String, String>> iterator = skipList.iterator();
+        {
+            Assert.assertTrue(iterator.hasNext());
+            Entry<String, String> entry = iterator.next();
+            Assert.assertEquals("3445", entry.getKey());
+            Assert.assertEquals("3445", entry.getValue());
+            iterator.remove();
+        }
+        {
+            Assert.assertTrue(iterator.hasNext());
+            Entry<String, String> entry = iterator.next();
+            Assert.assertEquals("456", entry.getKey());
+            Assert.assertEquals("456", entry.getValue());
+        }
+        {
+            Assert.assertTrue(iterator.hasNext());
+            Entry<String, String> entry = iterator.next();
+            Assert.assertEquals("7", entry.getKey());
+            Assert.assertEquals("777", entry.getValue());
+        }
+        {
+            Assert.assertFalse(iterator.hasNext());
+        }
+
+        Iterator<Entry<String, String>> reversedIterator = skipList.reversedIterator();
+        {
+            Assert.assertTrue(reversedIterator.hasNext());
+            Entry<String, String> entry = reversedIterator.next();
+            Assert.assertEquals("7", entry.getKey());
+            Assert.assertEquals("777", entry.getValue());
+            reversedIterator.remove();
+        }
+        {
+            Assert.assertTrue(reversedIterator.hasNext());
+            Entry<String, String> entry = reversedIterator.next();
+            Assert.assertEquals("456", entry.getKey());
+            Assert.assertEquals("456", entry.getValue());
+        }
+        {
+            Assert.assertFalse(reversedIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testConcurrentOperations() throws Exception {
+        ConcurrentSkipList<Integer, Integer> skipList = new ConcurrentSkipList<>();
+        ConcurrentHashMap<Integer, Integer> expected = new ConcurrentHashMap<>();
+        AtomicInteger errorCount = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int seed = t;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 20000; i++) {
+                    int key = random.nextInt(2000) * 8 + seed;
+                    if (random.nextInt(3) == 0) {
+                        if (!Objects.equals(expected.remove(key), skipList.remove(key))) errorCount.incrementAndGet();
+                    } else {
+                        if ((expected.put(key, i) == null) != skipList.add(key, i)) errorCount.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        Assert.assertEquals(0, errorCount.get());
+        Assert.assertEquals(expected.size(), skipList.size());
+
+        List<Integer> keys = new ArrayList<>();
+        for (Entry<Integer, Integer> entry : skipList) {
+            if (!keys.isEmpty()) Assert.assertTrue(keys.get(keys.size() - 1) < entry.getKey());
+            Assert.assertEquals(expected.get(entry.getKey()), entry.getValue());
+            keys.add(entry.getKey());
+        }
+        Assert.assertEquals(expected.size(), keys.size());
+        Iterator<Entry<Integer, Integer>> reversedIterator = skipList.reversedIterator();
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            Assert.assertTrue(reversedIterator.hasNext());
+            Assert.assertEquals(keys.get(i), reversedIterator.next().getKey());
+        }
+        Assert.assertFalse(reversedIterator.hasNext());
+        Assert.assertEquals(keys.get(0), skipList.getFirst().getKey());
+        Assert.assertEquals(keys.get(keys.size() - 1), skipList.getLast().getKey());
+    }
+
+    @Test
+    public void testConcurrentRemoveFirst() throws Exception {
+        ConcurrentSkipList<Integer, Integer> skipList = new ConcurrentSkipList<>();
+        for (int i = 0; i < 40000; i++) skipList.add(i, i);
+        ConcurrentHashMap<Integer, Integer> removedKeys = new ConcurrentHashMap<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                Entry<Integer, Integer> entry;
+                while ((entry = skipList.removeFirst()) != null) removedKeys.put(entry.getKey(), entry.getValue());
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        Assert.assertEquals(40000, removedKeys.size());
+        Assert.assertTrue(skipList.isEmpty());
+        Assert.assertEquals(0, skipList.size());
+    }
+}
@@ -0,0 +1,107 @@
+package xin.manong.weapon.base.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:43:11
+ */
+public class IndexedHeapTest {
+
+    static class Host {
+
+        String name;
+        long priority;
+
+        Host(String name, long priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+    }
+
+    @Test
+    public void testHeapOperations() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        IndexedHeap.Handle<Integer> h15 = heap.add(15);
+        heap.add(3);
+        IndexedHeap.Handle<Integer> h16 = heap.add(16);
+        IndexedHeap.Handle<Integer> h30 = heap.add(30);
+        heap.add(8);
+        Assert.assertEquals(5, heap.size());
+        Assert.assertEquals(3, heap.peek().intValue());
+        heap.decreaseKey(h30, 1);
+        Assert.assertEquals(1, heap.peek().intValue());
+        Assert.assertSame(h30, heap.peekHandle());
+        heap.update(h15, 100);
+        Assert.assertTrue(heap.remove(h16));
+        Assert.assertFalse(heap.remove(h16));
+        Assert.assertFalse(heap.contains(h16));
+        Assert.assertEquals(4, heap.size());
+        Iterator<Integer> iterator = heap.iterator();
+        Assert.assertEquals(1, iterator.next().intValue());
+        Assert.assertEquals(3, iterator.next().intValue());
+        iterator.remove();
+        Assert.assertEquals(8, iterator.next().intValue());
+        Assert.assertEquals(100, iterator.next().intValue());
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertEquals(3, heap.size());
+        Assert.assertEquals(1, heap.poll().intValue());
+        Assert.assertFalse(heap.contains(h30));
+        Assert.assertEquals(8, heap.poll().intValue());
+        Assert.assertEquals(100, heap.poll().intValue());
+        Assert.assertNull(heap.poll());
+        Assert.assertTrue(heap.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncreaseByDecreaseKey() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        IndexedHeap.Handle<Integer> handle = heap.add(10);
+        heap.decreaseKey(handle, 11);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateRemovedHandle() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        IndexedHeap.Handle<Integer> handle = heap.add(10);
+        heap.poll();
+        heap.update(handle, 5);
+    }
+
+    @Test
+    public void testReprioritize() {
+        Random random = new Random(0L);
+        IndexedHeap<Host> heap = new IndexedHeap<>(Comparator.comparingLong((Host host) -> host.priority));
+        List<IndexedHeap.Handle<Host>> handles = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            handles.add(heap.add(new Host(String.format("host_%d", i), random.nextInt(100000))));
+        }
+        for (int i = 0; i < 50000; i++) {
+            IndexedHeap.Handle<Host> handle = handles.get(random.nextInt(handles.size()));
+            int op = random.nextInt(3);
+            if (op == 0) {
+                handle.getElement().priority = random.nextInt(100000);
+                heap.update(handle);
+            } else if (op == 1) {
+                long priority = handle.getElement().priority - random.nextInt(1000);
+                heap.decreaseKey(handle, new Host(handle.getElement().name, priority));
+            } else {
+                Assert.assertTrue(heap.remove(handle));
+                handles.set(handles.indexOf(handle), heap.add(handle.getElement()));
+            }
+        }
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        for (IndexedHeap.Handle<Host> handle : handles) expected.add(handle.getElement().priority);
+        Assert.assertEquals(expected.size(), heap.size());
+        while (!heap.isEmpty()) Assert.assertEquals(expected.poll().longValue(), heap.poll().priority);
+        Assert.assertTrue(expected.isEmpty());
+    }
+}
@@ -3,6 +3,13 @@ package xin.manong.weapon.base.collection;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
 /**
  * @author frankcl
  * @date 2023-04-27 16:32:04
@@ -83,4 +90,156 @@ public class LSMTreeTest {
 
         sorter.close();
     }
+
+    @Test
+    public void testParallelSpill() throws Exception {
+        LSMTree<Integer> sorter = new LSMTree<>(Integer.class, null, tempDirectory);
+        sorter.setMaxCacheRecordNum(10);
+        sorter.setMaxOpenFileNum(8);
+        sorter.setSpillThreadNum(3);
+
+        Random random = new Random();
+        List<Integer> records = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int record = random.nextInt(10000);
+            records.add(record);
+            sorter.addRecord(record);
+        }
+        records.sort(null);
+        for (Integer record : records) Assert.assertEquals(record, sorter.getRecord());
+        Assert.assertNull(sorter.getRecord());
+
+        sorter.close();
+    }
+
+    @Test(timeout = 10000, expected = IOException.class)
+    public void testSpillError() throws Exception {
+        LSMTree<Integer> sorter = new LSMTree<>(Integer.class, (record1, record2) -> {
+            throw new OutOfMemoryError("spill sort error");
+        }, tempDirectory);
+        sorter.setMaxCacheRecordNum(10);
+        sorter.setSpillThreadNum(2);
+        try {
+            for (int i = 0; i < 1000; i++) sorter.addRecord(i);
+            sorter.getRecord();
+        } finally {
+            sorter.close();
+        }
+    }
+
+    @Test
+    public void testCompressedDump() throws Exception {
+        for (DumpCompression compression : DumpCompression.values()) {
+            LSMTree<Record> sorter = new LSMTree<>(Record.class, new RecordComparator(), tempDirectory);
+            sorter.setMaxCacheRecordNum(50);
+            sorter.setMaxOpenFileNum(4);
+            sorter.setDumpBlockSize(128);
+            sorter.setDumpCompression(compression);
+
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                String key = String.format("key_%05d", (i * 7919) % 500);
+                keys.add(key);
+                sorter.addRecord(new Record(key).put("index", i));
+            }
+            keys.sort(null);
+            for (String key : keys) Assert.assertEquals(key, sorter.getRecord().key);
+            Assert.assertNull(sorter.getRecord());
+
+            sorter.close();
+        }
+    }
+
+    @Test
+    public void testByteBudgetSpill() throws Exception {
+        LSMTree<Record> sorter = new LSMTree<>(Record.class, new RecordComparator(), tempDirectory);
+        sorter.setMaxOpenFileNum(3);
+        sorter.setMaxCacheBytes(100);
+        sorter.setRecordSizer(record -> record.key.length() * 10L);
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String key = i % 2 == 0 ? String.format("%d", i) : String.format("%d_%s", i, "long_key_suffix");
+            keys.add(key);
+            sorter.addRecord(new Record(key));
+        }
+        keys.sort(null);
+        for (String key : keys) Assert.assertEquals(key, sorter.getRecord().key);
+        Assert.assertNull(sorter.getRecord());
+        Assert.assertEquals(50, sorter.getSpillCount());
+        Assert.assertTrue(sorter.getSpilledBytes() > 0);
+        Assert.assertTrue(sorter.getMergePassCount() > 0);
+
+        sorter.close();
+    }
+
+    @Test
+    public void testSerializedSizeSpill() throws Exception {
+        LSMTree<Integer> sorter = new LSMTree<>(Integer.class, null, tempDirectory);
+        sorter.setMaxCacheBytes(64);
+
+        for (int i = 100; i > 0; i--) sorter.addRecord(i);
+        for (int i = 1; i <= 100; i++) Assert.assertEquals(i, sorter.getRecord().intValue());
+        Assert.assertNull(sorter.getRecord());
+        Assert.assertTrue(sorter.getSpillCount() > 1);
+
+        sorter.close();
+    }
+
+    @Test
+    public void testParallelMerge() throws Exception {
+        LSMTree<Integer> sorter = new LSMTree<>(Integer.class, null, tempDirectory);
+        sorter.setMaxCacheRecordNum(10);
+        sorter.setMaxOpenFileNum(3);
+        sorter.setMergeThreadNum(4);
+
+        Random random = new Random();
+        List<Integer> records = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int record = random.nextInt(10000);
+            records.add(record);
+            sorter.addRecord(record);
+        }
+        records.sort(null);
+        for (Integer record : records) Assert.assertEquals(record, sorter.getRecord());
+        Assert.assertNull(sorter.getRecord());
+        Assert.assertTrue(sorter.getMergePassCount() > 0);
+
+        sorter.close();
+    }
+
+    @Test
+    public void testCombiner() throws Exception {
+        LSMTree<Record> sorter = new LSMTree<>(Record.class, new RecordComparator(), tempDirectory);
+        sorter.setMaxCacheRecordNum(7);
+        sorter.setMaxOpenFileNum(2);
+        sorter.setCombiner((record1, record2) -> record1.put("count",
+                (Integer) record1.featureMap.get("count") + (Integer) record2.featureMap.get("count")));
+
+        for (int i = 0; i < 300; i++) sorter.addRecord(new Record(String.format("url_%02d", i % 30)).put("count", 1));
+        Iterator<Record> iterator = sorter.iterator();
+        for (int i = 0; i < 30; i++) {
+            Assert.assertTrue(iterator.hasNext());
+            Record record = iterator.next();
+            Assert.assertEquals(String.format("url_%02d", i), record.key);
+            Assert.assertEquals(10, record.featureMap.get("count"));
+        }
+        Assert.assertFalse(iterator.hasNext());
+
+        sorter.close();
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        LSMTree<Integer> sorter = new LSMTree<>(Integer.class, null, tempDirectory);
+        sorter.setMaxCacheRecordNum(3);
+        sorter.setCombiner((record1, record2) -> record1);
+
+        int[] records = new int[] { 5, 3, 5, 1, 3, 9, 7, 1, 5, 2 };
+        for (int record : records) sorter.addRecord(record);
+        List<Integer> sortedRecords = sorter.stream().collect(Collectors.toList());
+        Assert.assertEquals(List.of(1, 2, 3, 5, 7, 9), sortedRecords);
+
+        sorter.close();
+    }
 }
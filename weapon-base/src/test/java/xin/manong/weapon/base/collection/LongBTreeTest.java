@@ -0,0 +1,104 @@
+package xin.manong.weapon.base.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:42:03
+ */
+public class LongBTreeTest {
+
+    @Test
+    public void testOperations() {
+        LongBTree<String> bTree = new LongBTree<>(3);
+        Assert.assertTrue(bTree.isEmpty());
+        Assert.assertFalse(bTree.cursor().next());
+        Assert.assertFalse(bTree.reversedCursor().next());
+        Assert.assertFalse(bTree.rangeCursor(0L, 10L).next());
+        for (long key = 1L; key <= 10L; key++) Assert.assertTrue(bTree.add(key, String.valueOf(key)));
+        Assert.assertFalse(bTree.add(5L, "55"));
+        Assert.assertEquals(10, bTree.size());
+        Assert.assertEquals("55", bTree.search(5L));
+        Assert.assertNull(bTree.search(11L));
+        Assert.assertTrue(bTree.containsKey(10L));
+        Assert.assertFalse(bTree.containsKey(0L));
+        Assert.assertEquals(1L, bTree.firstKey());
+        Assert.assertEquals(10L, bTree.lastKey());
+        Assert.assertEquals("[1=1,2=2,3=3,4=4,5=55,6=6,7=7,8=8,9=9,10=10]", bTree.toString());
+        LongCursor<String> cursor = bTree.rangeCursor(3L, 6L);
+        for (long key = 3L; key <= 6L; key++) {
+            Assert.assertTrue(cursor.next());
+            Assert.assertEquals(key, cursor.key());
+        }
+        Assert.assertFalse(cursor.next());
+        Assert.assertEquals("10", bTree.remove(10L));
+        Assert.assertEquals("1", bTree.remove(1L));
+        Assert.assertNull(bTree.remove(1L));
+        Assert.assertEquals(2L, bTree.firstKey());
+        Assert.assertEquals(9L, bTree.lastKey());
+        for (long key = 2L; key <= 9L; key++) Assert.assertNotNull(bTree.remove(key));
+        Assert.assertTrue(bTree.isEmpty());
+        Assert.assertEquals("[]", bTree.toString());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testEmptyFirstKey() {
+        new LongBTree<String>().firstKey();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testExhaustedCursor() {
+        LongBTree<String> bTree = new LongBTree<>();
+        bTree.add(1L, "1");
+        LongCursor<String> cursor = bTree.cursor();
+        Assert.assertTrue(cursor.next());
+        Assert.assertFalse(cursor.next());
+        cursor.key();
+    }
+
+    @Test
+    public void testRandomOperations() {
+        for (int m : new int[] { 3, 4, 5, 16, 64 }) {
+            Random random = new Random(m);
+            LongBTree<Long> bTree = new LongBTree<>(m);
+            TreeMap<Long, Long> treeMap = new TreeMap<>();
+            for (int i = 0; i < 50000; i++) {
+                long key = random.nextInt(5000) - 2500;
+                if (random.nextInt(3) == 0) {
+                    Assert.assertEquals(treeMap.remove(key), bTree.remove(key));
+                } else {
+                    Assert.assertEquals(treeMap.put(key, key * 2) == null, bTree.add(key, key * 2));
+                }
+                Assert.assertEquals(treeMap.size(), bTree.size());
+            }
+            for (long key = -2600L; key < 2600L; key++) Assert.assertEquals(treeMap.get(key), bTree.search(key));
+            LongCursor<Long> cursor = bTree.cursor();
+            for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+                Assert.assertTrue(cursor.next());
+                Assert.assertEquals(entry.getKey().longValue(), cursor.key());
+                Assert.assertEquals(entry.getValue(), cursor.value());
+            }
+            Assert.assertFalse(cursor.next());
+            LongCursor<Long> reversedCursor = bTree.reversedCursor();
+            for (Long key : treeMap.descendingKeySet()) {
+                Assert.assertTrue(reversedCursor.next());
+                Assert.assertEquals(key.longValue(), reversedCursor.key());
+            }
+            Assert.assertFalse(reversedCursor.next());
+            LongCursor<Long> rangeCursor = bTree.rangeCursor(-1000L, 1000L);
+            for (Long key : treeMap.subMap(-1000L, true, 1000L, true).keySet()) {
+                Assert.assertTrue(rangeCursor.next());
+                Assert.assertEquals(key.longValue(), rangeCursor.key());
+            }
+            Assert.assertFalse(rangeCursor.next());
+            for (Long key : treeMap.keySet()) Assert.assertEquals(Long.valueOf(key * 2), bTree.remove(key));
+            Assert.assertTrue(bTree.isEmpty());
+        }
+    }
+}
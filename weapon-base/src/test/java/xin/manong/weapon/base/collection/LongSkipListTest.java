@@ -0,0 +1,76 @@
+package xin.manong.weapon.base.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:41:30
+ */
+public class LongSkipListTest {
+
+    @Test
+    public void testOperations() {
+        LongSkipList<String> skipList = new LongSkipList<>();
+        Assert.assertTrue(skipList.isEmpty());
+        Assert.assertNull(skipList.removeFirst());
+        Assert.assertNull(skipList.removeLast());
+        Assert.assertTrue(skipList.add(456L, "456"));
+        Assert.assertTrue(skipList.add(123L, "123"));
+        Assert.assertTrue(skipList.add(-7L, "-7"));
+        Assert.assertTrue(skipList.add(888L, "888"));
+        Assert.assertFalse(skipList.add(456L, "4567"));
+        Assert.assertEquals(4, skipList.size());
+        Assert.assertEquals("4567", skipList.get(456L));
+        Assert.assertNull(skipList.get(222L));
+        Assert.assertTrue(skipList.containsKey(-7L));
+        Assert.assertFalse(skipList.containsKey(7L));
+        Assert.assertEquals(-7L, skipList.firstKey());
+        Assert.assertEquals(888L, skipList.lastKey());
+        Assert.assertEquals("-7", skipList.removeFirst());
+        Assert.assertEquals("888", skipList.removeLast());
+        Assert.assertEquals("123", skipList.remove(123L));
+        Assert.assertNull(skipList.remove(123L));
+        Assert.assertEquals(1, skipList.size());
+        Assert.assertEquals("[456=4567]", skipList.toString());
+        Assert.assertEquals("4567", skipList.remove(456L));
+        Assert.assertTrue(skipList.isEmpty());
+        Assert.assertFalse(skipList.cursor().next());
+        Assert.assertFalse(skipList.reversedCursor().next());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(0L);
+        LongSkipList<Long> skipList = new LongSkipList<>();
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(10000);
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(treeMap.remove(key), skipList.remove(key));
+            } else {
+                Assert.assertEquals(treeMap.put(key, key * 2) == null, skipList.add(key, key * 2));
+            }
+            Assert.assertEquals(treeMap.size(), skipList.size());
+        }
+        LongCursor<Long> cursor = skipList.cursor();
+        for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+            Assert.assertTrue(cursor.next());
+            Assert.assertEquals(entry.getKey().longValue(), cursor.key());
+            Assert.assertEquals(entry.getValue(), cursor.value());
+        }
+        Assert.assertFalse(cursor.next());
+        LongCursor<Long> reversedCursor = skipList.reversedCursor();
+        for (Map.Entry<Long, Long> entry : treeMap.descendingMap().entrySet()) {
+            Assert.assertTrue(reversedCursor.next());
+            Assert.assertEquals(entry.getKey().longValue(), reversedCursor.key());
+        }
+        Assert.assertFalse(reversedCursor.next());
+        Assert.assertEquals(treeMap.firstKey().longValue(), skipList.firstKey());
+        Assert.assertEquals(treeMap.lastKey().longValue(), skipList.lastKey());
+    }
+}
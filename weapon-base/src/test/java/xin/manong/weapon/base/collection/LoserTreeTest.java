@@ -0,0 +1,50 @@
+package xin.manong.weapon.base.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:35:22
+ */
+public class LoserTreeTest {
+
+    @Test
+    public void testMerge() {
+        Random random = new Random();
+        for (int k = 1; k <= 17; k++) {
+            List<Integer> expected = new ArrayList<>();
+            List<RecordReader<Integer>> readers = new ArrayList<>();
+            for (int i = 0; i < k; i++) {
+                List<Integer> records = new ArrayList<>();
+                int n = random.nextInt(50) + 1;
+                for (int j = 0; j < n; j++) records.add(random.nextInt(100));
+                expected.addAll(records);
+                MemoryReader<Integer> reader = new MemoryReader<>(records, null);
+                Assert.assertTrue(reader.open());
+                Assert.assertNotNull(reader.read());
+                readers.add(reader);
+            }
+            expected.sort(null);
+            LoserTree<Integer> loserTree = new LoserTree<>(readers, new RecordReaderComparator<>(null));
+            for (Integer record : expected) {
+                Assert.assertEquals(record, loserTree.peek());
+                Assert.assertEquals(record, loserTree.poll());
+            }
+            Assert.assertTrue(loserTree.isEmpty());
+            Assert.assertNull(loserTree.poll());
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        LoserTree<Integer> loserTree = new LoserTree<>(new ArrayList<>(), new RecordReaderComparator<>(null));
+        Assert.assertTrue(loserTree.isEmpty());
+        Assert.assertNull(loserTree.peek());
+        Assert.assertNull(loserTree.poll());
+    }
+}
@@ -10,6 +10,7 @@ import xin.manong.weapon.base.http.HttpClient;
 import xin.manong.weapon.base.http.HttpClientConfig;
 import xin.manong.weapon.base.http.HttpRequest;
 import xin.manong.weapon.base.http.RequestMethod;
+import xin.manong.weapon.base.util.CommonUtil;
 
 /**
  * @author frankcl
@@ -113,4 +114,55 @@ public class HTMLExtractorTest {
         Long publishTime = HTMLExtractor.publishTime(element);
         Assert.assertNotNull(publishTime);
     }
+
+    @Test
+    public void testExtract() {
+        StringBuilder builder = new StringBuilder("<html><head><title>新闻</title>");
+        builder.append("<style>.a{color:red}</style></head><body>");
+        builder.append("<div id=\"nav\"><a href=\"/a\">首页</a><a href=\"/b\">国内</a><a href=\"/c\">国际</a></div>");
+        builder.append("<div id=\"article\"><h1>标题</h1>");
+        builder.append("<div class=\"info\">2023年02月26日 18:01:30 来源：新华社<button>分享</button></div>");
+        builder.append("<div id=\"content\"><script>var t = '2020-01-01 00:00:00';</script><!-- comment -->");
+        for (int i = 0; i < 8; i++) {
+            builder.append("<p>中国共产党第二十届中央委员会第二次全体会议26日下午在北京开始举行，");
+            builder.append("全会将审议党和国家机构改革方案。段落").append(i).append("</p>");
+        }
+        builder.append("<div style=\"display: none\">隐藏内容</div><select><option>选项</option></select>");
+        builder.append("</div></div><div id=\"footer\">版权所有 <a href=\"/d\">联系我们</a></div></body></html>");
+        String html = builder.toString();
+        ExtractResult result = HTMLExtractor.extract(html, "http://www.example.com/a.html");
+        Assert.assertNotNull(result);
+        Element mainElement = HTMLExtractor.mainHTMLElement(html, "http://www.example.com/a.html");
+        Assert.assertNotNull(mainElement);
+        Assert.assertEquals(mainElement.cssSelector(), result.mainElement.cssSelector());
+        Assert.assertEquals(HTMLExtractor.publishTime(mainElement), result.publishTime);
+        Assert.assertEquals(CommonUtil.stringToTime("2023-02-26 18:01:30", null), result.publishTime);
+        String content = HTMLExtractor.formatHTMLElement(result.mainElement);
+        Assert.assertEquals(HTMLExtractor.formatHTMLElement(mainElement), content);
+        Assert.assertFalse(content.contains("2020-01-01"));
+        Assert.assertFalse(content.contains("选项"));
+        Assert.assertNull(HTMLExtractor.extract("", null));
+    }
+
+    @Test
+    public void testExtractAttributeDateTime() {
+        StringBuilder builder = new StringBuilder("<html><body>");
+        builder.append("<div id=\"article\"><h1>标题</h1>");
+        builder.append("<div class=\"info\"><time datetime=\"2023-02-26T18:01:30+08:00\">昨天</time>");
+        builder.append("<span data-publish=\"2022-01-01 08:00\">来源：新华社</span></div>");
+        builder.append("<div id=\"content\">");
+        for (int i = 0; i < 8; i++) {
+            builder.append("<p>中国共产党第二十届中央委员会第二次全体会议26日下午在北京开始举行，");
+            builder.append("全会将审议党和国家机构改革方案。段落").append(i).append("</p>");
+        }
+        builder.append("</div></div></body></html>");
+        String html = builder.toString();
+        ExtractResult result = HTMLExtractor.extract(html, "http://www.example.com/a.html");
+        Assert.assertNotNull(result);
+        Element mainElement = HTMLExtractor.mainHTMLElement(html, "http://www.example.com/a.html");
+        Assert.assertNotNull(mainElement);
+        Assert.assertEquals(mainElement.cssSelector(), result.mainElement.cssSelector());
+        Assert.assertEquals(HTMLExtractor.publishTime(mainElement), result.publishTime);
+        Assert.assertEquals(CommonUtil.stringToTime("2023-02-26 18:01:30", null), result.publishTime);
+    }
 }
@@ -0,0 +1,101 @@
+package xin.manong.weapon.base.image;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:50:17
+ */
+public class HashIndexTest {
+
+    @Test
+    public void testOperations() {
+        HashIndex index = new HashIndex();
+        byte[] hash1 = new byte[] { 0x3d, 0x3d, (byte) 0xc2, (byte) 0xc2, (byte) 0xc1, 0x1f, 0x1f, 0x3c };
+        byte[] hash2 = new byte[] { 0x3c, 0x3d, (byte) 0xc2, (byte) 0xc3, (byte) 0xc1, 0x1f, 0x1f, 0x1c };
+        int id1 = index.add(hash1);
+        Assert.assertEquals(1, index.size());
+        Assert.assertEquals(HashIndex.toLong(hash1), index.get(id1));
+        Assert.assertFalse(index.contains(hash2, 2));
+        Assert.assertTrue(index.contains(hash2, 3));
+        List<HashIndex.Match> matches = index.search(hash2, 3);
+        Assert.assertEquals(1, matches.size());
+        Assert.assertEquals(id1, matches.get(0).id);
+        Assert.assertEquals(3, matches.get(0).distance);
+        int id2 = index.add(hash2);
+        matches = index.search(hash2, 3);
+        Assert.assertEquals(2, matches.size());
+        Assert.assertEquals(id2, matches.get(0).id);
+        Assert.assertEquals(0, matches.get(0).distance);
+        Assert.assertTrue(index.remove(id2));
+        Assert.assertFalse(index.remove(id2));
+        Assert.assertEquals(1, index.size());
+        Assert.assertEquals(id2, index.add(hash1));
+        Assert.assertEquals(2, index.search(hash1, 0).size());
+    }
+
+    @Test
+    public void testRandomSearch() {
+        Random random = new Random(0L);
+        for (int bandNum : new int[] { 4, 8 }) {
+            HashIndex index = new HashIndex(bandNum);
+            List<Long> hashes = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                long hash = random.nextLong();
+                if (i > 0 && random.nextBoolean()) hash = flip(random, hashes.get(random.nextInt(i)), random.nextInt(16));
+                hashes.add(hash);
+                Assert.assertEquals(i, index.add(hash));
+            }
+            for (int i = 0; i < 1000; i += 3) Assert.assertTrue(index.remove(i));
+            for (int round = 0; round < 200; round++) {
+                long query = flip(random, hashes.get(random.nextInt(hashes.size())), random.nextInt(12));
+                int radius = random.nextInt(14);
+                List<Integer> expected = new ArrayList<>();
+                for (int id = 0; id < hashes.size(); id++) {
+                    if (id < 1000 && id % 3 == 0) continue;
+                    if (Long.bitCount(hashes.get(id) ^ query) <= radius) expected.add(id);
+                }
+                List<Integer> actual = new ArrayList<>();
+                for (HashIndex.Match match : index.search(query, radius)) actual.add(match.id);
+                actual.sort(null);
+                Assert.assertEquals(expected, actual);
+                Assert.assertEquals(!expected.isEmpty(), index.contains(query, radius));
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        Random random = new Random(0L);
+        HashIndex index = new HashIndex(8);
+        for (int i = 0; i < 1000; i++) index.add(random.nextLong());
+        for (int i = 0; i < 1000; i += 2) index.remove(i);
+        File file = File.createTempFile("hash_index", ".snapshot");
+        try {
+            index.save(file);
+            HashIndex loadedIndex = HashIndex.load(file);
+            Assert.assertEquals(index.size(), loadedIndex.size());
+            for (int i = 1; i < 1000; i += 2) {
+                Assert.assertEquals(index.get(i), loadedIndex.get(i));
+                Assert.assertEquals(i, loadedIndex.search(index.get(i), 0).get(0).id);
+            }
+            Assert.assertFalse(loadedIndex.remove(0));
+            int id = loadedIndex.add(random.nextLong());
+            Assert.assertTrue(id < 1000 && id % 2 == 0);
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    private static long flip(Random random, long hash, int bits) {
+        for (int i = 0; i < bits; i++) hash ^= 1L << random.nextInt(64);
+        return hash;
+    }
+}
@@ -17,7 +17,7 @@ public class DummyRecordProcessor implements KafkaRecordProcessor {
     @Override
     public void process(ConsumerRecord<byte[], byte[]> consumerRecord) throws Exception {
         logger.info("consume message, key[{}], value[{}] for topic[{}], offset[{}] and partition[{}]",
-                new String(consumerRecord.key(), StandardCharsets.UTF_8),
+                consumerRecord.key() == null ? null : new String(consumerRecord.key(), StandardCharsets.UTF_8),
                 new String(consumerRecord.value(), StandardCharsets.UTF_8),
                 consumerRecord.topic(), consumerRecord.offset(), consumerRecord.partition());
     }
@@ -0,0 +1,141 @@
+package xin.manong.weapon.base.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 02:28:32
+ */
+public class KafkaBatchExecutorTest {
+
+    private final String topic = "test_topic";
+    private final TopicPartition partition = new TopicPartition(topic, 0);
+
+    @Test
+    public void testAllSuccess() {
+        KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+        KafkaBatchExecutor executor = new KafkaBatchExecutor((p, records) -> records.size(),
+                offsetTracker, null, 1000L, 60000L);
+        Assert.assertEquals(-1L, executor.execute(partition, buildRecords(0L, 10L)));
+        Assert.assertFalse(executor.hasPausedPartitions());
+        Assert.assertEquals(0, offsetTracker.pendingCount());
+        Assert.assertEquals(10L, offsetTracker.commitOffsets().get(partition).offset());
+    }
+
+    @Test
+    public void testPartialSuccess() {
+        KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+        KafkaBatchExecutor executor = new KafkaBatchExecutor((p, records) -> 4,
+                offsetTracker, null, 1000L, 60000L);
+        Assert.assertEquals(14L, executor.execute(partition, buildRecords(10L, 20L)));
+        Assert.assertTrue(executor.hasPausedPartitions());
+        Assert.assertEquals(0, offsetTracker.pendingCount());
+        Assert.assertEquals(14L, offsetTracker.commitOffsets().get(partition).offset());
+    }
+
+    @Test
+    public void testClampSuccessCount() {
+        KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+        KafkaBatchExecutor executor = new KafkaBatchExecutor((p, records) -> -5,
+                offsetTracker, null, 1000L, 60000L);
+        Assert.assertEquals(0L, executor.execute(partition, buildRecords(0L, 10L)));
+        Assert.assertTrue(offsetTracker.commitOffsets().isEmpty());
+
+        offsetTracker = new KafkaOffsetTracker();
+        executor = new KafkaBatchExecutor((p, records) -> records.size() + 100,
+                offsetTracker, null, 1000L, 60000L);
+        Assert.assertEquals(-1L, executor.execute(partition, buildRecords(0L, 10L)));
+        Assert.assertEquals(10L, offsetTracker.commitOffsets().get(partition).offset());
+    }
+
+    @Test
+    public void testProcessException() {
+        KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+        KafkaConsumeMetrics metrics = new KafkaConsumeMetrics("test_consumer", "test_group");
+        KafkaBatchExecutor executor = new KafkaBatchExecutor((p, records) -> {
+            throw new Exception("process failed");
+        }, offsetTracker, metrics, 1000L, 60000L);
+        Assert.assertEquals(5L, executor.execute(partition, buildRecords(5L, 10L)));
+        Assert.assertTrue(offsetTracker.commitOffsets().isEmpty());
+        KafkaMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(1, snapshot.partitions.size());
+        Assert.assertEquals(5L, snapshot.partitions.get(0).recordCount);
+        Assert.assertEquals(5L, snapshot.partitions.get(0).failureCount);
+    }
+
+    @Test
+    public void testRetryPrefix() {
+        List<Integer> successCounts = new ArrayList<>(Arrays.asList(3, 0, 2, 100));
+        List<Long> startOffsets = new ArrayList<>();
+        KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+        KafkaConsumeMetrics metrics = new KafkaConsumeMetrics("test_consumer", "test_group");
+        KafkaBatchExecutor executor = new KafkaBatchExecutor((p, records) -> {
+            startOffsets.add(records.get(0).offset());
+            return successCounts.remove(0);
+        }, offsetTracker, metrics, 0L, 0L);
+        List<Long> committableOffsets = new ArrayList<>();
+        long offset = 0L;
+        while (offset >= 0L) {
+            offset = executor.execute(partition, buildRecords(offset, 10L));
+            committableOffsets.add(offsetTracker.commitOffsets().get(partition).offset());
+        }
+        Assert.assertEquals(Arrays.asList(0L, 3L, 3L, 5L), startOffsets);
+        Assert.assertEquals(Arrays.asList(3L, 3L, 5L, 10L), committableOffsets);
+        KafkaMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(10L + 7L + 7L + 5L, snapshot.partitions.get(0).recordCount);
+        Assert.assertEquals(7L + 7L + 5L, snapshot.partitions.get(0).failureCount);
+    }
+
+    @Test
+    public void testBackoff() {
+        KafkaBatchExecutor executor = new KafkaBatchExecutor((p, records) -> 0,
+                new KafkaOffsetTracker(), null, 1000L, 5000L);
+        Assert.assertEquals(1000L, executor.backoffMs(1));
+        Assert.assertEquals(2000L, executor.backoffMs(2));
+        Assert.assertEquals(4000L, executor.backoffMs(3));
+        Assert.assertEquals(5000L, executor.backoffMs(4));
+        Assert.assertEquals(5000L, executor.backoffMs(100));
+        executor = new KafkaBatchExecutor((p, records) -> 0,
+                new KafkaOffsetTracker(), null, 0L, 0L);
+        Assert.assertEquals(0L, executor.backoffMs(10));
+    }
+
+    @Test
+    public void testResumablePartitions() {
+        TopicPartition partition1 = new TopicPartition(topic, 1);
+        KafkaBatchExecutor executor = new KafkaBatchExecutor((p, records) -> p.partition() == 0 ? 0 : 1,
+                new KafkaOffsetTracker(), null, 1000L, 60000L);
+        long currentTime = System.currentTimeMillis();
+        executor.execute(partition, buildRecords(0L, 10L));
+        executor.execute(partition1, buildRecords(0L, 10L));
+        Assert.assertTrue(executor.resumablePartitions(currentTime).isEmpty());
+        Assert.assertTrue(executor.hasPausedPartitions());
+        List<TopicPartition> partitions = executor.resumablePartitions(currentTime + 1500L);
+        Assert.assertEquals(2, partitions.size());
+        Assert.assertTrue(partitions.contains(partition) && partitions.contains(partition1));
+        Assert.assertFalse(executor.hasPausedPartitions());
+
+        executor.execute(partition, buildRecords(0L, 10L));
+        Assert.assertTrue(executor.resumablePartitions(currentTime + 1500L).isEmpty());
+        Assert.assertEquals(1, executor.resumablePartitions(currentTime + 2500L).size());
+
+        executor.execute(partition1, buildRecords(1L, 10L));
+        executor.remove(Collections.singletonList(partition1));
+        Assert.assertFalse(executor.hasPausedPartitions());
+    }
+
+    private List<ConsumerRecord<byte[], byte[]>> buildRecords(long startOffset, long endOffset) {
+        List<ConsumerRecord<byte[], byte[]>> consumerRecords = new ArrayList<>();
+        for (long offset = startOffset; offset < endOffset; offset++) {
+            byte[] key = String.format("key_%d", offset).getBytes(StandardCharsets.UTF_8);
+            consumerRecords.add(new ConsumerRecord<>(topic, partition.partition(), offset, key, key));
+        }
+        return consumerRecords;
+    }
+}
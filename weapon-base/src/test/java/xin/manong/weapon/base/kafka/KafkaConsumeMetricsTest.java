@@ -0,0 +1,154 @@
+package xin.manong.weapon.base.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 02:09:36
+ */
+public class KafkaConsumeMetricsTest {
+
+    private final TopicPartition partition0 = new TopicPartition("test_topic", 0);
+    private final TopicPartition partition1 = new TopicPartition("test_topic", 1);
+
+    private static class MemorySink implements KafkaMetricsSink {
+
+        private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+        private final Map<String, AtomicLong> latencies = new ConcurrentHashMap<>();
+        private final Map<String, Double> gauges = new ConcurrentHashMap<>();
+
+        private static String key(String name, Map<String, String> tags) {
+            return name + new TreeMap<>(tags);
+        }
+
+        @Override
+        public void count(String name, Map<String, String> tags, long amount) {
+            counters.computeIfAbsent(key(name, tags), k -> new AtomicLong()).addAndGet(amount);
+        }
+
+        @Override
+        public void recordLatency(String name, Map<String, String> tags, long latencyNanos) {
+            latencies.computeIfAbsent(key(name, tags), k -> new AtomicLong()).incrementAndGet();
+        }
+
+        @Override
+        public void gauge(String name, Map<String, String> tags, double value) {
+            gauges.put(key(name, tags), value);
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws InterruptedException {
+        KafkaConsumeMetrics metrics = new KafkaConsumeMetrics("test_consumer", "test_group");
+        metrics.snapshot();
+        for (int i = 0; i < 100; i++) metrics.recordProcess(partition0, 1, 10L, i < 3 ? 1 : 0, 2000000L);
+        metrics.recordProcess(partition0, 1, 10L, 0, 50000000L);
+        metrics.recordProcess(partition1, 50, 500L, 5, 10000000L);
+        metrics.recordCommit(true, 1000000L);
+        metrics.recordCommit(false, 3000000L);
+        metrics.updateLag(partition0, 30L);
+        Thread.sleep(20L);
+        KafkaMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals("test_consumer", snapshot.name);
+        Assert.assertEquals(2L, snapshot.commitCount);
+        Assert.assertEquals(1L, snapshot.commitFailureCount);
+        Assert.assertEquals(3d, snapshot.commitLatencyMaxMs, 1e-9);
+        Assert.assertEquals(2, snapshot.partitions.size());
+        Assert.assertEquals(30L, snapshot.totalLag());
+        KafkaMetricsSnapshot.Partition partitionSnapshot = snapshot.partitions.stream().
+                filter(p -> p.partition == 0).findFirst().orElseThrow();
+        Assert.assertEquals(101L, partitionSnapshot.recordCount);
+        Assert.assertEquals(1010L, partitionSnapshot.byteCount);
+        Assert.assertEquals(3L, partitionSnapshot.failureCount);
+        Assert.assertEquals(30L, partitionSnapshot.lag);
+        Assert.assertTrue(partitionSnapshot.processLatencyP50Ms >= 2d && partitionSnapshot.processLatencyP50Ms < 4d);
+        Assert.assertTrue(partitionSnapshot.processLatencyP99Ms >= 2d && partitionSnapshot.processLatencyP99Ms < 4d);
+        Assert.assertEquals(50d, partitionSnapshot.processLatencyMaxMs, 1e-9);
+        Assert.assertTrue(partitionSnapshot.recordsPerSecond > 0d);
+        Assert.assertTrue(partitionSnapshot.bytesPerSecond > 0d);
+
+        Thread.sleep(20L);
+        snapshot = metrics.snapshot();
+        for (KafkaMetricsSnapshot.Partition p : snapshot.partitions) {
+            Assert.assertEquals(0d, p.recordsPerSecond, 0d);
+            Assert.assertEquals(0d, p.bytesPerSecond, 0d);
+        }
+        KafkaMetricsSnapshot.Partition p1 = snapshot.partitions.stream().
+                filter(p -> p.partition == 1).findFirst().orElseThrow();
+        Assert.assertEquals(-1L, p1.lag);
+
+        metrics.remove(Collections.singletonList(partition1));
+        Assert.assertEquals(1, metrics.snapshot().partitions.size());
+        metrics.retain(Collections.emptyList());
+        Assert.assertTrue(metrics.snapshot().partitions.isEmpty());
+    }
+
+    @Test
+    public void testLagKeepsRate() throws InterruptedException {
+        KafkaConsumeMetrics metrics = new KafkaConsumeMetrics("test_consumer", "test_group");
+        Assert.assertEquals(0L, metrics.lag());
+        metrics.recordProcess(partition0, 10, 100L, 0, 1000L);
+        metrics.recordProcess(partition1, 10, 100L, 0, 1000L);
+        metrics.updateLag(partition0, 20L);
+        Thread.sleep(20L);
+        for (int i = 0; i < 3; i++) Assert.assertEquals(20L, metrics.lag());
+        KafkaMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(20L, snapshot.totalLag());
+        for (KafkaMetricsSnapshot.Partition p : snapshot.partitions) {
+            Assert.assertTrue(p.recordsPerSecond > 0d);
+            Assert.assertTrue(p.bytesPerSecond > 0d);
+        }
+        metrics.updateLag(partition1, 5L);
+        Assert.assertEquals(25L, metrics.lag());
+    }
+
+    @Test
+    public void testSink() {
+        KafkaConsumeMetrics metrics = new KafkaConsumeMetrics("test_consumer", "test_group");
+        MemorySink sink = new MemorySink();
+        metrics.recordProcess(partition0, 1, 10L, 0, 1000L);
+        metrics.setSink(sink);
+        metrics.recordProcess(partition0, 2, 20L, 1, 1000L);
+        metrics.recordCommit(false, 1000L);
+        metrics.updateLag(partition0, 7L);
+        String partitionTags = new TreeMap<>(Map.of(KafkaMetricsSink.TAG_GROUP, "test_group",
+                KafkaMetricsSink.TAG_TOPIC, "test_topic", KafkaMetricsSink.TAG_PARTITION, "0")).toString();
+        String commitTags = new TreeMap<>(Map.of(KafkaMetricsSink.TAG_GROUP, "test_group",
+                KafkaMetricsSink.TAG_CONSUMER, "test_consumer")).toString();
+        Assert.assertEquals(2L, sink.counters.get(KafkaMetricsSink.RECORDS + partitionTags).get());
+        Assert.assertEquals(20L, sink.counters.get(KafkaMetricsSink.BYTES + partitionTags).get());
+        Assert.assertEquals(1L, sink.counters.get(KafkaMetricsSink.PROCESS_FAILURES + partitionTags).get());
+        Assert.assertEquals(1L, sink.latencies.get(KafkaMetricsSink.PROCESS_LATENCY + partitionTags).get());
+        Assert.assertEquals(1L, sink.counters.get(KafkaMetricsSink.COMMIT_FAILURES + commitTags).get());
+        Assert.assertEquals(1L, sink.latencies.get(KafkaMetricsSink.COMMIT_LATENCY + commitTags).get());
+        Assert.assertEquals(7d, sink.gauges.get(KafkaMetricsSink.LAG + partitionTags), 0d);
+    }
+
+    @Test
+    public void testRecordSize() {
+        Assert.assertEquals(0L, KafkaConsumeMetrics.recordSize(
+                new ConsumerRecord<>("test_topic", 0, 0L, null, null)));
+        Assert.assertEquals(5L, KafkaConsumeMetrics.recordSize(
+                new ConsumerRecord<>("test_topic", 0, 0L, new byte[2], new byte[3])));
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        KafkaConsumeMetrics.LatencyHistogram histogram = new KafkaConsumeMetrics.LatencyHistogram();
+        Assert.assertEquals(0d, histogram.percentileMs(0.99d), 0d);
+        for (int i = 1; i <= 1000; i++) histogram.record(i * 1000000L);
+        Assert.assertEquals(1000d, histogram.maxMs(), 1e-9);
+        double p50 = histogram.percentileMs(0.5d);
+        Assert.assertTrue(p50 >= 500d && p50 <= 1000d);
+        Assert.assertEquals(1000d, histogram.percentileMs(1d), 1e-9);
+        histogram.record(-1L);
+        Assert.assertTrue(histogram.percentileMs(0d) <= 0.001d);
+    }
+}
@@ -0,0 +1,132 @@
+package xin.manong.weapon.base.kafka;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 02:03:38
+ */
+public class KafkaOffsetTrackerTest {
+
+    private final TopicPartition partition0 = new TopicPartition("test_topic", 0);
+    private final TopicPartition partition1 = new TopicPartition("test_topic", 1);
+
+    @Test
+    public void testContiguousCommit() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        for (long offset : new long[] { 10L, 11L, 13L, 14L }) tracker.fetch(partition0, offset);
+        tracker.fetch(partition1, 5L);
+        Assert.assertEquals(5, tracker.pendingCount());
+        Assert.assertTrue(tracker.complete(partition0, 11L));
+        Assert.assertTrue(tracker.complete(partition0, 14L));
+        Assert.assertFalse(tracker.shouldCommit(1, Long.MAX_VALUE));
+        Assert.assertTrue(tracker.commitOffsets().isEmpty());
+        Assert.assertTrue(tracker.complete(partition0, 10L));
+        Assert.assertFalse(tracker.complete(partition0, 12L));
+        Assert.assertTrue(tracker.shouldCommit(2, Long.MAX_VALUE));
+        Map<TopicPartition, OffsetAndMetadata> offsets = tracker.commitOffsets();
+        Assert.assertEquals(1, offsets.size());
+        Assert.assertEquals(12L, offsets.get(partition0).offset());
+        Assert.assertEquals(12L, tracker.commitOffsets().get(partition0).offset());
+        tracker.completeCommit(offsets, true);
+        Assert.assertTrue(tracker.commitOffsets().isEmpty());
+        Assert.assertTrue(tracker.complete(partition0, 13L));
+        Assert.assertTrue(tracker.complete(partition1, 5L));
+        Assert.assertEquals(0, tracker.pendingCount());
+        offsets = tracker.commitOffsets();
+        Assert.assertEquals(15L, offsets.get(partition0).offset());
+        Assert.assertEquals(6L, offsets.get(partition1).offset());
+    }
+
+    @Test
+    public void testShouldCommit() throws InterruptedException {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        tracker.fetch(partition0, 0L);
+        tracker.complete(partition0, 0L);
+        Assert.assertFalse(tracker.shouldCommit(100, 60000L));
+        Thread.sleep(20L);
+        Assert.assertTrue(tracker.shouldCommit(100, 10L));
+        tracker.commitOffsets();
+        Assert.assertFalse(tracker.shouldCommit(100, 10L));
+    }
+
+    @Test
+    public void testRevoke() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        tracker.fetch(partition0, 0L);
+        tracker.fetch(partition0, 1L);
+        tracker.fetch(partition1, 0L);
+        tracker.complete(partition0, 0L);
+        tracker.complete(partition1, 0L);
+        Assert.assertEquals(1, tracker.pendingCount(Collections.singletonList(partition0)));
+        Assert.assertEquals(0, tracker.pendingCount(Collections.singletonList(partition1)));
+        Map<TopicPartition, OffsetAndMetadata> offsets = tracker.commitOffsets(Collections.singletonList(partition0));
+        Assert.assertEquals(1, offsets.size());
+        Assert.assertEquals(1L, offsets.get(partition0).offset());
+        tracker.remove(Collections.singletonList(partition0));
+        Assert.assertFalse(tracker.complete(partition0, 1L));
+        offsets = tracker.commitOffsets();
+        Assert.assertEquals(1, offsets.size());
+        Assert.assertEquals(1L, offsets.get(partition1).offset());
+    }
+
+    @Test
+    public void testCommitFailedThenRevoke() throws InterruptedException {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        tracker.fetch(partition0, 0L);
+        tracker.fetch(partition1, 0L);
+        tracker.complete(partition0, 0L);
+        tracker.complete(partition1, 0L);
+        Map<TopicPartition, OffsetAndMetadata> offsets = tracker.commitOffsets();
+        Assert.assertEquals(2, offsets.size());
+        Assert.assertFalse(tracker.shouldCommit(100, 10L));
+        tracker.completeCommit(Collections.singletonMap(partition1, offsets.get(partition1)), true);
+        tracker.completeCommit(Collections.singletonMap(partition0, offsets.get(partition0)), false);
+        Assert.assertFalse(tracker.shouldCommit(100, 60000L));
+        Thread.sleep(20L);
+        Assert.assertTrue(tracker.shouldCommit(100, 10L));
+        offsets = tracker.commitOffsets(Arrays.asList(partition0, partition1));
+        Assert.assertEquals(1, offsets.size());
+        Assert.assertEquals(1L, offsets.get(partition0).offset());
+        tracker.completeCommit(offsets, true);
+        Assert.assertTrue(tracker.commitOffsets(Collections.singletonList(partition0)).isEmpty());
+        tracker.remove(Arrays.asList(partition0, partition1));
+        tracker.completeCommit(offsets, true);
+        Assert.assertTrue(tracker.commitOffsets().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentComplete() throws InterruptedException {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        int recordNum = 10000;
+        List<Long> offsets = new ArrayList<>();
+        for (long offset = 0; offset < recordNum; offset++) {
+            tracker.fetch(partition0, offset * 2);
+            offsets.add(offset * 2);
+        }
+        Collections.shuffle(offsets, new Random(0L));
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> {
+                for (int j = index; j < offsets.size(); j += threads.length) tracker.complete(partition0, offsets.get(j));
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) thread.join();
+        Assert.assertEquals(0, tracker.pendingCount());
+        Assert.assertEquals(recordNum * 2 - 1, tracker.commitOffsets().get(partition0).offset());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFetchNotIncreasing() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        tracker.fetch(partition0, 10L);
+        tracker.fetch(partition0, 9L);
+    }
+}
@@ -0,0 +1,136 @@
+package xin.manong.weapon.base.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 02:05:26
+ */
+public class KafkaRecordDispatcherTest {
+
+    private final String topic = "test_topic";
+
+    @Test
+    public void testKeyOrder() {
+        Map<String, List<Long>> keyOffsets = new ConcurrentHashMap<>();
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        AtomicInteger processCount = new AtomicInteger(0);
+        KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+        KafkaRecordDispatcher dispatcher = new KafkaRecordDispatcher("test", 4, consumerRecord -> {
+            threadNames.add(Thread.currentThread().getName());
+            String key = new String(consumerRecord.key(), StandardCharsets.UTF_8);
+            keyOffsets.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).
+                    add(consumerRecord.offset());
+            if (processCount.incrementAndGet() % 7 == 0) throw new Exception("process failed");
+        }, offsetTracker);
+        dispatcher.start();
+        TopicPartition partition = new TopicPartition(topic, 0);
+        for (long offset = 0; offset < 1000; offset++) {
+            byte[] key = String.format("key_%d", offset % 10).getBytes(StandardCharsets.UTF_8);
+            offsetTracker.fetch(partition, offset);
+            dispatcher.dispatch(new ConsumerRecord<>(topic, 0, offset, key, key));
+        }
+        dispatcher.stop();
+        Assert.assertEquals(1000, processCount.get());
+        Assert.assertTrue(threadNames.size() > 1);
+        Assert.assertEquals(10, keyOffsets.size());
+        for (List<Long> offsets : keyOffsets.values()) {
+            Assert.assertEquals(100, offsets.size());
+            for (int i = 1; i < offsets.size(); i++) Assert.assertTrue(offsets.get(i - 1) < offsets.get(i));
+        }
+        Assert.assertEquals(0, offsetTracker.pendingCount());
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.commitOffsets();
+        Assert.assertEquals(1000L, offsets.get(partition).offset());
+    }
+
+    @Test
+    public void testNullKey() {
+        List<Long> processOffsets = Collections.synchronizedList(new ArrayList<>());
+        KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+        KafkaRecordDispatcher dispatcher = new KafkaRecordDispatcher("test", 3,
+                consumerRecord -> processOffsets.add(consumerRecord.offset()), offsetTracker);
+        dispatcher.start();
+        TopicPartition partition = new TopicPartition(topic, 1);
+        for (long offset = 0; offset < 100; offset++) {
+            offsetTracker.fetch(partition, offset);
+            dispatcher.dispatch(new ConsumerRecord<>(topic, 1, offset, null, new byte[0]));
+        }
+        dispatcher.stop();
+        Assert.assertEquals(100, processOffsets.size());
+        for (int i = 0; i < processOffsets.size(); i++) Assert.assertEquals(i, processOffsets.get(i).longValue());
+        Assert.assertEquals(100L, offsetTracker.commitOffsets().get(partition).offset());
+    }
+
+    @Test
+    public void testPositionReset() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Long> processOffsets = Collections.synchronizedList(new ArrayList<>());
+        KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+        KafkaRecordDispatcher dispatcher = new KafkaRecordDispatcher("test", 1, consumerRecord -> {
+            latch.await();
+            processOffsets.add(consumerRecord.offset());
+        }, offsetTracker);
+        dispatcher.start();
+        TopicPartition partition = new TopicPartition(topic, 0);
+        dispatcher.dispatch(partition, buildRecords(0, 100L, 110L));
+        Assert.assertEquals(10, offsetTracker.pendingCount());
+        dispatcher.dispatch(partition, buildRecords(0, 50L, 55L));
+        Assert.assertEquals(5, offsetTracker.pendingCount());
+        latch.countDown();
+        dispatcher.stop();
+        Assert.assertEquals(15, processOffsets.size());
+        Assert.assertEquals(0, offsetTracker.pendingCount());
+        Assert.assertEquals(55L, offsetTracker.commitOffsets().get(partition).offset());
+    }
+
+    @Test
+    public void testDiscard() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<ConsumerRecord<byte[], byte[]>> processRecords = Collections.synchronizedList(new ArrayList<>());
+        KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+        KafkaRecordDispatcher dispatcher = new KafkaRecordDispatcher("test", 2, consumerRecord -> {
+            latch.await();
+            processRecords.add(consumerRecord);
+        }, offsetTracker);
+        dispatcher.start();
+        TopicPartition partition0 = new TopicPartition(topic, 0);
+        TopicPartition partition1 = new TopicPartition(topic, 1);
+        dispatcher.dispatch(partition0, buildRecords(0, 0L, 100L));
+        dispatcher.dispatch(partition1, buildRecords(1, 0L, 100L));
+        Thread.sleep(100L);
+        int count = dispatcher.discard(Collections.singletonList(partition0));
+        Assert.assertTrue(count >= 98 && count <= 100);
+        latch.countDown();
+        dispatcher.stop();
+        long partition0Count = processRecords.stream().filter(r -> r.partition() == 0).count();
+        long partition1Count = processRecords.stream().filter(r -> r.partition() == 1).count();
+        Assert.assertEquals(100 - count, partition0Count);
+        Assert.assertEquals(100L, partition1Count);
+        Assert.assertEquals(count, offsetTracker.pendingCount(Collections.singletonList(partition0)));
+        Assert.assertEquals(0, offsetTracker.pendingCount(Collections.singletonList(partition1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWorkerNum() {
+        new KafkaRecordDispatcher("test", 0, consumerRecord -> {}, new KafkaOffsetTracker());
+    }
+
+    private List<ConsumerRecord<byte[], byte[]>> buildRecords(int partition, long startOffset, long endOffset) {
+        List<ConsumerRecord<byte[], byte[]>> consumerRecords = new ArrayList<>();
+        for (long offset = startOffset; offset < endOffset; offset++) {
+            byte[] key = String.format("key_%d", offset).getBytes(StandardCharsets.UTF_8);
+            consumerRecords.add(new ConsumerRecord<>(topic, partition, offset, key, key));
+        }
+        return consumerRecords;
+    }
+}
@@ -9,6 +9,8 @@ import xin.manong.weapon.base.util.RandomID;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author frankcl
@@ -17,6 +19,7 @@ import java.util.ArrayList;
 public class KafkaTest {
 
     private final String topic = "test_topic";
+    private KafkaAuthConfig authConfig;
     private KafkaProducer producer;
     private KafkaConsumeGroup consumeGroup;
 
@@ -26,7 +29,7 @@ public class KafkaTest {
         String password = "";
         String servers = "localhost:9092";
 
-        KafkaAuthConfig authConfig = new KafkaAuthConfig();
+        authConfig = new KafkaAuthConfig();
         authConfig.securityProtocol = KafkaAuthConfig.PROTOCOL_SASL_PLAINTEXT;
         authConfig.saslMechanism = "SCRAM-SHA-256";
         authConfig.saslJaasConfig = String.format(
@@ -69,4 +72,33 @@ public class KafkaTest {
         }
         Thread.sleep(5000);
     }
+
+    @Test
+    public void testProduceAsync() throws Exception {
+        KafkaProduceConfig produceConfig = new KafkaProduceConfig();
+        produceConfig.authConfig = authConfig;
+        produceConfig.servers = "localhost:9092";
+        produceConfig.lingerMs = 5;
+        produceConfig.compressionType = "lz4";
+        KafkaProducer asyncProducer = new KafkaProducer(produceConfig);
+        Assert.assertTrue(asyncProducer.init());
+        try {
+            List<CompletableFuture<RecordMetadata>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String message = String.format("message-%s", RandomID.build());
+                futures.add(asyncProducer.sendAsync(message.getBytes(StandardCharsets.UTF_8), topic));
+            }
+            asyncProducer.flush();
+            for (CompletableFuture<RecordMetadata> future : futures) Assert.assertNotNull(future.get());
+            Assert.assertTrue(asyncProducer.sendAsync(new byte[0], topic).isCompletedExceptionally());
+            CompletableFuture<RecordMetadata> callbackFuture = new CompletableFuture<>();
+            asyncProducer.sendWithCallback(null, "message".getBytes(StandardCharsets.UTF_8), topic,
+                    (recordMetadata, exception) -> callbackFuture.complete(recordMetadata));
+            asyncProducer.flush();
+            Assert.assertNotNull(callbackFuture.get());
+            Thread.sleep(5000);
+        } finally {
+            asyncProducer.destroy();
+        }
+    }
 }
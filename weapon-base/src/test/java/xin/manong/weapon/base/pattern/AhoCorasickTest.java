@@ -0,0 +1,124 @@
+package xin.manong.weapon.base.pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:46:01
+ */
+public class AhoCorasickTest {
+
+    @Test
+    public void testSearch() {
+        List<String> patterns = new ArrayList<>();
+        patterns.add("英文名");
+        patterns.add("景德镇");
+        patterns.add("china");
+        AhoCorasick ac = new AhoCorasick(patterns);
+        List<MatchResult> matchResults = ac.search("中国人说中文，爱中国，中国的英文名是china，瓷器的英文名也是china，景德镇产瓷器");
+        Assert.assertEquals(3, matchResults.size());
+        Assert.assertEquals("英文名", matchResults.get(0).pattern);
+        Assert.assertEquals(2, matchResults.get(0).positions.size());
+        Assert.assertEquals("景德镇", matchResults.get(1).pattern);
+        Assert.assertEquals(1, matchResults.get(1).positions.size());
+        Assert.assertEquals("china", matchResults.get(2).pattern);
+        Assert.assertEquals(2, matchResults.get(2).positions.size());
+        Assert.assertTrue(ac.search("中国").isEmpty());
+    }
+
+    @Test
+    public void testSearchShortPatterns() {
+        List<String> patterns = new ArrayList<>();
+        patterns.add("哈");
+        patterns.add("哈哈");
+        patterns.add("哈哈嘿");
+        patterns.add("嘿");
+        AhoCorasick ac = new AhoCorasick(patterns);
+        List<MatchResult> matchResults = ac.search("哈哈哈哈哈哈哈哈哈嘿");
+        Assert.assertEquals(4, matchResults.size());
+        Assert.assertEquals(9, matchResults.get(0).positions.size());
+        Assert.assertEquals(8, matchResults.get(1).positions.size());
+        Assert.assertEquals(1, matchResults.get(2).positions.size());
+        Assert.assertEquals(7, matchResults.get(2).positions.get(0).intValue());
+        Assert.assertEquals(1, matchResults.get(3).positions.size());
+        Assert.assertEquals(9, matchResults.get(3).positions.get(0).intValue());
+    }
+
+    @Test
+    public void testNormalize() {
+        List<String> patterns = new ArrayList<>();
+        patterns.add("China");
+        patterns.add("ＡＢＣ１２３");
+        AhoCorasick ac = new AhoCorasick(patterns, true, true);
+        List<MatchResult> matchResults = ac.search("CHINA和china，ａｂｃ123和AbC１２３");
+        Assert.assertEquals(2, matchResults.size());
+        Assert.assertEquals("China", matchResults.get(0).pattern);
+        Assert.assertEquals(2, matchResults.get(0).positions.size());
+        Assert.assertEquals(0, matchResults.get(0).positions.get(0).intValue());
+        Assert.assertEquals(6, matchResults.get(0).positions.get(1).intValue());
+        Assert.assertEquals("ＡＢＣ１２３", matchResults.get(1).pattern);
+        Assert.assertEquals(2, matchResults.get(1).positions.size());
+        Assert.assertEquals(12, matchResults.get(1).positions.get(0).intValue());
+        Assert.assertEquals(19, matchResults.get(1).positions.get(1).intValue());
+        Assert.assertTrue(new AhoCorasick(patterns).search("CHINA和ａｂｃ123").isEmpty());
+    }
+
+    @Test
+    public void testSearchCallback() {
+        List<String> patterns = new ArrayList<>();
+        patterns.add("abcab");
+        patterns.add("cab");
+        AhoCorasick ac = new AhoCorasick(patterns);
+        String text = "abcabcab";
+        List<String> hits = new ArrayList<>();
+        ac.search(text, (patternIndex, start, end) -> {
+            Assert.assertEquals(ac.getPattern(patternIndex), text.substring(start, end));
+            return hits.add(String.format("%d:%d", patternIndex, start));
+        });
+        Assert.assertEquals(4, hits.size());
+        hits.clear();
+        ac.search(text, (patternIndex, start, end) -> hits.add(String.format("%d:%d", patternIndex, start)) && false);
+        Assert.assertEquals(1, hits.size());
+        hits.clear();
+        ac.search(text, 1, 7, (patternIndex, start, end) -> hits.add(String.format("%d:%d", patternIndex, start)));
+        Assert.assertEquals(1, hits.size());
+        Assert.assertEquals("1:2", hits.get(0));
+    }
+
+    @Test
+    public void testRandomSearch() {
+        Random random = new Random(0L);
+        for (int round = 0; round < 50; round++) {
+            List<String> patterns = new ArrayList<>();
+            int patternNum = 1 + random.nextInt(200);
+            for (int i = 0; i < patternNum; i++) patterns.add(randomString(random, 1 + random.nextInt(6)));
+            String text = randomString(random, 2000);
+            AhoCorasick ac = new AhoCorasick(patterns);
+            List<String> hits = new ArrayList<>();
+            ac.search(text, (patternIndex, start, end) -> hits.add(String.format("%d:%d", patternIndex, start)));
+            List<String> expectedHits = new ArrayList<>();
+            for (int i = 0; i < patterns.size(); i++) {
+                String pattern = patterns.get(i);
+                for (int pos = text.indexOf(pattern); pos != -1; pos = text.indexOf(pattern, pos + 1)) {
+                    expectedHits.add(String.format("%d:%d", i, pos));
+                }
+            }
+            hits.sort(null);
+            expectedHits.sort(null);
+            Assert.assertEquals(expectedHits, hits);
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(random.nextBoolean() ? (char) ('a' + random.nextInt(3)) : (char) ('中' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+}
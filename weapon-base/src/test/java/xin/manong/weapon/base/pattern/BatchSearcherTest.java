@@ -0,0 +1,89 @@
+package xin.manong.weapon.base.pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:48:07
+ */
+public class BatchSearcherTest {
+
+    @Test
+    public void testWMBatchSearch() {
+        List<String> patterns = new ArrayList<>();
+        patterns.add("英文名");
+        patterns.add("景德镇");
+        patterns.add("china");
+        WM wm = new WM(patterns);
+        List<String> texts = new ArrayList<>();
+        texts.add("中国人说中文，爱中国，中国的英文名是china，瓷器的英文名也是china，景德镇产瓷器");
+        texts.add("中国");
+        texts.add(null);
+        texts.add("江西省会不是景德镇，景德镇产瓷器，瓷器英文名是china!!!");
+        List<List<MatchResult>> results = wm.search(texts);
+        Assert.assertEquals(4, results.size());
+        assertEquals(wm.search(texts.get(0)), results.get(0));
+        Assert.assertTrue(results.get(1).isEmpty());
+        Assert.assertTrue(results.get(2).isEmpty());
+        assertEquals(wm.search(texts.get(3)), results.get(3));
+    }
+
+    @Test
+    public void testBMBatchSearch() {
+        BM bm = new BM("万岁");
+        List<String> texts = new ArrayList<>();
+        texts.add("中华人民共和国万岁，万万岁");
+        texts.add("一个好人");
+        List<List<MatchResult>> results = bm.search(texts);
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals(1, results.get(0).size());
+        Assert.assertEquals("万岁", results.get(0).get(0).pattern);
+        Assert.assertEquals(2, results.get(0).get(0).positions.size());
+        Assert.assertEquals(7, results.get(0).get(0).positions.get(0).intValue());
+        Assert.assertEquals(11, results.get(0).get(0).positions.get(1).intValue());
+        Assert.assertTrue(results.get(1).isEmpty());
+    }
+
+    @Test
+    public void testChunkSearch() {
+        Random random = new Random(0L);
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 100; i++) patterns.add(randomString(random, 2 + random.nextInt(6)));
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) texts.add(randomString(random, random.nextInt(5000)));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CompiledWM wm = new CompiledWM(patterns);
+            AhoCorasick ac = new AhoCorasick(patterns);
+            for (PatternMatcher matcher : new PatternMatcher[] { wm, ac }) {
+                for (int chunkSize : new int[] { 1, 7, 100, 65536 }) {
+                    List<List<MatchResult>> results = new BatchSearcher(matcher, pool, chunkSize).search(texts.stream());
+                    Assert.assertEquals(texts.size(), results.size());
+                    for (int i = 0; i < texts.size(); i++) assertEquals(ac.search(texts.get(i)), results.get(i));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertEquals(List<MatchResult> expected, List<MatchResult> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).pattern, actual.get(i).pattern);
+            Assert.assertEquals(expected.get(i).positions, actual.get(i).positions);
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) builder.append((char) ('a' + random.nextInt(3)));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package xin.manong.weapon.base.pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:44:40
+ */
+public class CompiledWMTest {
+
+    @Test
+    public void testSearch() {
+        List<String> patterns = new ArrayList<>();
+        patterns.add("英文名");
+        patterns.add("景德镇");
+        patterns.add("china");
+        CompiledWM wm = new CompiledWM(patterns);
+        List<MatchResult> matchResults = wm.search("中国人说中文，爱中国，中国的英文名是china，瓷器的英文名也是china，景德镇产瓷器");
+        Assert.assertEquals(3, matchResults.size());
+        Assert.assertEquals("英文名", matchResults.get(0).pattern);
+        Assert.assertEquals(2, matchResults.get(0).positions.size());
+        Assert.assertEquals("景德镇", matchResults.get(1).pattern);
+        Assert.assertEquals(1, matchResults.get(1).positions.size());
+        Assert.assertEquals("china", matchResults.get(2).pattern);
+        Assert.assertEquals(2, matchResults.get(2).positions.size());
+        Assert.assertTrue(wm.search("中国").isEmpty());
+    }
+
+    @Test
+    public void testSearchSpecial() {
+        List<String> patterns = new ArrayList<>();
+        patterns.add("哈");
+        patterns.add("哈哈");
+        patterns.add("哈哈嘿");
+        CompiledWM wm = new CompiledWM(patterns, 3);
+        List<MatchResult> matchResults = wm.search(new StringBuilder("哈哈哈哈哈哈哈哈哈"));
+        Assert.assertEquals(2, matchResults.size());
+        Assert.assertEquals("哈", matchResults.get(0).pattern);
+        Assert.assertEquals(9, matchResults.get(0).positions.size());
+        Assert.assertEquals("哈哈", matchResults.get(1).pattern);
+        Assert.assertEquals(8, matchResults.get(1).positions.size());
+    }
+
+    @Test
+    public void testSearchCallback() {
+        List<String> patterns = new ArrayList<>();
+        patterns.add("abcab");
+        patterns.add("cab");
+        CompiledWM wm = new CompiledWM(patterns);
+        String text = "abcabcab";
+        List<String> hits = new ArrayList<>();
+        wm.search(text, (patternIndex, start, end) -> {
+            Assert.assertEquals(wm.getPattern(patternIndex), text.substring(start, end));
+            hits.add(String.format("%d:%d", patternIndex, start));
+            return true;
+        });
+        Assert.assertEquals(4, hits.size());
+        Assert.assertTrue(hits.contains("0:0"));
+        Assert.assertTrue(hits.contains("0:3"));
+        Assert.assertTrue(hits.contains("1:2"));
+        Assert.assertTrue(hits.contains("1:5"));
+        hits.clear();
+        wm.search(text, (patternIndex, start, end) -> hits.add(String.format("%d:%d", patternIndex, start)) && false);
+        Assert.assertEquals(1, hits.size());
+        hits.clear();
+        wm.search(text, 1, 7, (patternIndex, start, end) -> hits.add(String.format("%d:%d", patternIndex, start)));
+        Assert.assertEquals(1, hits.size());
+        Assert.assertEquals("1:2", hits.get(0));
+    }
+
+    @Test
+    public void testRandomSearch() {
+        Random random = new Random(0L);
+        for (int round = 0; round < 50; round++) {
+            List<String> patterns = new ArrayList<>();
+            int patternNum = 1 + random.nextInt(200);
+            for (int i = 0; i < patternNum; i++) patterns.add(randomString(random, 1 + random.nextInt(6)));
+            StringBuilder text = new StringBuilder(randomString(random, 2000));
+            CompiledWM wm = new CompiledWM(patterns, 1 + random.nextInt(3));
+            List<String> hits = new ArrayList<>();
+            wm.search(text, (patternIndex, start, end) -> hits.add(String.format("%d:%d", patternIndex, start)));
+            List<String> expectedHits = new ArrayList<>();
+            for (int i = 0; i < patterns.size(); i++) {
+                String pattern = patterns.get(i);
+                for (int pos = text.indexOf(pattern); pos != -1; pos = text.indexOf(pattern, pos + 1)) {
+                    expectedHits.add(String.format("%d:%d", i, pos));
+                }
+            }
+            hits.sort(null);
+            expectedHits.sort(null);
+            Assert.assertEquals(expectedHits, hits);
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) builder.append((char) ('a' + random.nextInt(4)));
+        return builder.toString();
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author frankcl
@@ -93,4 +95,35 @@ public class WMTest {
         Assert.assertEquals("会不是", matchResults.get(2).pattern);
         Assert.assertEquals(1, matchResults.get(2).positions.size());
     }
+
+    @Test
+    public void testConcurrentRebuild() throws Exception {
+        List<String> patterns1 = new ArrayList<>();
+        patterns1.add("景德镇");
+        patterns1.add("瓷器");
+        List<String> patterns2 = new ArrayList<>();
+        patterns2.add("江西");
+        patterns2.add("省会");
+        patterns2.add("china");
+        WM wm = new WM(patterns1);
+        String text = "江西省会不是景德镇，景德镇产瓷器，瓷器英文名是china!!!";
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger errorCount = new AtomicInteger(0);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                while (running.get()) {
+                    List<MatchResult> matchResults = wm.search(text);
+                    int matchNum = matchResults.stream().mapToInt(r -> r.positions.size()).sum();
+                    if (matchNum != 4 && matchNum != 3) errorCount.incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < 200; i++) wm.rebuild(i % 2 == 0 ? patterns2 : patterns1);
+        running.set(false);
+        for (Thread thread : threads) thread.join();
+        Assert.assertEquals(0, errorCount.get());
+        Assert.assertEquals(4, wm.search(text).stream().mapToInt(r -> r.positions.size()).sum());
+    }
 }
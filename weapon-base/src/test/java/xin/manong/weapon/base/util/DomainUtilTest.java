@@ -3,6 +3,13 @@ package xin.manong.weapon.base.util;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * @author frankcl
  * @date 2022-08-08 11:58:05
@@ -40,4 +47,48 @@ public class DomainUtilTest {
         Assert.assertEquals("", DomainUtil.getDomain(""));
         Assert.assertNull(DomainUtil.getDomain(null));
     }
+
+    @Test
+    public void testGetDomainCorner() {
+        Assert.assertEquals("sina.com.cn", DomainUtil.getDomain("www.sina.com.cn."));
+        Assert.assertEquals("com.cn", DomainUtil.getDomain("com.cn"));
+        Assert.assertEquals("com", DomainUtil.getDomain("com"));
+        Assert.assertEquals("www.com", DomainUtil.getDomain("www.com"));
+        Assert.assertEquals(".com", DomainUtil.getDomain("a..com"));
+        Assert.assertEquals(".com", DomainUtil.getDomain(".com"));
+        Assert.assertEquals("...", DomainUtil.getDomain("..."));
+        Assert.assertEquals("abc.unknown.", DomainUtil.getDomain("abc.unknown."));
+    }
+
+    @Test
+    public void testGetDomainOffset() {
+        StringBuilder host = new StringBuilder("abc.blog.sina.com.cn");
+        Assert.assertEquals(9, DomainUtil.getDomainOffset(host));
+        Assert.assertEquals(-1, DomainUtil.getDomainOffset("www.abc.unknown"));
+        Assert.assertEquals(-1, DomainUtil.getDomainOffset(""));
+        Assert.assertEquals(-1, DomainUtil.getDomainOffset(null));
+        Assert.assertEquals(0, DomainUtil.getDomainOffset("g.cn"));
+    }
+
+    @Test
+    public void testLoadPublicSuffixes() throws IOException {
+        File file = File.createTempFile("public_suffix_list", ".dat");
+        try {
+            List<String> lines = Arrays.asList("// comment", "", "github.io", "*.kawasaki.jp",
+                    "!city.kawasaki.jp", "co.uk  // inline");
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+            Assert.assertFalse(DomainUtil.loadPublicSuffixes(file.getPath() + ".missing"));
+            Assert.assertTrue(DomainUtil.loadPublicSuffixes(file.getPath()));
+            Assert.assertEquals("frankcl.github.io", DomainUtil.getDomain("www.frankcl.github.io"));
+            Assert.assertEquals("bbc.co.uk", DomainUtil.getDomain("news.bbc.co.uk"));
+            Assert.assertEquals("a.b.kawasaki.jp", DomainUtil.getDomain("www.a.b.kawasaki.jp"));
+            Assert.assertEquals("city.kawasaki.jp", DomainUtil.getDomain("www.city.kawasaki.jp"));
+            Assert.assertEquals("www.kawasaki.jp", DomainUtil.getDomain("www.kawasaki.jp"));
+            Assert.assertEquals("sina.com.cn", DomainUtil.getDomain("www.sina.com.cn"));
+        } finally {
+            Files.write(file.toPath(), new byte[0]);
+            Assert.assertTrue(DomainUtil.loadPublicSuffixes(file.getPath()));
+            Assert.assertTrue(file.delete());
+        }
+    }
 }
@@ -3,6 +3,10 @@ package xin.manong.weapon.base.util;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
 /**
  * @author frankcl
  * @date 2019-05-27 20:13
@@ -17,4 +21,60 @@ public class FP63Test {
                 FP63.newFP63(string.getBytes(), 0, string.getBytes().length));
     }
 
+    @Test
+    public void testCharSequence() {
+        Random random = new Random(0L);
+        for (int round = 0; round < 1000; round++) {
+            String text = randomText(random, random.nextInt(50));
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            long expected = FP63.newFP63(bytes, 0, bytes.length);
+            Assert.assertEquals(expected, FP63.newFP63(text));
+            Assert.assertEquals(expected, FP63.newFP63(new StringBuilder(text)));
+        }
+    }
+
+    @Test
+    public void testByteBuffer() {
+        byte[] bytes = "http://www.example.com/index.html".getBytes(StandardCharsets.UTF_8);
+        long expected = FP63.newFP63(bytes, 7, bytes.length - 7);
+        ByteBuffer heapBuffer = ByteBuffer.wrap(bytes);
+        heapBuffer.position(7);
+        Assert.assertEquals(expected, FP63.newFP63(heapBuffer));
+        Assert.assertEquals(expected, FP63.newFP63(heapBuffer.slice()));
+        Assert.assertEquals(7, heapBuffer.position());
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+        directBuffer.put(bytes).flip().position(7);
+        Assert.assertEquals(expected, FP63.newFP63(directBuffer));
+        Assert.assertEquals(7, directBuffer.position());
+    }
+
+    @Test
+    public void testStreaming() {
+        Random random = new Random(0L);
+        FP63 fp63 = new FP63();
+        for (int round = 0; round < 1000; round++) {
+            String text = randomText(random, random.nextInt(50));
+            fp63.reset();
+            for (int i = 0; i < text.length(); ) {
+                int end = Math.min(text.length(), i + random.nextInt(4));
+                fp63.update(text.subSequence(i, end));
+                i = end;
+            }
+            Assert.assertEquals(FP63.newFP63(text), fp63.finish());
+        }
+        byte[] bytes = "frank".getBytes(StandardCharsets.UTF_8);
+        fp63.reset();
+        fp63.update(bytes[0]).update(bytes, 1, 2).update(ByteBuffer.wrap(bytes, 3, 2));
+        Assert.assertEquals(-925790194224426764L, fp63.finish());
+        fp63.reset();
+        fp63.update("\uD83D").update(bytes, 0, bytes.length);
+        Assert.assertEquals(FP63.newFP63("\uD83Dfrank"), fp63.finish());
+    }
+
+    private static String randomText(Random random, int length) {
+        char[] candidates = new char[] { 'a', 'Z', '/', '\u00e9', '\u4e2d', '\uD83D', '\uDE00', '\uFFFF' };
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) builder.append(candidates[random.nextInt(candidates.length)]);
+        return builder.toString();
+    }
 }
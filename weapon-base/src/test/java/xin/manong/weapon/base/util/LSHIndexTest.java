@@ -0,0 +1,52 @@
+package xin.manong.weapon.base.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:52:44
+ */
+public class LSHIndexTest {
+
+    @Test
+    public void testCandidates() {
+        MinHash minHash = new MinHash(128, 0L);
+        LSHIndex<String> index = new LSHIndex<>(32, 4);
+        List<String> words = words("word", 0, 100);
+        List<String> nearWords = words("word", 5, 105);
+        List<String> farWords = words("far", 0, 100);
+        index.add("origin", minHash.signature(words));
+        index.add("far", minHash.signature(farWords));
+        Assert.assertEquals(2, index.size());
+        Set<String> candidates = index.candidates(minHash.signature(nearWords));
+        Assert.assertTrue(candidates.contains("origin"));
+        Assert.assertFalse(candidates.contains("far"));
+
+        index.add("origin", minHash.signature(farWords));
+        Assert.assertEquals(2, index.size());
+        Assert.assertFalse(index.candidates(minHash.signature(nearWords)).contains("origin"));
+        Assert.assertTrue(index.remove("origin"));
+        Assert.assertFalse(index.remove("origin"));
+        Assert.assertEquals(1, index.size());
+        candidates = index.candidates(minHash.signature(farWords));
+        Assert.assertEquals(1, candidates.size());
+        Assert.assertTrue(candidates.contains("far"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSignature() {
+        LSHIndex<String> index = new LSHIndex<>(16, 4);
+        index.add("key", new long[32]);
+    }
+
+    private static List<String> words(String prefix, int from, int to) {
+        List<String> words = new ArrayList<>();
+        for (int i = from; i < to; i++) words.add(prefix + i);
+        return words;
+    }
+}
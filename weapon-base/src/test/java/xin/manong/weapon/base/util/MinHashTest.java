@@ -0,0 +1,36 @@
+package xin.manong.weapon.base.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:52:24
+ */
+public class MinHashTest {
+
+    @Test
+    public void testSimilarity() {
+        MinHash minHash = new MinHash(256, 0L);
+        Assert.assertEquals(256, minHash.hashNum());
+        List<String> words1 = new ArrayList<>(), words2 = new ArrayList<>();
+        for (int i = 0; i < 100; i++) words1.add("word" + i);
+        for (int i = 50; i < 150; i++) words2.add("word" + i);
+        long[] signature1 = minHash.signature(words1);
+        long[] signature2 = minHash.signature(words2);
+        Assert.assertArrayEquals(signature1, new MinHash(256, 0L).signature(words1));
+        Assert.assertEquals(1.0d, MinHash.similarity(signature1, signature1), 0.0d);
+        double similarity = MinHash.similarity(signature1, signature2);
+        Assert.assertEquals(50d / 150d, similarity, 0.1d);
+        Assert.assertEquals(1.0d, MinHash.similarity(minHash.signature(new ArrayList<>()),
+                minHash.signature(new ArrayList<>())), 0.0d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInconsistentSignature() {
+        MinHash.similarity(new long[4], new long[8]);
+    }
+}
@@ -1,8 +1,11 @@
 package xin.manong.weapon.base.util;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  * @author frankcl
  * @date 2022-09-28 15:26:23
@@ -15,4 +18,24 @@ public class ShortKeyBuilderTest {
         Assert.assertEquals("JdeaWbpYIOXO", ShortKeyBuilder.build("eb32d97e2fc345b7806174648754898e"));
         Assert.assertEquals("JdeaWbNOfYL2", ShortKeyBuilder.build("7a615520bb4ffcf52c08a39327258f87"));
     }
+
+    @Test
+    public void testBuildDigest() {
+        Random random = new Random(0L);
+        char[] key = new char[ShortKeyBuilder.KEY_LENGTH + 2];
+        for (int i = 0; i < 1000; i++) {
+            String text = Long.toHexString(random.nextLong());
+            byte[] digest = DigestUtils.md5(text);
+            String expected = ShortKeyBuilder.build(text);
+            Assert.assertEquals(expected, ShortKeyBuilder.build(digest));
+            ShortKeyBuilder.build(digest, key, 2);
+            Assert.assertEquals(expected, new String(key, 2, ShortKeyBuilder.KEY_LENGTH));
+        }
+        Assert.assertEquals("43WpOb1XL80K", ShortKeyBuilder.build(DigestUtils.md5("4bd185d10a8486af6ae6a75b2baa59bf")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildInvalidDigest() {
+        ShortKeyBuilder.build(new byte[8]);
+    }
 }
@@ -0,0 +1,41 @@
+package xin.manong.weapon.base.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 01:52:04
+ */
+public class SimHashTest {
+
+    @Test
+    public void testCompute() {
+        Assert.assertEquals(0L, SimHash.compute(new ArrayList<>()));
+        List<String> words = Arrays.asList("北京", "天安门", "广场", "升旗", "仪式", "游客", "清晨", "观看");
+        long simHash = SimHash.compute(words);
+        Assert.assertEquals(simHash, SimHash.compute(new ArrayList<>(words)));
+        Assert.assertEquals(SimHash.hash("北京"), SimHash.compute(Arrays.asList("北京")));
+        Assert.assertEquals(0, SimHash.distance(simHash, simHash));
+        Assert.assertEquals(64, SimHash.distance(0L, -1L));
+    }
+
+    @Test
+    public void testDistance() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 200; i++) words.add("word" + i);
+        List<String> nearWords = new ArrayList<>(words);
+        for (int i = 0; i < 5; i++) nearWords.set(i, "near" + i);
+        List<String> farWords = new ArrayList<>();
+        for (int i = 0; i < 200; i++) farWords.add("far" + i);
+        long simHash = SimHash.compute(words);
+        int nearDistance = SimHash.distance(simHash, SimHash.compute(nearWords));
+        int farDistance = SimHash.distance(simHash, SimHash.compute(farWords));
+        Assert.assertTrue(nearDistance <= 8);
+        Assert.assertTrue(farDistance > 16);
+    }
+}
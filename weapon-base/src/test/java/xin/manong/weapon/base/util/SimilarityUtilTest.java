@@ -3,6 +3,8 @@ package xin.manong.weapon.base.util;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  * @author frankcl
  * @date 2022-07-20 11:00:05
@@ -17,6 +19,34 @@ public class SimilarityUtilTest {
         Assert.assertEquals(0d, SimilarityUtil.coefficientLCS("", "不一定能找到亲人的墓地"), 0.1d);
     }
 
+    @Test
+    public void testCoefficientLCSConsistency() {
+        Random random = new Random(0L);
+        for (int round = 0; round < 500; round++) {
+            String s1 = randomText(random, random.nextInt(300) + 1, random.nextInt(20) + 1);
+            String s2 = randomText(random, random.nextInt(300) + 1, random.nextInt(20) + 1);
+            Assert.assertEquals(coefficientLCS(s1, s2), SimilarityUtil.coefficientLCS(s1, s2), 0d);
+        }
+        String s1 = randomText(random, 5000, 3000);
+        String s2 = s1.substring(100) + randomText(random, 200, 3000);
+        Assert.assertEquals(coefficientLCS(s1, s2), SimilarityUtil.coefficientLCS(s1, s2), 0d);
+    }
+
+    @Test
+    public void testCoefficientLCSThreshold() {
+        Random random = new Random(0L);
+        for (int round = 0; round < 500; round++) {
+            String s1 = randomText(random, random.nextInt(200) + 1, 4);
+            String s2 = randomText(random, random.nextInt(200) + 1, 4);
+            double threshold = random.nextDouble();
+            double score = coefficientLCS(s1, s2);
+            double actual = SimilarityUtil.coefficientLCS(s1, s2, threshold);
+            if (score >= threshold) Assert.assertEquals(score, actual, 0d);
+            else Assert.assertTrue(actual < threshold && actual >= score);
+        }
+        Assert.assertEquals(0.5d, SimilarityUtil.coefficientLCS("ab", "abcdef", 0.6d), 0d);
+    }
+
     @Test
     public void testCoefficientJaccard() {
         Assert.assertEquals(1.0d, SimilarityUtil.coefficientJaccard("很多烈士都没有照片", "很多烈士都没有照片"), 0.1d);
@@ -24,4 +54,21 @@ public class SimilarityUtilTest {
         Assert.assertEquals(0.6d, SimilarityUtil.coefficientJaccard("不一定能找到亲人的喜地", "不一定能找到亲人的墓地"), 0.1d);
         Assert.assertEquals(0d, SimilarityUtil.coefficientJaccard("", "不一定能找到亲人的墓地"), 0.1d);
     }
+
+    private static String randomText(Random random, int length, int alphabetSize) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) builder.append((char) ('\u4e00' + random.nextInt(alphabetSize)));
+        return builder.toString();
+    }
+
+    private static double coefficientLCS(String s1, String s2) {
+        int[][] d = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                if (s1.charAt(i - 1) == s2.charAt(j - 1)) d[i][j] = d[i - 1][j - 1] + 1;
+                else d[i][j] = Math.max(d[i - 1][j], d[i][j - 1]);
+            }
+        }
+        return d[s1.length()][s2.length()] * 2.0d / (s1.length() + s2.length());
+    }
 }
@@ -8,13 +8,14 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.lang.NonNull;
+import xin.manong.weapon.base.kafka.KafkaBatchRecordProcessor;
 import xin.manong.weapon.base.kafka.KafkaConsumeConfig;
 import xin.manong.weapon.base.kafka.KafkaConsumeGroup;
 import xin.manong.weapon.base.kafka.KafkaRecordProcessor;
 
 /**
  * kafka consumer封装
- * 在属性设置完成之后保证KafkaRecordProcessor注入
+ * 在属性设置完成之后保证KafkaRecordProcessor或KafkaBatchRecordProcessor注入
  *
  * @author frankcl
  * @date 2025-03-04 21:44:34
@@ -40,8 +41,13 @@ public class KafkaConsumerBean extends KafkaConsumeGroup implements Initializing
             logger.warn("Record processor:{} is not found", config.processorName);
         }
         Object bean = applicationContext.getBean(config.processorName);
+        if (bean instanceof KafkaBatchRecordProcessor) {
+            setBatchProcessor((KafkaBatchRecordProcessor) bean);
+            return;
+        }
         if (!(bean instanceof KafkaRecordProcessor)) {
-            logger.error("Unexpected bean:{}, not KafkaRecordProcessor", bean.getClass().getName());
+            logger.error("Unexpected bean:{}, not KafkaRecordProcessor or KafkaBatchRecordProcessor",
+                    bean.getClass().getName());
             throw new Exception(String.format("Unexpected bean:%s", bean.getClass().getName()));
         }
         setProcessor((KafkaRecordProcessor) bean);
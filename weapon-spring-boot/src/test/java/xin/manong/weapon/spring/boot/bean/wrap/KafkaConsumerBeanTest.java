@@ -0,0 +1,50 @@
+package xin.manong.weapon.spring.boot.bean.wrap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import xin.manong.weapon.base.kafka.KafkaBatchRecordProcessor;
+import xin.manong.weapon.base.kafka.KafkaConsumeConfig;
+import xin.manong.weapon.base.kafka.KafkaRecordProcessor;
+
+/**
+ * @author frankcl
+ * @date 2026-10-18 02:29:20
+ */
+public class KafkaConsumerBeanTest {
+
+    private KafkaConsumerBean buildConsumerBean(String processorName, Object bean) {
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.registerBean(processorName, Object.class, () -> bean);
+        applicationContext.refresh();
+        KafkaConsumeConfig config = new KafkaConsumeConfig();
+        config.processorName = processorName;
+        KafkaConsumerBean consumerBean = new KafkaConsumerBean(config);
+        consumerBean.setApplicationContext(applicationContext);
+        return consumerBean;
+    }
+
+    @Test
+    public void testBatchRecordProcessor() throws Exception {
+        KafkaBatchRecordProcessor batchProcessor = (partition, consumerRecords) -> consumerRecords.size();
+        KafkaConsumerBean consumerBean = buildConsumerBean("batch_processor", batchProcessor);
+        consumerBean.afterPropertiesSet();
+        Assert.assertSame(batchProcessor, consumerBean.getBatchProcessor());
+        Assert.assertNull(consumerBean.getProcessor());
+    }
+
+    @Test
+    public void testRecordProcessor() throws Exception {
+        KafkaRecordProcessor processor = consumerRecord -> {};
+        KafkaConsumerBean consumerBean = buildConsumerBean("processor", processor);
+        consumerBean.afterPropertiesSet();
+        Assert.assertSame(processor, consumerBean.getProcessor());
+        Assert.assertNull(consumerBean.getBatchProcessor());
+    }
+
+    @Test(expected = Exception.class)
+    public void testUnexpectedBean() throws Exception {
+        KafkaConsumerBean consumerBean = buildConsumerBean("unexpected", "unexpected");
+        consumerBean.afterPropertiesSet();
+    }
+}